@@ -0,0 +1,30 @@
+// Block types; a block is stored as its id, so ids must stay below 256
+public enum BlockType {
+    AIR(0, false, false),
+    GRASS(1, true, true),
+    DIRT(2, true, true),
+    STONE(3, true, true),
+    WATER(4, false, true),
+    WOOD(5, true, true),
+    LEAVES(6, true, true);
+
+    public final int id;
+    public final boolean isSolid;
+    public final boolean isVisible;
+
+    private static final BlockType[] BY_ID = new BlockType[256];
+    static {
+        for (BlockType type : values()) BY_ID[type.id] = type;
+    }
+
+    BlockType(int id, boolean isSolid, boolean isVisible) {
+        this.id = id;
+        this.isSolid = isSolid;
+        this.isVisible = isVisible;
+    }
+
+    public static BlockType fromId(int id) {
+        BlockType type = id >= 0 && id < BY_ID.length ? BY_ID[id] : null;
+        return type != null ? type : AIR;
+    }
+}
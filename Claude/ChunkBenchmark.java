@@ -0,0 +1,541 @@
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.*;
+import java.util.*;
+
+// Headless chunk pipeline benchmark: terrain generation, storage size and meshing, no GPU needed.
+// Build vector/ too and run with --add-modules jdk.incubator.vector to generate terrain with the
+// vector noise kernel
+public class ChunkBenchmark {
+    // Benchmark parameters
+    private static final int RADIUS = 8; // same world as MinecraftClone's RENDER_DISTANCE
+    private static final int ROUNDS = 5;
+    private static final int GENERATE_ROUNDS = 30; // generation is quick, so warm it up longer
+
+    private static final int SIZE = ChunkStorage.SIZE;
+    private static final int HEIGHT = ChunkStorage.HEIGHT;
+
+    public static void main(String[] args) {
+        int width = RADIUS * 2 + 1;
+        System.out.println("world: " + width + "x" + width + " chunks of " + SIZE + "x" + HEIGHT + "x" + SIZE);
+
+        // Terrain generation throughput
+        TerrainGenerator generator = new TerrainGenerator();
+        ChunkStorage[][] world = null;
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < GENERATE_ROUNDS; round++) {
+            long start = System.nanoTime();
+            world = generateWorld(generator, width);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.printf("generate  %8.0f chunks/s%n", width * width / (best / 1e9));
+        // The same seed gives the same checksum on every run, with either noise kernel
+        System.out.printf("terrain   seed %d, checksum %016x, noise kernel %s%n", TerrainGenerator.DEFAULT_SEED,
+            checksum(world), TerrainGenerator.terrainNoise(TerrainGenerator.DEFAULT_SEED).kernelName());
+
+        // Heap held by the world, as palette sections vs the old nested BlockType arrays
+        ChunkStorage[][] finalWorld = world;
+        long paletteBytes = retainedBytes(() -> generateWorld(new TerrainGenerator(), width));
+        long arrayBytes = retainedBytes(() -> toArrays(finalWorld));
+        System.out.printf("memory    %8d bytes/chunk palette, %d bytes/chunk BlockType[][][] (%.1fx smaller)%n",
+            paletteBytes / (width * width), arrayBytes / (width * width), (double) arrayBytes / paletteBytes);
+
+        int uniform = 0;
+        int[] bits = new int[9];
+        for (ChunkStorage[] row : world) {
+            for (ChunkStorage chunk : row) {
+                for (int s = 0; s < ChunkStorage.SECTIONS; s++) {
+                    ChunkSection section = chunk.section(s);
+                    if (section.isUniform()) uniform++;
+                    bits[section.bitsPerBlock()]++;
+                }
+            }
+        }
+        System.out.printf("sections  %d uniform of %d; bits/block 1:%d 2:%d 4:%d 8:%d%n",
+            uniform, width * width * ChunkStorage.SECTIONS, bits[1], bits[2], bits[4], bits[8]);
+
+        // Meshing the whole world with every neighbor loaded, one quad per face vs merged
+        ChunkMesher.ChunkLookup lookup = (chunkX, chunkZ) -> {
+            int x = chunkX + RADIUS, z = chunkZ + RADIUS;
+            return x < 0 || x >= width || z < 0 || z >= width ? null : finalWorld[x][z];
+        };
+        // Vertex memory is compared with the 8-float (32 byte) vertices chunks used to upload
+        System.out.println("mesher     chunks/s    vertices       quads   packed MB  float MB  alloc B/chunk");
+        VertexBuilder out = new VertexBuilder();
+        for (boolean greedy : new boolean[] {false, true}) {
+            ChunkMesher mesher = new ChunkMesher(greedy);
+            long vertices = 0, quads = 0, allocated = 0;
+            best = Long.MAX_VALUE;
+            for (int round = 0; round < ROUNDS; round++) {
+                vertices = 0;
+                quads = 0;
+                long allocatedBefore = allocatedBytes();
+                long start = System.nanoTime();
+                for (int x = 0; x < width; x++) {
+                    for (int z = 0; z < width; z++) {
+                        mesher.mesh(world[x][z], x - RADIUS, z - RADIUS, lookup, out);
+                        vertices += out.vertexCount();
+                        quads += mesher.quadCount();
+                    }
+                }
+                best = Math.min(best, System.nanoTime() - start);
+                allocated = allocatedBytes() - allocatedBefore;
+            }
+            System.out.printf("%-8s  %8.0f  %10d  %10d  %10.1f  %8.1f  %13d%n", greedy ? "greedy" : "per-face",
+                width * width / (best / 1e9), vertices, quads, vertices * VertexBuilder.BYTES_PER_VERTEX / 1e6,
+                vertices * 8 * Float.BYTES / 1e6, allocated / (width * width));
+        }
+        seams(finalWorld, width, lookup);
+        
+        // Generation and meshing off the calling thread, on one worker vs every core
+        System.out.println();
+        pipelineStartup(width);
+        
+        // Saving the world to region files, and starting up from them
+        System.out.println();
+        regions(finalWorld, width);
+        
+        // Chunks streamed around a moving camera
+        System.out.println();
+        streaming();
+        
+        // Frustum culling of the meshed world from a few camera poses
+        System.out.println();
+        culling(finalWorld, width, lookup);
+        
+        // Block edits, from setBlock until the sink has every remeshed section
+        System.out.println();
+        edits();
+    }
+    
+    // Edits around the middle of a streamed world: single blocks, then spheres of about a
+    // thousand blocks set in one frame, then spheres again while the camera streams in chunks.
+    // Latency runs from the edits until the sink holds every section they changed.
+    private static void edits() {
+        ChunkPipeline pipeline = new ChunkPipeline();
+        int[] updates = new int[1];
+        ChunkStreamer<ChunkPipeline.ChunkMesh> streamer = new ChunkStreamer<>(pipeline, RADIUS, 16,
+            new ChunkStreamer.ChunkSink<ChunkPipeline.ChunkMesh>() {
+                public ChunkPipeline.ChunkMesh load(ChunkPipeline.ChunkMesh mesh) {
+                    return mesh;
+                }
+                
+                public void update(ChunkPipeline.ChunkMesh mesh, ChunkPipeline.SectionMesh section) {
+                    updates[0]++;
+                }
+                
+                public void unload(ChunkPipeline.ChunkMesh mesh) {
+                }
+            });
+        while (!streamer.isComplete()) {
+            streamer.update(0, 0, 4_000_000);
+            sleepQuietly(1);
+        }
+        
+        Random random = new Random(1);
+        System.out.println("edits          blocks/edit  sections/edit  p50 ms  p99 ms  max ms");
+        for (String mode : new String[] {"single", "sphere", "streaming"}) {
+            int trials = mode.equals("single") ? 300 : 100;
+            long[] latencies = new long[trials];
+            long blocks = 0;
+            updates[0] = 0;
+            for (int trial = 0; trial < trials; trial++) {
+                int range = (RADIUS - 2) * SIZE;
+                int x = random.nextInt(2 * range) - range, z = random.nextInt(2 * range) - range;
+                int y = 16 + random.nextInt(HEIGHT - 24);
+                float cameraX = 0;
+                if (mode.equals("streaming")) {
+                    // Jump far enough that a ring of new chunks is requested
+                    cameraX = (trial % 2) * 3 * SIZE;
+                    streamer.update(cameraX, 0, 4_000_000);
+                }
+                
+                long start = System.nanoTime();
+                if (mode.equals("single")) {
+                    BlockType current = streamer.getBlock(x, y, z);
+                    blocks += streamer.setBlock(x, y, z, current == BlockType.AIR ? BlockType.STONE : BlockType.AIR) ? 1 : 0;
+                } else {
+                    BlockType fill = trial % 2 == 0 ? BlockType.AIR : BlockType.STONE;
+                    for (int dx = -6; dx <= 6; dx++) {
+                        for (int dy = -6; dy <= 6; dy++) {
+                            for (int dz = -6; dz <= 6; dz++) {
+                                if (dx * dx + dy * dy + dz * dz > 36) continue;
+                                blocks += streamer.setBlock(x + dx, y + dy, z + dz, fill) ? 1 : 0;
+                            }
+                        }
+                    }
+                }
+                do {
+                    streamer.update(cameraX, 0, 4_000_000);
+                    java.util.concurrent.locks.LockSupport.parkNanos(50_000);
+                } while (streamer.pendingEditCount() > 0);
+                latencies[trial] = System.nanoTime() - start;
+            }
+            Arrays.sort(latencies);
+            System.out.printf("%-13s  %11.1f  %13.1f  %6.2f  %6.2f  %6.2f%n", mode, (double) blocks / trials,
+                (double) updates[0] / trials, latencies[trials / 2] / 1e6, latencies[trials * 99 / 100] / 1e6,
+                latencies[trials - 1] / 1e6);
+        }
+        streamer.clear();
+        pipeline.shutdown();
+    }
+    
+    // Culls the world from the middle of it, at MinecraftClone's projection and render distance.
+    // Cells of chunks must pick the same chunks as testing each chunk's box, and no chunk with a
+    // sampled point of its box inside the frustum may be rejected.
+    private static void culling(ChunkStorage[][] world, int width, ChunkMesher.ChunkLookup lookup) {
+        ChunkCuller<int[]> culler = new ChunkCuller<>();
+        List<int[]> boxes = new ArrayList<>(); // chunkX, chunkZ, minY, maxY
+        ChunkMesher mesher = new ChunkMesher();
+        VertexBuilder out = new VertexBuilder();
+        for (int x = 0; x < width; x++) {
+            for (int z = 0; z < width; z++) {
+                mesher.mesh(world[x][z], x - RADIUS, z - RADIUS, lookup, out);
+                if (mesher.minY() > mesher.maxY()) continue;
+                int[] box = {x - RADIUS, z - RADIUS, mesher.minY(), mesher.maxY()};
+                boxes.add(box);
+                culler.add(box[0], box[1], box[2], box[3], box);
+            }
+        }
+        
+        float[] projection = new float[16], view = new float[16];
+        Frustum.perspective((float) Math.toRadians(70), 800f / 600f, 0.1f, 1000f, projection);
+        Frustum frustum = new Frustum();
+        float eyeX = 8, eyeY = 70, eyeZ = 8, distance = RADIUS * SIZE;
+        float[][] poses = {{0, 0}, {0, 90}, {0, 180}, {-30, 45}, {-89, 0}, {45, 270}}; // pitch, yaw
+        List<int[]> visible = new ArrayList<>();
+        Set<int[]> kept = Collections.newSetFromMap(new IdentityHashMap<>());
+        System.out.println("pitch    yaw  visible/chunks  boxes tested  ns/cull  same as per-chunk  missed");
+        for (float[] pose : poses) {
+            Frustum.view(eyeX, eyeY, eyeZ, pose[0], pose[1], view);
+            frustum.set(projection, view);
+            
+            int cullRounds = 20_000;
+            long start = System.nanoTime();
+            for (int round = 0; round < cullRounds; round++) {
+                culler.cull(frustum, eyeX, eyeZ, distance, visible);
+            }
+            long nanos = (System.nanoTime() - start) / cullRounds;
+            
+            kept.clear();
+            kept.addAll(visible);
+            boolean same = true;
+            int missed = 0;
+            for (int[] box : boxes) {
+                float minX = box[0] * SIZE - 0.5f, minZ = box[1] * SIZE - 0.5f;
+                float maxX = minX + SIZE, maxZ = minZ + SIZE;
+                float minY = box[2] - 0.5f, maxY = box[3] - 0.5f;
+                float dx = Math.max(0, Math.max(minX - eyeX, eyeX - maxX));
+                float dz = Math.max(0, Math.max(minZ - eyeZ, eyeZ - maxZ));
+                boolean inRange = dx * dx + dz * dz <= distance * distance;
+                if (kept.contains(box) != (inRange && frustum.intersects(minX, minY, minZ, maxX, maxY, maxZ))) {
+                    same = false;
+                }
+                if (inRange && !kept.contains(box) && anyPointInside(frustum, minX, minY, minZ, maxX, maxY, maxZ)) {
+                    missed++;
+                }
+            }
+            System.out.printf("%5.0f  %5.0f  %7d/%-6d  %12d  %7d  %17s  %6d%n", pose[0], pose[1], visible.size(),
+                boxes.size(), culler.boxesTested(), nanos, same ? "yes" : "NO", missed);
+        }
+    }
+    
+    // Whether any point of an 8x8x8 grid spanning the box is inside the frustum
+    private static boolean anyPointInside(Frustum frustum, float minX, float minY, float minZ,
+                                          float maxX, float maxY, float maxZ) {
+        for (int i = 0; i <= 7; i++) {
+            for (int j = 0; j <= 7; j++) {
+                for (int k = 0; k <= 7; k++) {
+                    if (frustum.contains(minX + (maxX - minX) * i / 7, minY + (maxY - minY) * j / 7,
+                            minZ + (maxZ - minZ) * k / 7)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+    
+    // Per-face quads must match a count of visible faces made block by block across the whole
+    // world, so no face is hidden or shown wrongly at a chunk seam. Meshing each chunk without
+    // its neighbors shows the faces seams gain when borders are not culled against them.
+    private static void seams(ChunkStorage[][] world, int width, ChunkMesher.ChunkLookup lookup) {
+        long expected = 0;
+        int[][] steps = {{-1, 0, 0}, {1, 0, 0}, {0, -1, 0}, {0, 1, 0}, {0, 0, -1}, {0, 0, 1}};
+        for (int x = 0; x < width * SIZE; x++) {
+            for (int z = 0; z < width * SIZE; z++) {
+                for (int y = 0; y < HEIGHT; y++) {
+                    int id = worldId(world, width, x, y, z);
+                    if (id == BlockType.AIR.id || !BlockType.fromId(id).isVisible) continue;
+                    for (int[] step : steps) {
+                        int neighbor = worldId(world, width, x + step[0], y + step[1], z + step[2]);
+                        if (!BlockType.fromId(neighbor).isSolid && neighbor != id) expected++;
+                    }
+                }
+            }
+        }
+        
+        ChunkMesher mesher = new ChunkMesher(false);
+        VertexBuilder out = new VertexBuilder();
+        long exact = 0, isolated = 0;
+        for (int x = 0; x < width; x++) {
+            for (int z = 0; z < width; z++) {
+                mesher.mesh(world[x][z], x - RADIUS, z - RADIUS, lookup, out);
+                exact += mesher.quadCount();
+                mesher.mesh(world[x][z], x - RADIUS, z - RADIUS, (chunkX, chunkZ) -> null, out);
+                isolated += mesher.quadCount();
+            }
+        }
+        System.out.printf("seams     %d faces meshed, %d counted block by block (%s); %d more (%.1f%%) without neighbors%n",
+            exact, expected, exact == expected ? "exact" : "MISMATCH", isolated - exact,
+            100.0 * (isolated - exact) / exact);
+    }
+    
+    // Block id at world block coordinates from the world's minimum corner; air outside it
+    private static int worldId(ChunkStorage[][] world, int width, int x, int y, int z) {
+        if (x < 0 || z < 0 || y < 0 || x >= width * SIZE || z >= width * SIZE || y >= HEIGHT) {
+            return BlockType.AIR.id;
+        }
+        return world[x / SIZE][z / SIZE].getId(x % SIZE, y, z % SIZE);
+    }
+    
+    // A simulated camera flies out along +X and back at 60 fps; reports how many chunks are held
+    // and how long each frame's streamer update takes. Loading a chunk here costs no GL upload.
+    private static void streaming() {
+        int frames = 1200;
+        float speed = 32f / 60; // blocks per frame
+        long frameNanos = 1_000_000_000L / 60;
+        
+        ChunkPipeline pipeline = new ChunkPipeline();
+        int[] counts = new int[2]; // loads, unloads
+        ChunkStreamer<ChunkPipeline.ChunkMesh> streamer = new ChunkStreamer<>(pipeline, RADIUS, 16,
+            new ChunkStreamer.ChunkSink<ChunkPipeline.ChunkMesh>() {
+                public ChunkPipeline.ChunkMesh load(ChunkPipeline.ChunkMesh mesh) {
+                    counts[0]++;
+                    return mesh;
+                }
+                
+                public void update(ChunkPipeline.ChunkMesh mesh, ChunkPipeline.SectionMesh section) {
+                }
+                
+                public void unload(ChunkPipeline.ChunkMesh mesh) {
+                    counts[1]++;
+                }
+            });
+        
+        long[] updates = new long[frames];
+        int maxLoaded = 0, maxGenerated = 0, completeFrames = 0;
+        long start = System.nanoTime();
+        for (int frame = 0; frame < frames; frame++) {
+            float x = speed * (frame < frames / 2 ? frame : frames - frame);
+            long before = System.nanoTime();
+            streamer.update(x, 0, 4_000_000);
+            updates[frame] = System.nanoTime() - before;
+            
+            maxLoaded = Math.max(maxLoaded, streamer.loadedCount());
+            maxGenerated = Math.max(maxGenerated, pipeline.generatedCount());
+            if (streamer.isComplete()) completeFrames++;
+            long wait = start + (frame + 1) * frameNanos - System.nanoTime();
+            if (wait > 0) sleepQuietly(wait / 1_000_000);
+        }
+        streamer.clear();
+        pipeline.shutdown();
+        
+        Arrays.sort(updates);
+        System.out.printf("stream    %d frames, %.0f blocks out and back at %.0f blocks/s%n",
+            frames, speed * frames / 2, speed * 60);
+        System.out.printf("chunks    %d loads, %d unloads; held at most %d loaded (%d in radius), %d generated%n",
+            counts[0], counts[1], maxLoaded, streamer.targetCount(), maxGenerated);
+        System.out.printf("update    p50 %.2f ms, p99 %.2f ms, max %.2f ms; radius fully loaded in %d%% of frames%n",
+            updates[frames / 2] / 1e6, updates[frames * 99 / 100] / 1e6, updates[frames - 1] / 1e6,
+            completeFrames * 100 / frames);
+    }
+    
+    // World startup through the worker pipeline, consumed by a simulated frame loop
+    private static void pipelineStartup(int width) {
+        System.out.println("threads  first mesh ms  all meshes ms  chunks/s");
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int threads : cores == 1 ? new int[] {1} : new int[] {1, cores}) {
+            ChunkPipeline pipeline = new ChunkPipeline(threads);
+            long start = System.nanoTime();
+            for (int x = -RADIUS; x <= RADIUS; x++) {
+                for (int z = -RADIUS; z <= RADIUS; z++) {
+                    pipeline.request(x, z);
+                }
+            }
+            long first = 0;
+            int uploaded = 0;
+            while (uploaded < width * width) {
+                if (pipeline.pollMesh() == null) {
+                    sleepQuietly(1); // next frame
+                    continue;
+                }
+                if (uploaded++ == 0) first = System.nanoTime() - start;
+            }
+            long all = System.nanoTime() - start;
+            pipeline.shutdown();
+            System.out.printf("%7d  %13.1f  %13.1f  %8.0f%n", threads, first / 1e6, all / 1e6,
+                width * width / (all / 1e9));
+        }
+    }
+    
+    // Save the world, then load it back: on its own and through the pipeline at startup
+    private static void regions(ChunkStorage[][] world, int width) {
+        Path directory;
+        try {
+            directory = Files.createTempDirectory("chunk-benchmark");
+        } catch (IOException e) {
+            System.err.println("Skipping region benchmark: " + e.getMessage());
+            return;
+        }
+        try {
+            RegionStore store = new RegionStore(directory);
+            long start = System.nanoTime();
+            for (int x = 0; x < width; x++) {
+                for (int z = 0; z < width; z++) {
+                    store.save(x - RADIUS, z - RADIUS, world[x][z]);
+                }
+            }
+            store.flush();
+            long saveNanos = System.nanoTime() - start;
+            long bytes = store.sizeBytes();
+            store.close();
+            System.out.printf("save      %8.0f chunks/s, %d KB on disk (%d bytes/chunk)%n",
+                width * width / (saveNanos / 1e9), bytes / 1024, bytes / (width * width));
+            
+            // Reading back, with the files already in the page cache as after a recent session
+            TerrainGenerator generator = new TerrainGenerator();
+            long loadBest = Long.MAX_VALUE, generateBest = Long.MAX_VALUE;
+            for (int round = 0; round < ROUNDS; round++) {
+                store = new RegionStore(directory);
+                start = System.nanoTime();
+                for (int x = -RADIUS; x <= RADIUS; x++) {
+                    for (int z = -RADIUS; z <= RADIUS; z++) {
+                        Objects.requireNonNull(store.load(x, z));
+                    }
+                }
+                loadBest = Math.min(loadBest, System.nanoTime() - start);
+                store.close();
+                
+                start = System.nanoTime();
+                generateWorld(generator, width);
+                generateBest = Math.min(generateBest, System.nanoTime() - start);
+            }
+            System.out.printf("load      %8.0f chunks/s, generate %.0f chunks/s (%.1fx faster)%n",
+                width * width / (loadBest / 1e9), width * width / (generateBest / 1e9), (double) generateBest / loadBest);
+            
+            int threads = Runtime.getRuntime().availableProcessors();
+            long generated = startupNanos(new ChunkPipeline(threads), width);
+            // A first session also saves the ring of neighbors generated for culling the edge
+            store = new RegionStore(directory);
+            startupNanos(new ChunkPipeline(threads, store), width);
+            store.close();
+            store = new RegionStore(directory);
+            long loaded = startupNanos(new ChunkPipeline(threads, store), width);
+            store.close();
+            System.out.printf("startup   %.1f ms from saved regions, %.1f ms generating%n", loaded / 1e6, generated / 1e6);
+        } catch (IOException e) {
+            System.err.println("Region benchmark failed: " + e.getMessage());
+        } finally {
+            deleteQuietly(directory);
+        }
+    }
+    
+    // Time until every chunk of the world has been meshed; shuts the pipeline down
+    private static long startupNanos(ChunkPipeline pipeline, int width) {
+        long start = System.nanoTime();
+        for (int x = -RADIUS; x <= RADIUS; x++) {
+            for (int z = -RADIUS; z <= RADIUS; z++) {
+                pipeline.request(x, z);
+            }
+        }
+        for (int meshed = 0; meshed < width * width; ) {
+            if (pipeline.pollMesh() == null) {
+                sleepQuietly(1);
+            } else {
+                meshed++;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        pipeline.shutdown();
+        return elapsed;
+    }
+    
+    private static void deleteQuietly(Path directory) {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) Files.delete(file);
+            Files.delete(directory);
+        } catch (IOException e) {
+            System.err.println("Could not delete " + directory + ": " + e.getMessage());
+        }
+    }
+    
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    // Bytes allocated by this thread so far
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+    
+    private static ChunkStorage[][] generateWorld(TerrainGenerator generator, int width) {
+        ChunkStorage[][] world = new ChunkStorage[width][width];
+        for (int x = 0; x < width; x++) {
+            for (int z = 0; z < width; z++) {
+                world[x][z] = generator.generate(x - RADIUS, z - RADIUS);
+            }
+        }
+        return world;
+    }
+
+    private static long checksum(ChunkStorage[][] world) {
+        byte[] ids = new byte[ChunkStorage.VOLUME];
+        long checksum = 0;
+        for (ChunkStorage[] row : world) {
+            for (ChunkStorage chunk : row) {
+                chunk.copyIds(ids);
+                checksum = checksum * 31 + Arrays.hashCode(ids);
+            }
+        }
+        return checksum;
+    }
+
+    // The layout chunks used before palette sections
+    private static BlockType[][][][][] toArrays(ChunkStorage[][] world) {
+        BlockType[][][][][] arrays = new BlockType[world.length][world.length][][][];
+        for (int cx = 0; cx < world.length; cx++) {
+            for (int cz = 0; cz < world.length; cz++) {
+                BlockType[][][] blocks = new BlockType[SIZE][HEIGHT][SIZE];
+                for (int x = 0; x < SIZE; x++) {
+                    for (int y = 0; y < HEIGHT; y++) {
+                        for (int z = 0; z < SIZE; z++) {
+                            blocks[x][y][z] = world[cx][cz].get(x, y, z);
+                        }
+                    }
+                }
+                arrays[cx][cz] = blocks;
+            }
+        }
+        return arrays;
+    }
+
+    // Heap still reachable from what build returns, after full collections
+    private static long retainedBytes(java.util.function.Supplier<Object> build) {
+        long before = usedHeap();
+        Object kept = build.get();
+        long after = usedHeap();
+        Objects.requireNonNull(kept);
+        return after - before;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,136 @@
+import java.util.*;
+
+// Index of drawable chunks by their bounding boxes, answering which are within a distance of
+// the camera and inside its frustum. Chunks are grouped into cells of 4x4 chunks: a cell
+// outside the frustum skips its chunks, one entirely inside takes them all untested.
+// Boxes span the chunk's meshed height only, so looking down or up culls more. Pure Java.
+public class ChunkCuller<C> {
+    private static final int CELL_SHIFT = 2; // 4x4 chunks per cell
+    private static final int SIZE = ChunkStorage.SIZE;
+    private static final float OFFSET = -0.5f; // the vertex shader centres blocks on integer coordinates
+
+    static final class Entry<C> {
+        final int chunkX, chunkZ;
+        final int minY, maxY;
+        final C chunk;
+
+        Entry(int chunkX, int chunkZ, int minY, int maxY, C chunk) {
+            this.chunkX = chunkX;
+            this.chunkZ = chunkZ;
+            this.minY = minY;
+            this.maxY = maxY;
+            this.chunk = chunk;
+        }
+    }
+
+    static final class Cell<C> {
+        final List<Entry<C>> entries = new ArrayList<>();
+        int minY, maxY;
+
+        void updateBounds() {
+            minY = Integer.MAX_VALUE;
+            maxY = Integer.MIN_VALUE;
+            for (Entry<C> entry : entries) {
+                minY = Math.min(minY, entry.minY);
+                maxY = Math.max(maxY, entry.maxY);
+            }
+        }
+    }
+
+    private final ChunkMap<Entry<C>> entries = new ChunkMap<>();
+    private final ChunkMap<Cell<C>> cells = new ChunkMap<>();
+
+    // State of the cull in progress, so visiting cells allocates nothing
+    private final ChunkMap.Visitor<Cell<C>> cellVisitor = this::visitCell;
+    private Frustum frustum;
+    private float cameraX, cameraZ, maxDistanceSquared;
+    private List<C> visible;
+    private int boxesTested;
+
+    // Add or replace a chunk whose mesh spans minY..maxY in block coordinates
+    public void add(int chunkX, int chunkZ, int minY, int maxY, C chunk) {
+        remove(chunkX, chunkZ);
+        Entry<C> entry = new Entry<>(chunkX, chunkZ, minY, maxY, chunk);
+        entries.put(chunkX, chunkZ, entry);
+        int cellX = chunkX >> CELL_SHIFT, cellZ = chunkZ >> CELL_SHIFT;
+        Cell<C> cell = cells.get(cellX, cellZ);
+        if (cell == null) {
+            cell = new Cell<>();
+            cells.put(cellX, cellZ, cell);
+        }
+        cell.entries.add(entry);
+        cell.updateBounds();
+    }
+
+    public void remove(int chunkX, int chunkZ) {
+        Entry<C> entry = entries.remove(chunkX, chunkZ);
+        if (entry == null) return;
+        int cellX = chunkX >> CELL_SHIFT, cellZ = chunkZ >> CELL_SHIFT;
+        Cell<C> cell = cells.get(cellX, cellZ);
+        cell.entries.remove(entry);
+        if (cell.entries.isEmpty()) {
+            cells.remove(cellX, cellZ);
+        } else {
+            cell.updateBounds();
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public void clear() {
+        entries.clear();
+        cells.clear();
+    }
+
+    // Replace out's contents with the chunks inside the frustum whose boxes come within
+    // maxDistance blocks of the camera horizontally; returns how many were kept
+    public int cull(Frustum frustum, float cameraX, float cameraZ, float maxDistance, List<C> out) {
+        out.clear();
+        this.frustum = frustum;
+        this.cameraX = cameraX;
+        this.cameraZ = cameraZ;
+        this.maxDistanceSquared = maxDistance * maxDistance;
+        this.visible = out;
+        boxesTested = 0;
+        cells.forEach(cellVisitor);
+        this.frustum = null;
+        this.visible = null;
+        return out.size();
+    }
+
+    // Frustum tests the last cull made, cells and chunks
+    public int boxesTested() {
+        return boxesTested;
+    }
+
+    private void visitCell(int cellX, int cellZ, Cell<C> cell) {
+        float minX = (cellX << CELL_SHIFT) * SIZE + OFFSET, minZ = (cellZ << CELL_SHIFT) * SIZE + OFFSET;
+        float maxX = minX + (SIZE << CELL_SHIFT), maxZ = minZ + (SIZE << CELL_SHIFT);
+        if (distanceSquared(minX, minZ, maxX, maxZ) > maxDistanceSquared) return;
+        boxesTested++;
+        int inside = frustum.classify(minX, cell.minY + OFFSET, minZ, maxX, cell.maxY + OFFSET, maxZ);
+        if (inside == Frustum.OUTSIDE) return;
+
+        for (Entry<C> entry : cell.entries) {
+            float chunkMinX = entry.chunkX * SIZE + OFFSET, chunkMinZ = entry.chunkZ * SIZE + OFFSET;
+            if (distanceSquared(chunkMinX, chunkMinZ, chunkMinX + SIZE, chunkMinZ + SIZE) > maxDistanceSquared) continue;
+            if (inside == Frustum.INTERSECTS) {
+                boxesTested++;
+                if (!frustum.intersects(chunkMinX, entry.minY + OFFSET, chunkMinZ,
+                        chunkMinX + SIZE, entry.maxY + OFFSET, chunkMinZ + SIZE)) {
+                    continue;
+                }
+            }
+            visible.add(entry.chunk);
+        }
+    }
+
+    // Squared horizontal distance from the camera to the nearest point of a rectangle
+    private float distanceSquared(float minX, float minZ, float maxX, float maxZ) {
+        float dx = Math.max(0, Math.max(minX - cameraX, cameraX - maxX));
+        float dz = Math.max(0, Math.max(minZ - cameraZ, cameraZ - maxZ));
+        return dx * dx + dz * dz;
+    }
+}
@@ -0,0 +1,168 @@
+import java.util.Arrays;
+
+// Open-addressing map from chunk coordinates, packed into a long, to non-null values.
+// Keys are never boxed, so per-frame lookups while streaming allocate nothing.
+public class ChunkMap<V> {
+    // Receives entries without boxing their keys
+    public interface Visitor<V> {
+        void visit(int chunkX, int chunkZ, V value);
+    }
+
+    // Chooses entries to remove
+    public interface Filter<V> {
+        boolean test(int chunkX, int chunkZ, V value);
+    }
+
+    private long[] keys;
+    private Object[] values; // null marks an empty slot
+    private int size;
+    private long[] doomed = new long[16]; // scratch for removeIf
+
+    public ChunkMap() {
+        this(64);
+    }
+
+    public ChunkMap(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(expected, 4) * 2 - 1) * 2;
+        keys = new long[capacity];
+        values = new Object[capacity];
+    }
+
+    public static long key(int chunkX, int chunkZ) {
+        return (long) chunkX << 32 | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    public static int keyX(long key) {
+        return (int) (key >> 32);
+    }
+
+    public static int keyZ(long key) {
+        return (int) key;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int chunkX, int chunkZ) {
+        int slot = find(key(chunkX, chunkZ));
+        return slot < 0 ? null : (V) values[slot];
+    }
+
+    public boolean containsKey(int chunkX, int chunkZ) {
+        return find(key(chunkX, chunkZ)) >= 0;
+    }
+
+    // Returns the previous value, or null
+    @SuppressWarnings("unchecked")
+    public V put(int chunkX, int chunkZ, V value) {
+        if (value == null) throw new IllegalArgumentException("ChunkMap values must not be null");
+        long key = key(chunkX, chunkZ);
+        int mask = keys.length - 1;
+        for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+            if (values[slot] == null) {
+                keys[slot] = key;
+                values[slot] = value;
+                if (++size * 4 > keys.length * 3) grow();
+                return null;
+            }
+            if (keys[slot] == key) {
+                V previous = (V) values[slot];
+                values[slot] = value;
+                return previous;
+            }
+        }
+    }
+
+    // Returns the removed value, or null
+    @SuppressWarnings("unchecked")
+    public V remove(int chunkX, int chunkZ) {
+        int slot = find(key(chunkX, chunkZ));
+        if (slot < 0) return null;
+        V removed = (V) values[slot];
+        deleteSlot(slot);
+        return removed;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEach(Visitor<V> visitor) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (values[slot] != null) visitor.visit(keyX(keys[slot]), keyZ(keys[slot]), (V) values[slot]);
+        }
+    }
+
+    // Remove every entry the filter accepts, handing each removed value to removed (may be null)
+    @SuppressWarnings("unchecked")
+    public int removeIf(Filter<V> filter, Visitor<V> removed) {
+        int count = 0;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (values[slot] != null && filter.test(keyX(keys[slot]), keyZ(keys[slot]), (V) values[slot])) {
+                if (count == doomed.length) doomed = Arrays.copyOf(doomed, count * 2);
+                doomed[count++] = keys[slot];
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            int chunkX = keyX(doomed[i]), chunkZ = keyZ(doomed[i]);
+            V value = remove(chunkX, chunkZ);
+            if (removed != null) removed.visit(chunkX, chunkZ, value);
+        }
+        return count;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    private int find(long key) {
+        int mask = keys.length - 1;
+        for (int slot = hash(key) & mask; values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) return slot;
+        }
+        return -1;
+    }
+
+    // Linear-probing delete: shift later entries of the cluster back instead of leaving tombstones
+    private void deleteSlot(int slot) {
+        int mask = keys.length - 1;
+        values[slot] = null;
+        size--;
+        for (int next = (slot + 1) & mask; values[next] != null; next = (next + 1) & mask) {
+            int home = hash(keys[next]) & mask;
+            // Move next into the hole unless its home lies cyclically in (slot, next]
+            boolean stays = slot <= next ? slot < home && home <= next : slot < home || home <= next;
+            if (!stays) {
+                keys[slot] = keys[next];
+                values[slot] = values[next];
+                values[next] = null;
+                slot = next;
+            }
+        }
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new Object[oldValues.length * 2];
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] == null) continue;
+            int slot = hash(oldKeys[i]) & mask;
+            while (values[slot] != null) slot = (slot + 1) & mask;
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+        }
+    }
+
+    private static int hash(long key) {
+        key = (key ^ (key >>> 33)) * 0xff51afd7ed558ccdL;
+        key = (key ^ (key >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return (int) (key ^ (key >>> 33));
+    }
+}
@@ -0,0 +1,187 @@
+import java.util.Arrays;
+
+// Builds a chunk's vertex data on the CPU; needs no GL context, so it runs headless.
+// Greedy meshing merges coplanar faces of the same block type into one quad per rectangle.
+// Vertices are packed by VertexBuilder; texture coordinates count blocks and the shader
+// repeats the atlas tile across them.
+public class ChunkMesher {
+    private static final int SIZE = ChunkStorage.SIZE;
+    private static final int HEIGHT = ChunkStorage.HEIGHT;
+
+    // Faces by direction: -X, +X, -Y, +Y, -Z, +Z; a face's axis is face / 2.
+    // In-plane axes (u, v) per axis, with v vertical on side faces so textures stay upright
+    private static final int[] U_AXIS = {2, 0, 0};
+    private static final int[] V_AXIS = {1, 2, 1};
+    // Quads wind counter-clockwise from outside; u x v points against +X and +Y, along +Z
+    private static final boolean[] FLIP = {false, true, false, true, true, false};
+    // Quad corners counter-clockwise in (u, v) as 0/1 offsets, and two triangles over them
+    private static final int[] CORNER_U = {0, 1, 1, 0};
+    private static final int[] CORNER_V = {0, 0, 1, 1};
+    private static final int[] TRIANGLES = {0, 1, 2, 0, 2, 3};
+    private static final int[] FLIPPED_TRIANGLES = {0, 2, 1, 0, 3, 2};
+
+    // Loaded chunks by chunk coordinates, for faces on the chunk's border
+    public interface ChunkLookup {
+        ChunkStorage chunkAt(int chunkX, int chunkZ); // null if not loaded
+    }
+
+    private final boolean greedy;
+
+    // Scratch, reused across chunks: one mesher per thread
+    private final ChunkNeighborhood neighborhood = new ChunkNeighborhood();
+    private final int[] mask = new int[SIZE * HEIGHT];             // largest slice is 16 x 64
+    private final int[] low = new int[3], high = new int[3]; // the block range being meshed
+    private final int[] position = new int[3];
+    private final int[] corner = new int[3];
+    private final VertexBuilder vertices = new VertexBuilder();
+    private int quads;
+    private int minY, maxY; // of the last mesh's block corners
+
+    public ChunkMesher() {
+        this(true);
+    }
+
+    // greedy false emits one quad per visible face, e.g. as a benchmark baseline
+    public ChunkMesher(boolean greedy) {
+        this.greedy = greedy;
+    }
+
+    // Mesh into this mesher's builder and return a copy of the packed vertices
+    public int[] mesh(ChunkStorage blocks, int chunkX, int chunkZ, ChunkLookup chunks) {
+        mesh(blocks, chunkX, chunkZ, chunks, vertices);
+        return vertices.toArray();
+    }
+    
+    // Mesh into out, replacing its contents; allocates nothing once out has grown.
+    // Faces against a neighbor chunks has not loaded are kept, see missingNeighbors
+    public void mesh(ChunkStorage blocks, int chunkX, int chunkZ, ChunkLookup chunks, VertexBuilder out) {
+        load(blocks, chunkX, chunkZ, chunks);
+        meshRange(0, HEIGHT, out);
+    }
+
+    // Copy a chunk and its neighbors' borders, for meshing it section by section
+    public void load(ChunkStorage blocks, int chunkX, int chunkZ, ChunkLookup chunks) {
+        neighborhood.load(blocks, chunkX, chunkZ, chunks);
+    }
+
+    // Mesh one 16^3 section of the loaded chunk and return a copy of the packed vertices.
+    // Faces merge within the section only, so each section's mesh can be replaced on its own
+    public int[] meshSection(int sectionY) {
+        meshRange(sectionY * ChunkSection.SIZE, (sectionY + 1) * ChunkSection.SIZE, vertices);
+        return vertices.toArray();
+    }
+
+    // Mesh blocks with y in [bottom, top) of the loaded chunk into out
+    private void meshRange(int bottom, int top, VertexBuilder out) {
+        low[1] = bottom;
+        high[0] = SIZE;
+        high[1] = top;
+        high[2] = SIZE;
+        out.clear();
+        quads = 0;
+        minY = HEIGHT;
+        maxY = 0;
+        for (int face = 0; face < 6; face++) {
+            meshFace(face, out);
+        }
+    }
+
+    // Sides of the last mesh whose neighbor was not loaded, as ChunkNeighborhood.missingSides;
+    // their border faces are drawn as if against air, so remesh once the neighbor loads
+    public int missingNeighbors() {
+        return neighborhood.missingSides();
+    }
+
+    // Quads in the last mesh
+    public int quadCount() {
+        return quads;
+    }
+
+    // Vertical extent of the last mesh in block-corner coordinates, e.g. for culling;
+    // an empty mesh has minY > maxY
+    public int minY() {
+        return minY;
+    }
+
+    public int maxY() {
+        return maxY;
+    }
+
+    private void meshFace(int face, VertexBuilder out) {
+        int axis = face >> 1;
+        int step = (face & 1) == 0 ? -1 : 1;
+        int u = U_AXIS[axis], v = V_AXIS[axis];
+        int width = high[u] - low[u], height = high[v] - low[v];
+        int facing = step * ChunkNeighborhood.STRIDES[axis]; // index step to the block the face looks at
+
+        for (int slice = low[axis]; slice < high[axis]; slice++) {
+            // Which blocks of this slice show this face, as block ids (0 = no face)
+            boolean any = false;
+            position[axis] = slice;
+            for (int j = 0; j < height; j++) {
+                position[v] = low[v] + j;
+                for (int i = 0; i < width; i++) {
+                    position[u] = low[u] + i;
+                    int index = ChunkNeighborhood.index(position[0], position[1], position[2]);
+                    int id = neighborhood.id(index);
+                    int faceId = 0;
+                    if (id != BlockType.AIR.id && BlockType.fromId(id).isVisible) {
+                        int neighbor = neighborhood.id(index + facing);
+                        // Hidden behind solid blocks, and between blocks of the same kind (water)
+                        if (!BlockType.fromId(neighbor).isSolid && neighbor != id) faceId = id;
+                    }
+                    mask[j * width + i] = faceId;
+                    any |= faceId != 0;
+                }
+            }
+            if (!any) continue;
+
+            // Cover the mask with rectangles: widen along u, then extend along v while rows match
+            for (int j = 0; j < height; j++) {
+                for (int i = 0; i < width; ) {
+                    int id = mask[j * width + i];
+                    if (id == 0) {
+                        i++;
+                        continue;
+                    }
+                    int w = 1;
+                    int h = 1;
+                    if (greedy) {
+                        while (i + w < width && mask[j * width + i + w] == id) w++;
+                        extend:
+                        while (j + h < height) {
+                            for (int k = 0; k < w; k++) {
+                                if (mask[(j + h) * width + i + k] != id) break extend;
+                            }
+                            h++;
+                        }
+                    }
+                    for (int l = 0; l < h; l++) {
+                        Arrays.fill(mask, (j + l) * width + i, (j + l) * width + i + w, 0);
+                    }
+                    addQuad(face, slice, low[u] + i, low[v] + j, w, h, id, out);
+                    i += w;
+                }
+            }
+        }
+    }
+
+    // Two triangles covering w x h blocks, at block-corner coordinates
+    private void addQuad(int face, int slice, int i, int j, int w, int h, int id, VertexBuilder out) {
+        int axis = face >> 1;
+        int u = U_AXIS[axis], v = V_AXIS[axis];
+        corner[axis] = slice + (face & 1); // the far side of the block for positive faces
+        int[] triangles = FLIP[face] ? FLIPPED_TRIANGLES : TRIANGLES;
+        for (int k = 0; k < triangles.length; k++) {
+            int du = CORNER_U[triangles[k]] * w;
+            int dv = CORNER_V[triangles[k]] * h;
+            corner[u] = i + du;
+            corner[v] = j + dv;
+            out.add(VertexBuilder.packPosition(corner[0], corner[1], corner[2], face),
+                    VertexBuilder.packTexture(du, dv, id));
+            minY = Math.min(minY, corner[1]);
+            maxY = Math.max(maxY, corner[1]);
+        }
+        quads++;
+    }
+}
@@ -0,0 +1,73 @@
+import java.util.Arrays;
+
+// A chunk's block ids with a one-block border copied from its neighbors, so every block next to
+// one of the chunk's blocks is one array index away. Chunks span the world's full height, so the
+// borders above and below are air; a side whose neighbor is not loaded is air too, and reported
+// by missingSides. Each chunk is copied holding its monitor, so edits made under the same lock
+// are seen whole. Reusable scratch: one per mesher.
+public final class ChunkNeighborhood {
+    private static final int SIZE = ChunkStorage.SIZE;
+    private static final int HEIGHT = ChunkStorage.HEIGHT;
+    private static final int WIDTH = SIZE + 2; // along x and z, with the border
+    public static final int VOLUME = WIDTH * (HEIGHT + 2) * WIDTH;
+    // Index steps along x, y and z
+    public static final int[] STRIDES = {1, WIDTH * WIDTH, WIDTH};
+
+    private final byte[] ids = new byte[VOLUME];
+    private final byte[] column = new byte[ChunkStorage.VOLUME];
+    private int missingSides;
+
+    // Copy a chunk and the facing slices of its neighbors, which lookup may not have loaded
+    public void load(ChunkStorage blocks, int chunkX, int chunkZ, ChunkMesher.ChunkLookup chunks) {
+        Arrays.fill(ids, (byte) BlockType.AIR.id);
+        synchronized (blocks) {
+            blocks.copyIds(column);
+        }
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int z = 0; z < SIZE; z++) {
+                System.arraycopy(column, ChunkStorage.index(0, y, z), ids, index(0, y, z), SIZE);
+            }
+        }
+        missingSides = 0;
+        copySide(chunks.chunkAt(chunkX - 1, chunkZ), 0);
+        copySide(chunks.chunkAt(chunkX + 1, chunkZ), 1);
+        copySide(chunks.chunkAt(chunkX, chunkZ - 1), 2);
+        copySide(chunks.chunkAt(chunkX, chunkZ + 1), 3);
+    }
+
+    // Chunk-local coordinates, each from -1 to one past the chunk
+    public static int index(int x, int y, int z) {
+        return ((y + 1) * WIDTH + z + 1) * WIDTH + x + 1;
+    }
+
+    public int id(int index) {
+        return ids[index] & 0xFF;
+    }
+
+    // Bits 0 to 3 set for the -X, +X, -Z and +Z neighbors that were not loaded
+    public int missingSides() {
+        return missingSides;
+    }
+
+    // Side 0 to 3 is -X, +X, -Z, +Z: the neighbor's slice facing the chunk becomes that border
+    private void copySide(ChunkStorage neighbor, int side) {
+        if (neighbor == null) {
+            missingSides |= 1 << side;
+            return;
+        }
+        boolean alongX = side < 2;
+        int border = (side & 1) == 0 ? -1 : SIZE;
+        int facing = (side & 1) == 0 ? SIZE - 1 : 0;
+        synchronized (neighbor) {
+            for (int y = 0; y < HEIGHT; y++) {
+                for (int i = 0; i < SIZE; i++) {
+                    if (alongX) {
+                        ids[index(border, y, i)] = (byte) neighbor.getId(facing, y, i);
+                    } else {
+                        ids[index(i, y, border)] = (byte) neighbor.getId(i, y, facing);
+                    }
+                }
+            }
+        }
+    }
+}
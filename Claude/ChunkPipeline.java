@@ -0,0 +1,324 @@
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+// Generates and meshes chunks on a worker pool, so the GL thread only uploads finished meshes.
+// A requested chunk's four neighbors are generated too, and it is meshed once all five exist,
+// so its border faces are culled against real blocks; if a neighbor was dropped while meshing,
+// the chunk is meshed again when the neighbor is back. With a RegionStore, saved chunks are
+// loaded instead of generated, and newly generated ones are queued to be saved. Needs no GL context.
+// Chunks are meshed as one sub-mesh per 16^3 section, so an edit remeshes only the sections it
+// touches; those remeshes run on a worker of their own, so they never wait behind generation and meshing.
+public class ChunkPipeline {
+    // One section's mesh, a sub-buffer of its chunk's
+    public static class SectionMesh {
+        public final int chunkX, chunkZ, sectionY;
+        public final int[] vertices; // packed, see VertexBuilder
+        public final int minY, maxY;  // vertical extent of the mesh; minY > maxY if empty
+        public final long version;   // as passed to remesh; 0 in a chunk's first mesh
+
+        SectionMesh(int chunkX, int chunkZ, int sectionY, int[] vertices, int minY, int maxY, long version) {
+            this.chunkX = chunkX;
+            this.chunkZ = chunkZ;
+            this.sectionY = sectionY;
+            this.vertices = vertices;
+            this.minY = minY;
+            this.maxY = maxY;
+            this.version = version;
+        }
+    }
+
+    // A generated chunk and its CPU mesh, ready for upload
+    public static class ChunkMesh {
+        public final int chunkX, chunkZ;
+        public final ChunkStorage blocks;
+        public final SectionMesh[] sections; // bottom to top
+        public final int minY, maxY;         // vertical extent of the mesh; minY > maxY if empty
+
+        ChunkMesh(int chunkX, int chunkZ, ChunkStorage blocks, SectionMesh[] sections) {
+            this.chunkX = chunkX;
+            this.chunkZ = chunkZ;
+            this.blocks = blocks;
+            this.sections = sections;
+            int minY = ChunkStorage.HEIGHT, maxY = 0;
+            for (SectionMesh section : sections) {
+                minY = Math.min(minY, section.minY);
+                maxY = Math.max(maxY, section.maxY);
+            }
+            this.minY = minY;
+            this.maxY = maxY;
+        }
+    }
+
+    private final ThreadPoolExecutor workers; // generation and whole-chunk meshing, in request order
+    // Reserved for remeshing edited sections: a queue priority alone still left edits waiting for a
+    // running generate or mesh task on every worker
+    private final ThreadPoolExecutor editor;
+    // Remeshes submitted and not yet finished; streaming tasks wait for none before they start,
+    // so on a machine with few cores an edit waits at most for the task already running
+    private final AtomicInteger editsPending = new AtomicInteger();
+    private static final long EDIT_WAIT_NANOS = 100_000;
+    private final RegionStore store; // null to always generate
+    // One generator and mesher per worker, since both keep scratch buffers
+    private final ThreadLocal<TerrainGenerator> generators;
+    private final ThreadLocal<ChunkMesher> meshers = ThreadLocal.withInitial(ChunkMesher::new);
+
+    private final Map<Long, ChunkStorage> generated = new ConcurrentHashMap<>();
+    private final Set<Long> requested = new HashSet<>();  // guarded by this: to be meshed
+    private final Set<Long> generating = new HashSet<>(); // guarded by this: generation submitted
+    private final Set<Long> meshing = new HashSet<>();    // guarded by this: mesh submitted
+    private final Queue<ChunkMesh> ready = new ConcurrentLinkedQueue<>();
+    private final Queue<SectionMesh> readySections = new ConcurrentLinkedQueue<>();
+
+    public ChunkPipeline() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public ChunkPipeline(int threads) {
+        this(threads, null);
+    }
+
+    public ChunkPipeline(int threads, RegionStore store) {
+        this(threads, store, TerrainGenerator.DEFAULT_SEED);
+    }
+
+    public ChunkPipeline(int threads, RegionStore store, long seed) {
+        this.store = store;
+        // The world's noise is built once; workers' generators share it
+        FractalNoise noise = TerrainGenerator.terrainNoise(seed);
+        generators = ThreadLocal.withInitial(() -> new TerrainGenerator(seed, noise));
+        AtomicInteger count = new AtomicInteger();
+        workers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+            task -> {
+                Thread thread = new Thread(task, "chunk-worker-" + count.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            });
+        editor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), task -> {
+            Thread thread = new Thread(task, "chunk-editor");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MAX_PRIORITY);
+            return thread;
+        });
+    }
+
+    // Generate and mesh a chunk in the background; requests are served in order,
+    // and each is answered by one mesh unless cancelled
+    public synchronized void request(int chunkX, int chunkZ) {
+        if (!requested.add(key(chunkX, chunkZ))) return;
+        startGenerating(chunkX, chunkZ);
+        startGenerating(chunkX - 1, chunkZ);
+        startGenerating(chunkX + 1, chunkZ);
+        startGenerating(chunkX, chunkZ - 1);
+        startGenerating(chunkX, chunkZ + 1);
+        meshIfReady(chunkX, chunkZ); // its neighborhood may already be generated
+    }
+
+    // Forget a request; a mesh already being built for it is dropped
+    public synchronized void cancel(int chunkX, int chunkZ) {
+        long key = key(chunkX, chunkZ);
+        requested.remove(key);
+        meshing.remove(key);
+    }
+    
+    // Drop chunks, generated or not, farther than distance chunks (on either axis) from a center
+    public synchronized void retainWithin(int centerX, int centerZ, int distance) {
+        requested.removeIf(key -> outside(key, centerX, centerZ, distance));
+        meshing.removeIf(key -> outside(key, centerX, centerZ, distance));
+        generating.removeIf(key -> outside(key, centerX, centerZ, distance));
+        generated.keySet().removeIf(key -> outside(key, centerX, centerZ, distance));
+    }
+    
+    private static boolean outside(long key, int centerX, int centerZ, int distance) {
+        return Math.abs(ChunkMap.keyX(key) - centerX) > distance || Math.abs(ChunkMap.keyZ(key) - centerZ) > distance;
+    }
+    
+    // Chunks whose blocks are held, including neighbors generated only for culling
+    public int generatedCount() {
+        return generated.size();
+    }
+
+    // Blocks of a generated chunk, or null
+    public ChunkStorage blocks(int chunkX, int chunkZ) {
+        return generated.get(key(chunkX, chunkZ));
+    }
+
+    // The next finished mesh, or null if none is waiting
+    public ChunkMesh pollMesh() {
+        return ready.poll();
+    }
+
+    // Block at world coordinates, air above and below the world; null if its chunk is not held
+    public BlockType getBlock(int x, int y, int z) {
+        ChunkStorage blocks = blocks(Math.floorDiv(x, ChunkStorage.SIZE), Math.floorDiv(z, ChunkStorage.SIZE));
+        if (blocks == null) return null;
+        if (y < 0 || y >= ChunkStorage.HEIGHT) return BlockType.AIR;
+        synchronized (blocks) {
+            return blocks.get(Math.floorMod(x, ChunkStorage.SIZE), y, Math.floorMod(z, ChunkStorage.SIZE));
+        }
+    }
+
+    // Set a block at world coordinates and queue its chunk to be saved; false if the block was
+    // already that type or its chunk is not held. Meshes are not updated, see remesh
+    public boolean setBlock(int x, int y, int z, BlockType type) {
+        int chunkX = Math.floorDiv(x, ChunkStorage.SIZE), chunkZ = Math.floorDiv(z, ChunkStorage.SIZE);
+        ChunkStorage blocks = blocks(chunkX, chunkZ);
+        if (blocks == null || y < 0 || y >= ChunkStorage.HEIGHT) return false;
+        synchronized (blocks) {
+            int localX = Math.floorMod(x, ChunkStorage.SIZE), localZ = Math.floorMod(z, ChunkStorage.SIZE);
+            if (blocks.getId(localX, y, localZ) == type.id) return false;
+            blocks.set(localX, y, localZ, type);
+        }
+        if (store != null) store.save(chunkX, chunkZ, blocks);
+        return true;
+    }
+
+    // Mesh some sections of a held chunk again (sections as bits, bottom up) on the editor, apart
+    // from streaming work, loading the chunk's neighborhood once for all of them; each is answered
+    // through pollSection with the given version, unless the chunk's blocks are dropped meanwhile
+    public void remesh(int chunkX, int chunkZ, int sections, long version) {
+        editsPending.incrementAndGet();
+        try {
+            editor.execute(() -> {
+                try {
+                    remeshSections(chunkX, chunkZ, sections, version);
+                } finally {
+                    editsPending.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            editsPending.decrementAndGet(); // shut down
+        }
+    }
+
+    private void remeshSections(int chunkX, int chunkZ, int sections, long version) {
+        ChunkStorage blocks = blocks(chunkX, chunkZ);
+        if (blocks == null) return;
+        ChunkMesher mesher = meshers.get();
+        mesher.load(blocks, chunkX, chunkZ, this::blocks);
+        for (int s = 0; s < ChunkStorage.SECTIONS; s++) {
+            if ((sections & 1 << s) == 0) continue;
+            int[] vertices = mesher.meshSection(s);
+            readySections.add(new SectionMesh(chunkX, chunkZ, s, vertices, mesher.minY(), mesher.maxY(), version));
+        }
+    }
+
+    // The next remeshed section, or null if none is waiting
+    public SectionMesh pollSection() {
+        return readySections.poll();
+    }
+
+    // Drop queued work and wait for running tasks, without interrupting them: an interrupt in a
+    // region read closes the shared file channel, and the store's final save would fail
+    public void shutdown() {
+        for (ThreadPoolExecutor pool : List.of(workers, editor)) {
+            pool.shutdown();
+            pool.getQueue().clear();
+        }
+        try {
+            if (!workers.awaitTermination(5, TimeUnit.SECONDS) || !editor.awaitTermination(5, TimeUnit.SECONDS)) {
+                System.err.println("Chunk workers still running at shutdown");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Guarded by this
+    private void startGenerating(int chunkX, int chunkZ) {
+        if (generating.add(key(chunkX, chunkZ))) {
+            workers.execute(() -> {
+                awaitEdits();
+                generate(chunkX, chunkZ);
+            });
+        }
+    }
+
+    private void generate(int chunkX, int chunkZ) {
+        ChunkStorage blocks = null;
+        boolean absent = true;
+        if (store != null) {
+            try {
+                blocks = store.load(chunkX, chunkZ);
+                absent = blocks == null;
+            } catch (IOException e) {
+                // Shown as fresh terrain but never saved, so the stored chunk survives
+                System.err.println("Failed to load chunk " + chunkX + ", " + chunkZ + ": " + e.getMessage());
+                absent = false;
+            }
+        }
+        if (blocks == null) {
+            blocks = generators.get().generate(chunkX, chunkZ);
+            if (store != null && absent) store.save(chunkX, chunkZ, blocks);
+        }
+
+        // This chunk may have completed its own or a neighbor's neighborhood
+        synchronized (this) {
+            if (!generating.contains(key(chunkX, chunkZ))) return; // dropped by retainWithin meanwhile
+            generated.put(key(chunkX, chunkZ), blocks);
+            meshIfReady(chunkX, chunkZ);
+            meshIfReady(chunkX - 1, chunkZ);
+            meshIfReady(chunkX + 1, chunkZ);
+            meshIfReady(chunkX, chunkZ - 1);
+            meshIfReady(chunkX, chunkZ + 1);
+        }
+    }
+
+    // Guarded by this
+    private void meshIfReady(int chunkX, int chunkZ) {
+        long key = key(chunkX, chunkZ);
+        if (!requested.contains(key) || meshing.contains(key)) return;
+        if (!generated.containsKey(key)
+                || !generated.containsKey(key(chunkX - 1, chunkZ)) || !generated.containsKey(key(chunkX + 1, chunkZ))
+                || !generated.containsKey(key(chunkX, chunkZ - 1)) || !generated.containsKey(key(chunkX, chunkZ + 1))) {
+            return;
+        }
+        meshing.add(key);
+        workers.execute(() -> {
+            awaitEdits();
+            mesh(chunkX, chunkZ);
+        });
+    }
+
+    private void mesh(int chunkX, int chunkZ) {
+        ChunkStorage blocks = generated.get(key(chunkX, chunkZ));
+        if (blocks == null) return; // dropped by retainWithin meanwhile
+        ChunkMesher mesher = meshers.get();
+        mesher.load(blocks, chunkX, chunkZ, this::blocks);
+        SectionMesh[] sections = new SectionMesh[ChunkStorage.SECTIONS];
+        for (int s = 0; s < sections.length; s++) {
+            int[] vertices = mesher.meshSection(s);
+            sections[s] = new SectionMesh(chunkX, chunkZ, s, vertices, mesher.minY(), mesher.maxY(), 0);
+        }
+        
+        // The request is answered; a later request for this chunk meshes it again
+        synchronized (this) {
+            long key = key(chunkX, chunkZ);
+            if (!meshing.remove(key)) return; // cancelled meanwhile
+            if (mesher.missingNeighbors() != 0) {
+                // A neighbor was retained away meanwhile: bring it back and mesh when it arrives
+                startGenerating(chunkX - 1, chunkZ);
+                startGenerating(chunkX + 1, chunkZ);
+                startGenerating(chunkX, chunkZ - 1);
+                startGenerating(chunkX, chunkZ + 1);
+                meshIfReady(chunkX, chunkZ);
+                return;
+            }
+            requested.remove(key);
+        }
+        ready.add(new ChunkMesh(chunkX, chunkZ, blocks, sections));
+    }
+
+    // Streaming tasks are short (well under a millisecond), so edits jump the line at task boundaries
+    private void awaitEdits() {
+        while (editsPending.get() > 0 && !editor.isShutdown()) {
+            LockSupport.parkNanos(EDIT_WAIT_NANOS);
+        }
+    }
+
+    private static long key(int chunkX, int chunkZ) {
+        return ChunkMap.key(chunkX, chunkZ);
+    }
+}
@@ -0,0 +1,219 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// 16x16x16 blocks stored as a palette of block ids plus bit-packed palette indices.
+// A uniform section (all air, all stone) keeps only its one id and no index array.
+// Indices use 1, 2, 4 or 8 bits so an entry never straddles two longs.
+public final class ChunkSection {
+    public static final int SIZE = 16;
+    public static final int VOLUME = SIZE * SIZE * SIZE;
+
+    private byte[] palette;   // block ids; packing lists them in id order, edits append
+    private int paletteSize;
+    private int shift;        // log2 of bits per entry, while data != null
+    private long[] data;      // null while the section is uniform
+
+    // A section filled with one block type
+    public ChunkSection(BlockType fill) {
+        palette = new byte[] {(byte) fill.id};
+        paletteSize = 1;
+    }
+
+    // Pack VOLUME ids starting at ids[offset], laid out as index(x, y, z)
+    public static ChunkSection of(byte[] ids, int offset) {
+        ChunkSection section = new ChunkSection(BlockType.AIR);
+        section.pack(ids, offset);
+        return section;
+    }
+
+    // Read a section written by write(out), taking its packed indices as they are
+    public static ChunkSection read(ByteBuffer in) {
+        ChunkSection section = new ChunkSection(BlockType.AIR);
+        section.paletteSize = (in.get() & 0xFF) + 1;
+        section.palette = new byte[Math.max(section.paletteSize, 16)];
+        in.get(section.palette, 0, section.paletteSize);
+        if (section.paletteSize > 1) {
+            section.shift = in.get();
+            section.data = new long[VOLUME >>> (6 - section.shift)];
+            in.asLongBuffer().get(section.data);
+            in.position(in.position() + section.data.length * Long.BYTES);
+        }
+        return section;
+    }
+
+    // Palette size - 1, the palette, then if not uniform the index width and indices
+    public void write(ByteBuffer out) {
+        out.put((byte) (paletteSize - 1));
+        out.put(palette, 0, paletteSize);
+        if (data != null) {
+            out.put((byte) shift);
+            out.asLongBuffer().put(data);
+            out.position(out.position() + data.length * Long.BYTES);
+        }
+    }
+
+    // Bytes write(out) produces
+    public int serializedSize() {
+        return 1 + paletteSize + (data == null ? 0 : 1 + data.length * Long.BYTES);
+    }
+
+    // Linear index: x varies fastest, then z, then y, so a row of blocks is contiguous
+    public static int index(int x, int y, int z) {
+        return (y << 8) | (z << 4) | x;
+    }
+
+    public int getId(int index) {
+        if (data == null) return palette[0] & 0xFF;
+        int bits = 1 << shift;
+        int perLongShift = 6 - shift;
+        long word = data[index >>> perLongShift];
+        int bit = (index & ((1 << perLongShift) - 1)) << shift;
+        return palette[(int) (word >>> bit) & ((1 << bits) - 1)] & 0xFF;
+    }
+
+    public int getId(int x, int y, int z) {
+        return getId(index(x, y, z));
+    }
+
+    public BlockType get(int x, int y, int z) {
+        return BlockType.fromId(getId(index(x, y, z)));
+    }
+
+    public void set(int x, int y, int z, BlockType type) {
+        set(index(x, y, z), type.id);
+    }
+
+    public void set(int index, int id) {
+        int entry = paletteIndex(id);
+        if (entry < 0) {
+            if (paletteSize == palette.length) palette = Arrays.copyOf(palette, paletteSize * 2);
+            palette[paletteSize] = (byte) id;
+            entry = paletteSize++;
+            if (data == null || paletteSize > 1 << (1 << shift)) resize();
+        } else if (data == null) {
+            return; // already uniformly this id
+        }
+        write(index, entry);
+    }
+
+    public boolean isUniform() {
+        return data == null;
+    }
+
+    public int paletteSize() {
+        return paletteSize;
+    }
+
+    // Bits per block: 0 when uniform
+    public int bitsPerBlock() {
+        return data == null ? 0 : 1 << shift;
+    }
+
+    // Unpack every id into out[offset, offset + VOLUME), laid out as index(x, y, z)
+    public void copyIds(byte[] out, int offset) {
+        if (data == null) {
+            Arrays.fill(out, offset, offset + VOLUME, palette[0]);
+            return;
+        }
+        int bits = 1 << shift;
+        int perLong = 64 >>> shift;
+        int mask = (1 << bits) - 1;
+        for (int w = 0, i = offset; w < data.length; w++) {
+            long word = data[w];
+            for (int e = 0; e < perLong; e++, i++) {
+                out[i] = palette[(int) (word >>> (e << shift)) & mask];
+            }
+        }
+    }
+
+    // Drop palette entries no longer used, e.g. after edits; may make the section uniform again
+    public void compact() {
+        if (data == null) return;
+        byte[] ids = new byte[VOLUME];
+        copyIds(ids, 0);
+        pack(ids, 0);
+    }
+
+    private void pack(byte[] ids, int offset) {
+        // Which ids occur, without a branch per block; the palette lists them in id order
+        int[] entries = new int[256];
+        for (int i = offset; i < offset + VOLUME; i++) entries[ids[i] & 0xFF] = 1;
+        byte[] newPalette = new byte[16];
+        int size = 0;
+        for (int id = 0; id < 256; id++) {
+            if (entries[id] == 0) continue;
+            if (size == newPalette.length) newPalette = Arrays.copyOf(newPalette, size * 2);
+            newPalette[size] = (byte) id;
+            entries[id] = size++;
+        }
+        palette = newPalette;
+        paletteSize = size;
+        if (size == 1) {
+            data = null;
+            shift = 0;
+            return;
+        }
+
+        shift = shiftFor(size);
+        long[] packed = new long[VOLUME >>> (6 - shift)];
+        switch (shift) {
+            case 0: packWords(ids, offset, entries, packed, 1); break;
+            case 1: packWords(ids, offset, entries, packed, 2); break;
+            case 2: packWords(ids, offset, entries, packed, 4); break;
+            default: packWords(ids, offset, entries, packed, 8); break;
+        }
+        data = packed;
+    }
+
+    // Build each long in a register; called with a constant width so the loop unrolls
+    private static void packWords(byte[] ids, int offset, int[] entries, long[] packed, int bits) {
+        for (int w = 0, i = offset; w < packed.length; w++) {
+            long word = 0;
+            for (int bit = 0; bit < 64; bit += bits, i++) {
+                word |= (long) entries[ids[i] & 0xFF] << bit;
+            }
+            packed[w] = word;
+        }
+    }
+
+    private int paletteIndex(int id) {
+        byte b = (byte) id;
+        for (int i = 0; i < paletteSize; i++) {
+            if (palette[i] == b) return i;
+        }
+        return -1;
+    }
+
+    // Re-pack the indices at the width the palette now needs
+    private void resize() {
+        int newShift = shiftFor(paletteSize);
+        int newPerLongShift = 6 - newShift;
+        long[] resized = new long[VOLUME >>> newPerLongShift];
+        if (data != null) {
+            int oldMask = (1 << (1 << shift)) - 1;
+            int oldPerLongShift = 6 - shift;
+            for (int i = 0; i < VOLUME; i++) {
+                long entry = (data[i >>> oldPerLongShift] >>> ((i & ((1 << oldPerLongShift) - 1)) << shift)) & oldMask;
+                resized[i >>> newPerLongShift] |= entry << ((i & ((1 << newPerLongShift) - 1)) << newShift);
+            }
+        }
+        data = resized;
+        shift = newShift;
+    }
+
+    private void write(int index, int entry) {
+        int perLongShift = 6 - shift;
+        int bit = (index & ((1 << perLongShift) - 1)) << shift;
+        long mask = ((1L << (1 << shift)) - 1) << bit;
+        int w = index >>> perLongShift;
+        data[w] = (data[w] & ~mask) | ((long) entry << bit);
+    }
+
+    // Smallest of 1, 2, 4, 8 bits that can index size palette entries, as log2
+    private static int shiftFor(int size) {
+        if (size <= 2) return 0;
+        if (size <= 4) return 1;
+        if (size <= 16) return 2;
+        return 3;
+    }
+}
@@ -0,0 +1,75 @@
+import java.nio.ByteBuffer;
+
+// A chunk column's blocks as HEIGHT / 16 palette sections, bottom to top.
+// Column indices follow ChunkSection.index, so index >>> 12 is the section and
+// index & 0xFFF the block within it.
+public final class ChunkStorage {
+    public static final int SIZE = ChunkSection.SIZE;
+    public static final int HEIGHT = 64;
+    public static final int SECTIONS = HEIGHT / SIZE;
+    public static final int VOLUME = SIZE * HEIGHT * SIZE;
+
+    private final ChunkSection[] sections = new ChunkSection[SECTIONS];
+
+    // An all-air column
+    public ChunkStorage() {
+        for (int s = 0; s < SECTIONS; s++) sections[s] = new ChunkSection(BlockType.AIR);
+    }
+
+    // Pack a column of ids laid out as index(x, y, z)
+    public static ChunkStorage fromIds(byte[] ids) {
+        ChunkStorage storage = new ChunkStorage();
+        for (int s = 0; s < SECTIONS; s++) storage.sections[s] = ChunkSection.of(ids, s * ChunkSection.VOLUME);
+        return storage;
+    }
+
+    // A column of the given sections, bottom to top; takes ownership of them
+    public static ChunkStorage fromSections(ChunkSection[] sections) {
+        ChunkStorage storage = new ChunkStorage();
+        System.arraycopy(sections, 0, storage.sections, 0, SECTIONS);
+        return storage;
+    }
+
+    // Read a column written by write(out)
+    public static ChunkStorage read(ByteBuffer in) {
+        ChunkStorage storage = new ChunkStorage();
+        for (int s = 0; s < SECTIONS; s++) storage.sections[s] = ChunkSection.read(in);
+        return storage;
+    }
+
+    // Sections bottom to top; see ChunkSection.write
+    public void write(ByteBuffer out) {
+        for (ChunkSection section : sections) section.write(out);
+    }
+
+    public int serializedSize() {
+        int size = 0;
+        for (ChunkSection section : sections) size += section.serializedSize();
+        return size;
+    }
+
+    public static int index(int x, int y, int z) {
+        return (y << 8) | (z << 4) | x;
+    }
+
+    public int getId(int x, int y, int z) {
+        return sections[y >> 4].getId(x, y & 15, z);
+    }
+
+    public BlockType get(int x, int y, int z) {
+        return BlockType.fromId(getId(x, y, z));
+    }
+
+    public void set(int x, int y, int z, BlockType type) {
+        sections[y >> 4].set(x, y & 15, z, type);
+    }
+
+    public ChunkSection section(int sectionY) {
+        return sections[sectionY];
+    }
+
+    // Unpack the whole column into out, laid out as index(x, y, z)
+    public void copyIds(byte[] out) {
+        for (int s = 0; s < SECTIONS; s++) sections[s].copyIds(out, s * ChunkSection.VOLUME);
+    }
+}
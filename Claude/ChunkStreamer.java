@@ -0,0 +1,223 @@
+import java.util.*;
+
+// Keeps the chunks within a radius of the camera loaded, nearest first, as the camera moves.
+// Chunks more than one ring outside the radius are unloaded, so crossing a chunk border back
+// and forth does not reload anything, and the pipeline drops blocks nobody needs any more.
+// Requests in flight are capped, so a fast camera re-prioritizes instead of queueing a backlog.
+// Blocks are edited through it too: edits mark the sections they change, and each update
+// remeshes every marked section once, however many edits it had, and hands the sink the new
+// section meshes ahead of any chunk loads. Needs no GL context: the sink decides what a loaded chunk is.
+public class ChunkStreamer<C> {
+    // Turns finished meshes into loaded chunks and releases them again
+    public interface ChunkSink<C> {
+        C load(ChunkPipeline.ChunkMesh mesh);
+        // Replace one section's mesh of a loaded chunk after edits
+        void update(C chunk, ChunkPipeline.SectionMesh section);
+        void unload(C chunk);
+    }
+
+    // A loaded or in-flight chunk's edited sections
+    private static final class Edits {
+        int dirty; // sections to remesh, as bits
+        final long[] requested = new long[ChunkStorage.SECTIONS]; // newest remesh version asked for
+        final long[] shown = new long[ChunkStorage.SECTIONS];     // newest remesh version handed on
+    }
+
+    private final ChunkPipeline pipeline;
+    private final ChunkSink<C> sink;
+    private final int radius;
+    private final int maxInFlight;
+
+    // Offsets within the radius, nearest first, as dx, dz pairs
+    private final int[] order;
+    private int cursor; // next offset in order to consider loading
+
+    private final ChunkMap<C> loaded = new ChunkMap<>();
+    private final ChunkMap<Boolean> inFlight = new ChunkMap<>();
+    private int centerX, centerZ;
+    private boolean centered;
+
+    private final ChunkMap<Edits> edits = new ChunkMap<>();
+    private final ChunkMap.Visitor<Edits> remeshDirty = this::remeshDirty;
+    private long editVersion;
+
+    public ChunkStreamer(ChunkPipeline pipeline, int radius, int maxInFlight, ChunkSink<C> sink) {
+        this.pipeline = pipeline;
+        this.radius = radius;
+        this.maxInFlight = maxInFlight;
+        this.sink = sink;
+
+        List<int[]> offsets = new ArrayList<>();
+        for (int dx = -radius; dx <= radius; dx++) {
+            for (int dz = -radius; dz <= radius; dz++) {
+                if (dx * dx + dz * dz <= radius * radius) offsets.add(new int[] {dx, dz});
+            }
+        }
+        offsets.sort(Comparator.comparingInt(c -> c[0] * c[0] + c[1] * c[1]));
+        order = new int[offsets.size() * 2];
+        for (int i = 0; i < offsets.size(); i++) {
+            order[i * 2] = offsets.get(i)[0];
+            order[i * 2 + 1] = offsets.get(i)[1];
+        }
+    }
+
+    // Call once per frame with the camera's block position; hands on remeshed sections, loads
+    // finished chunks until the budget is spent, then remeshes edited sections and tops up the
+    // pipeline's requests
+    public void update(float x, float z, long budgetNanos) {
+        long deadline = System.nanoTime() + budgetNanos;
+        int chunkX = Math.floorDiv((int) Math.floor(x), ChunkStorage.SIZE);
+        int chunkZ = Math.floorDiv((int) Math.floor(z), ChunkStorage.SIZE);
+        if (!centered || chunkX != centerX || chunkZ != centerZ) recenter(chunkX, chunkZ);
+
+        // Edits are small uploads, and not subject to the budget
+        ChunkPipeline.SectionMesh section;
+        while ((section = pipeline.pollSection()) != null) {
+            C chunk = loaded.get(section.chunkX, section.chunkZ);
+            Edits chunkEdits = edits.get(section.chunkX, section.chunkZ);
+            // Dropped if the chunk was unloaded since, or a newer remesh was handed on first
+            if (chunk == null || chunkEdits == null || section.version <= chunkEdits.shown[section.sectionY]) continue;
+            chunkEdits.shown[section.sectionY] = section.version;
+            sink.update(chunk, section);
+        }
+
+        ChunkPipeline.ChunkMesh mesh;
+        while (System.nanoTime() < deadline && (mesh = pipeline.pollMesh()) != null) {
+            // Meshes for chunks left behind since they were requested are dropped
+            if (inFlight.remove(mesh.chunkX, mesh.chunkZ) != null) {
+                loaded.put(mesh.chunkX, mesh.chunkZ, sink.load(mesh));
+            }
+        }
+        edits.forEach(remeshDirty);
+        requestMore();
+    }
+
+    // Block at world coordinates; null if its chunk's blocks are not held
+    public BlockType getBlock(int x, int y, int z) {
+        return pipeline.getBlock(x, y, z);
+    }
+
+    // Set a block at world coordinates; its section, and the neighboring sections whose faces
+    // it may show or hide, are remeshed on the next update. False if the block was already that
+    // type or its chunk's blocks are not held
+    public boolean setBlock(int x, int y, int z, BlockType type) {
+        if (!pipeline.setBlock(x, y, z, type)) return false;
+        int chunkX = Math.floorDiv(x, ChunkStorage.SIZE), chunkZ = Math.floorDiv(z, ChunkStorage.SIZE);
+        int localX = Math.floorMod(x, ChunkStorage.SIZE), localZ = Math.floorMod(z, ChunkStorage.SIZE);
+        int sectionY = y / ChunkSection.SIZE, localY = y % ChunkSection.SIZE;
+        markDirty(chunkX, chunkZ, sectionY);
+        if (localY == 0 && sectionY > 0) markDirty(chunkX, chunkZ, sectionY - 1);
+        if (localY == ChunkSection.SIZE - 1 && sectionY < ChunkStorage.SECTIONS - 1) markDirty(chunkX, chunkZ, sectionY + 1);
+        if (localX == 0) markDirty(chunkX - 1, chunkZ, sectionY);
+        if (localX == ChunkStorage.SIZE - 1) markDirty(chunkX + 1, chunkZ, sectionY);
+        if (localZ == 0) markDirty(chunkX, chunkZ - 1, sectionY);
+        if (localZ == ChunkStorage.SIZE - 1) markDirty(chunkX, chunkZ + 1, sectionY);
+        return true;
+    }
+
+    // Edited sections not yet remeshed and handed to the sink
+    public int pendingEditCount() {
+        int[] count = new int[1];
+        edits.forEach((cx, cz, chunkEdits) -> {
+            count[0] += Integer.bitCount(chunkEdits.dirty);
+            for (int s = 0; s < ChunkStorage.SECTIONS; s++) {
+                if (chunkEdits.requested[s] > chunkEdits.shown[s]) count[0]++;
+            }
+        });
+        return count[0];
+    }
+
+    // Chunks neither loaded nor in flight are meshed from their edited blocks when requested
+    private void markDirty(int chunkX, int chunkZ, int sectionY) {
+        if (!loaded.containsKey(chunkX, chunkZ) && !inFlight.containsKey(chunkX, chunkZ)) return;
+        Edits chunkEdits = edits.get(chunkX, chunkZ);
+        if (chunkEdits == null) {
+            chunkEdits = new Edits();
+            edits.put(chunkX, chunkZ, chunkEdits);
+        }
+        chunkEdits.dirty |= 1 << sectionY;
+    }
+
+    // A chunk in flight may have been meshed before its edits, so it is remeshed once loaded.
+    // All of a chunk's dirty sections go in one remesh, sharing one neighborhood load.
+    private void remeshDirty(int chunkX, int chunkZ, Edits chunkEdits) {
+        if (chunkEdits.dirty == 0 || !loaded.containsKey(chunkX, chunkZ)) return;
+        editVersion++;
+        for (int s = 0; s < ChunkStorage.SECTIONS; s++) {
+            if ((chunkEdits.dirty & 1 << s) != 0) chunkEdits.requested[s] = editVersion;
+        }
+        pipeline.remesh(chunkX, chunkZ, chunkEdits.dirty, editVersion);
+        chunkEdits.dirty = 0;
+    }
+
+    private void recenter(int chunkX, int chunkZ) {
+        centerX = chunkX;
+        centerZ = chunkZ;
+        centered = true;
+        cursor = 0;
+
+        int keep = radius + 1;
+        loaded.removeIf((cx, cz, chunk) -> !within(cx, cz, keep), (cx, cz, chunk) -> {
+            edits.remove(cx, cz);
+            sink.unload(chunk);
+        });
+        inFlight.removeIf((cx, cz, pending) -> !within(cx, cz, keep), (cx, cz, pending) -> {
+            edits.remove(cx, cz);
+            pipeline.cancel(cx, cz);
+        });
+        // Kept chunks were meshed against neighbors one further out
+        pipeline.retainWithin(chunkX, chunkZ, keep + 1);
+    }
+
+    private boolean within(int chunkX, int chunkZ, int distance) {
+        int dx = chunkX - centerX, dz = chunkZ - centerZ;
+        return dx * dx + dz * dz <= distance * distance;
+    }
+
+    private void requestMore() {
+        while (inFlight.size() < maxInFlight && cursor < order.length) {
+            int chunkX = centerX + order[cursor], chunkZ = centerZ + order[cursor + 1];
+            cursor += 2;
+            if (loaded.containsKey(chunkX, chunkZ) || inFlight.containsKey(chunkX, chunkZ)) continue;
+            inFlight.put(chunkX, chunkZ, Boolean.TRUE);
+            pipeline.request(chunkX, chunkZ);
+        }
+    }
+
+    // The loaded chunk at chunk coordinates, or null
+    public C chunk(int chunkX, int chunkZ) {
+        return loaded.get(chunkX, chunkZ);
+    }
+
+    public void forEachLoaded(ChunkMap.Visitor<C> visitor) {
+        loaded.forEach(visitor);
+    }
+
+    public int loadedCount() {
+        return loaded.size();
+    }
+
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    // Chunks within the radius of any center
+    public int targetCount() {
+        return order.length / 2;
+    }
+
+    // True once every chunk within the radius is loaded
+    public boolean isComplete() {
+        return centered && cursor == order.length && inFlight.isEmpty();
+    }
+
+    // Unload everything, e.g. on shutdown
+    public void clear() {
+        loaded.forEach((cx, cz, chunk) -> sink.unload(chunk));
+        loaded.clear();
+        inFlight.forEach((cx, cz, pending) -> pipeline.cancel(cx, cz));
+        inFlight.clear();
+        edits.clear();
+        centered = false;
+    }
+}
@@ -0,0 +1,55 @@
+import java.util.Random;
+
+// Several octaves of seeded Perlin noise, each at lacunarity times the previous frequency and
+// persistence times its amplitude, scaled so the sum keeps one octave's range.
+// Built once per world and shared by every generator thread; fills need no scratch.
+public final class FractalNoise {
+    private final PerlinNoise[] octaves;
+    private final double[] frequencies;
+    private final float[] amplitudes;
+    private final PerlinNoise.Kernel kernel;
+
+    public FractalNoise(long seed, int octaves, double frequency, double lacunarity, double persistence) {
+        this(seed, octaves, frequency, lacunarity, persistence, PerlinNoise.defaultKernel());
+    }
+
+    public FractalNoise(long seed, int octaves, double frequency, double lacunarity, double persistence,
+                        PerlinNoise.Kernel kernel) {
+        this.octaves = new PerlinNoise[octaves];
+        this.frequencies = new double[octaves];
+        this.amplitudes = new float[octaves];
+        this.kernel = kernel;
+
+        Random random = new Random(seed);
+        double amplitude = 1, total = 0;
+        for (int i = 0; i < octaves; i++) {
+            this.octaves[i] = new PerlinNoise(random.nextLong());
+            frequencies[i] = frequency;
+            amplitudes[i] = (float) amplitude;
+            total += amplitude;
+            frequency *= lacunarity;
+            amplitude *= persistence;
+        }
+        for (int i = 0; i < octaves; i++) amplitudes[i] /= (float) total;
+    }
+
+    // One sample of the field fill samples, up to float rounding
+    public float eval(double x, double y) {
+        float[] out = new float[1];
+        fill(out, x, y, 1, 1, 1);
+        return out[0];
+    }
+
+    // out[row * width + col] = noise(x0 + col * step, y0 + row * step), in world units
+    public void fill(float[] out, double x0, double y0, double step, int width, int height) {
+        java.util.Arrays.fill(out, 0, width * height, 0f);
+        for (int i = 0; i < octaves.length; i++) {
+            double frequency = frequencies[i];
+            octaves[i].add(out, x0 * frequency, y0 * frequency, step * frequency, width, height, amplitudes[i], kernel);
+        }
+    }
+
+    public String kernelName() {
+        return kernel.getClass().getSimpleName();
+    }
+}
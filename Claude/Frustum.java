@@ -0,0 +1,115 @@
+// View frustum for culling, plus the camera matrices it is built from. Matrices are float[16]
+// in OpenGL's column-major order, as glUniformMatrix4fv takes them without transposing.
+// Pure math, no GL: culling can be checked headless against known camera poses.
+public final class Frustum {
+    // Box classifications
+    public static final int OUTSIDE = 0;
+    public static final int INTERSECTS = 1;
+    public static final int INSIDE = 2;
+
+    // Left, right, bottom, top, near, far as (a, b, c, d): inside where ax + by + cz + d >= 0
+    private final float[] planes = new float[24];
+    private final float[] clip = new float[16];
+
+    // Perspective projection with a vertical field of view in radians
+    public static void perspective(float fovY, float aspect, float near, float far, float[] out) {
+        float yScale = (float) (1.0 / Math.tan(fovY / 2.0));
+        java.util.Arrays.fill(out, 0f);
+        out[0] = yScale / aspect;
+        out[5] = yScale;
+        out[10] = -(far + near) / (far - near);
+        out[11] = -1.0f;
+        out[14] = -(2.0f * near * far) / (far - near);
+    }
+
+    // View from an eye position, pitch up and yaw in degrees; yaw 0 looks along +Z, 90 along +X
+    public static void view(float x, float y, float z, float pitch, float yaw, float[] out) {
+        double p = Math.toRadians(pitch), w = Math.toRadians(yaw);
+        // Forward, right (from yaw alone, so looking straight up or down stays defined) and up
+        float fx = (float) (Math.sin(w) * Math.cos(p)), fy = (float) Math.sin(p), fz = (float) (Math.cos(w) * Math.cos(p));
+        float sx = (float) -Math.cos(w), sz = (float) Math.sin(w);
+        float ux = -sz * fy, uy = sz * fx - sx * fz, uz = sx * fy;
+
+        out[0] = sx;
+        out[4] = 0;
+        out[8] = sz;
+        out[12] = -(sx * x + sz * z);
+        out[1] = ux;
+        out[5] = uy;
+        out[9] = uz;
+        out[13] = -(ux * x + uy * y + uz * z);
+        out[2] = -fx;
+        out[6] = -fy;
+        out[10] = -fz;
+        out[14] = fx * x + fy * y + fz * z;
+        out[3] = 0;
+        out[7] = 0;
+        out[11] = 0;
+        out[15] = 1;
+    }
+
+    // out = a * b
+    public static void multiply(float[] a, float[] b, float[] out) {
+        for (int column = 0; column < 4; column++) {
+            for (int row = 0; row < 4; row++) {
+                out[column * 4 + row] = a[row] * b[column * 4] + a[4 + row] * b[column * 4 + 1]
+                    + a[8 + row] * b[column * 4 + 2] + a[12 + row] * b[column * 4 + 3];
+            }
+        }
+    }
+
+    // Extract the planes of projection * view (Gribb and Hartmann)
+    public void set(float[] projection, float[] view) {
+        multiply(projection, view, clip);
+        for (int i = 0; i < 3; i++) {
+            setPlane(i * 2, 1, i);      // w + coordinate >= 0
+            setPlane(i * 2 + 1, -1, i); // w - coordinate >= 0
+        }
+    }
+
+    private void setPlane(int plane, float sign, int row) {
+        float a = clip[3] + sign * clip[row];
+        float b = clip[7] + sign * clip[4 + row];
+        float c = clip[11] + sign * clip[8 + row];
+        float d = clip[15] + sign * clip[12 + row];
+        float length = (float) Math.sqrt(a * a + b * b + c * c);
+        planes[plane * 4] = a / length;
+        planes[plane * 4 + 1] = b / length;
+        planes[plane * 4 + 2] = c / length;
+        planes[plane * 4 + 3] = d / length;
+    }
+
+    public boolean contains(float x, float y, float z) {
+        for (int p = 0; p < 24; p += 4) {
+            if (planes[p] * x + planes[p + 1] * y + planes[p + 2] * z + planes[p + 3] < 0) return false;
+        }
+        return true;
+    }
+
+    // Whether any of the box may be visible; conservative near the frustum's corners
+    public boolean intersects(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        for (int p = 0; p < 24; p += 4) {
+            float a = planes[p], b = planes[p + 1], c = planes[p + 2];
+            // The corner farthest along the plane's normal
+            if (a * (a >= 0 ? maxX : minX) + b * (b >= 0 ? maxY : minY) + c * (c >= 0 ? maxZ : minZ) + planes[p + 3] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // OUTSIDE, INTERSECTS or INSIDE, so a box of boxes can skip testing its contents
+    public int classify(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        int result = INSIDE;
+        for (int p = 0; p < 24; p += 4) {
+            float a = planes[p], b = planes[p + 1], c = planes[p + 2], d = planes[p + 3];
+            if (a * (a >= 0 ? maxX : minX) + b * (b >= 0 ? maxY : minY) + c * (c >= 0 ? maxZ : minZ) + d < 0) {
+                return OUTSIDE;
+            }
+            if (a * (a >= 0 ? minX : maxX) + b * (b >= 0 ? minY : maxY) + c * (c >= 0 ? minZ : maxZ) + d < 0) {
+                result = INTERSECTS;
+            }
+        }
+        return result;
+    }
+}
@@ -24,12 +24,27 @@ public class MinecraftClone {
     
     // Shader program
     private int shaderProgram;
+    private int chunkOriginUniform;
     
     // World parameters
-    private static final int CHUNK_SIZE = 16;
-    private static final int CHUNK_HEIGHT = 64;
-    private static final int RENDER_DISTANCE = 8; // chunks in each direction
-    private Chunk[][] chunks;
+    private static final int CHUNK_SIZE = ChunkStorage.SIZE;
+    private static final int CHUNK_HEIGHT = ChunkStorage.HEIGHT;
+    private static final int RENDER_DISTANCE = 8; // chunks around the camera
+    // Chunks are generated and meshed on worker threads; the GL thread only uploads them
+    private static final long UPLOAD_BUDGET_NANOS = 4_000_000; // per frame
+    private static final int MAX_CHUNKS_IN_FLIGHT = 16;
+    private ChunkPipeline pipeline;
+    // Chunks are saved to region files here and loaded from them on the next start
+    private static final Path WORLD_DIRECTORY = Paths.get("world");
+    private RegionStore store;
+    private ChunkStreamer<Chunk> chunks;
+    // Vertex array and buffer pairs of unloaded sections, reused by the next loads
+    private static final int MAX_FREE_BUFFERS = 256;
+    private final Deque<int[]> freeBuffers = new ArrayDeque<>();
+    // Only chunks within RENDER_DISTANCE and inside the view frustum are drawn
+    private final ChunkCuller<Chunk> culler = new ChunkCuller<>();
+    private final Frustum frustum = new Frustum();
+    private final List<Chunk> visibleChunks = new ArrayList<>();
     
     // Player/camera
     private Camera camera;
@@ -38,34 +53,6 @@ public class MinecraftClone {
     // Textures
     private int textureAtlas;
     
-    // Block types
-    public enum BlockType {
-        AIR(0, false, false),
-        GRASS(1, true, true),
-        DIRT(2, true, true),
-        STONE(3, true, true),
-        WATER(4, false, true),
-        WOOD(5, true, true),
-        LEAVES(6, true, true);
-        
-        public final int id;
-        public final boolean isSolid;
-        public final boolean isVisible;
-        
-        BlockType(int id, boolean isSolid, boolean isVisible) {
-            this.id = id;
-            this.isSolid = isSolid;
-            this.isVisible = isVisible;
-        }
-        
-        public static BlockType fromId(int id) {
-            for (BlockType type : values()) {
-                if (type.id == id) return type;
-            }
-            return AIR;
-        }
-    }
-    
     // Camera class
     class Camera {
         public float x, y, z;
@@ -121,9 +108,7 @@ public class MinecraftClone {
         
         public Matrix4f getViewMatrix() {
             Matrix4f matrix = new Matrix4f();
-            matrix.rotate((float) Math.toRadians(rx), 1, 0, 0); // Pitch
-            matrix.rotate((float) Math.toRadians(ry), 0, 1, 0); // Yaw
-            matrix.translate(-x, -y, -z);
+            Frustum.view(x, y, z, rx, ry, matrix.elements);
             return matrix;
         }
     }
@@ -173,271 +158,114 @@ public class MinecraftClone {
         }
     }
     
-    // Chunk class
+    // Chunk class: one vertex buffer per 16^3 section, so an edit replaces only what it touched
     class Chunk {
         public int x, z;
-        public BlockType[][][] blocks;
-        public int vao, vbo;
-        public int vertexCount;
-        
-        public Chunk(int x, int z) {
-            this.x = x;
-            this.z = z;
-            this.blocks = new BlockType[CHUNK_SIZE][CHUNK_HEIGHT][CHUNK_SIZE];
-            generateTerrain();
-            createMesh();
-        }
-        
-        private void generateTerrain() {
-            Random random = new Random(x * 49632 + z * 325176);
-            SimplexNoise noise = new SimplexNoise(random.nextInt());
-            
-            for (int localX = 0; localX < CHUNK_SIZE; localX++) {
-                for (int localZ = 0; localZ < CHUNK_SIZE; localZ++) {
-                    int worldX = x * CHUNK_SIZE + localX;
-                    int worldZ = z * CHUNK_SIZE + localZ;
-                    
-                    // Generate height using noise
-                    double height = noise.eval(worldX * 0.01, worldZ * 0.01) * 20 + 32;
-                    
-                    // Fill blocks
-                    for (int y = 0; y < CHUNK_HEIGHT; y++) {
-                        if (y > height) {
-                            if (y < 32) {
-                                blocks[localX][y][localZ] = BlockType.WATER;
-                            } else {
-                                blocks[localX][y][localZ] = BlockType.AIR;
-                            }
-                        } else if (y == (int) height) {
-                            blocks[localX][y][localZ] = BlockType.GRASS;
-                        } else if (y > height - 4) {
-                            blocks[localX][y][localZ] = BlockType.DIRT;
-                        } else {
-                            blocks[localX][y][localZ] = BlockType.STONE;
-                        }
-                    }
-                    
-                    // Generate trees
-                    if (random.nextDouble() < 0.02 && height > 40) {
-                        generateTree(localX, (int) height, localZ, random);
-                    }
-                }
+        public ChunkStorage blocks;
+        public final int[] vaos = new int[ChunkStorage.SECTIONS];
+        public final int[] vbos = new int[ChunkStorage.SECTIONS];
+        public final int[] vertexCounts = new int[ChunkStorage.SECTIONS];
+        // Vertical extent of each section's mesh, for the culler; minY > maxY if empty
+        private final int[] minY = new int[ChunkStorage.SECTIONS];
+        private final int[] maxY = new int[ChunkStorage.SECTIONS];
+        
+        public Chunk(ChunkPipeline.ChunkMesh mesh) {
+            this.x = mesh.chunkX;
+            this.z = mesh.chunkZ;
+            this.blocks = mesh.blocks;
+            for (ChunkPipeline.SectionMesh section : mesh.sections) {
+                createMesh(section);
             }
         }
         
-        private void generateTree(int x, int y, int z, Random random) {
-            int height = 4 + random.nextInt(3);
-            
-            // Generate trunk
-            for (int i = 1; i <= height; i++) {
-                if (y + i < CHUNK_HEIGHT) {
-                    blocks[x][y + i][z] = BlockType.WOOD;
-                }
+        // Replace a section's mesh, e.g. after an edit
+        private void createMesh(ChunkPipeline.SectionMesh section) {
+            int s = section.sectionY;
+            int[] vertexData = section.vertices;
+            vertexCounts[s] = vertexData.length / VertexBuilder.INTS_PER_VERTEX;
+            minY[s] = section.minY;
+            maxY[s] = section.maxY;
+            if (vertexCounts[s] == 0) {
+                recycle(s);
+                return;
             }
-            
-            // Generate leaves
-            for (int i = -2; i <= 2; i++) {
-                for (int j = -2; j <= 2; j++) {
-                    for (int k = -2; k <= 2; k++) {
-                        if (x + i >= 0 && x + i < CHUNK_SIZE && 
-                            z + j >= 0 && z + j < CHUNK_SIZE &&
-                            y + height + k < CHUNK_HEIGHT) {
-                            
-                            // Skip corners for a more natural shape
-                            if (Math.abs(i) == 2 && Math.abs(j) == 2 && Math.abs(k) == 2) continue;
-                            
-                            blocks[x + i][y + height + k][z + j] = BlockType.LEAVES;
-                        }
-                    }
-                }
+            if (vaos[s] != 0) {
+                glBindBuffer(GL_ARRAY_BUFFER, vbos[s]);
+                glBufferData(GL_ARRAY_BUFFER, vertexData, GL_STATIC_DRAW);
+                glBindBuffer(GL_ARRAY_BUFFER, 0);
+                return;
             }
-        }
-        
-        private void createMesh() {
-            List<Float> vertices = new ArrayList<>();
             
-            for (int x = 0; x < CHUNK_SIZE; x++) {
-                for (int y = 0; y < CHUNK_HEIGHT; y++) {
-                    for (int z = 0; z < CHUNK_SIZE; z++) {
-                        BlockType block = blocks[x][y][z];
-                        if (block.isVisible && block != BlockType.AIR) {
-                            addBlockVertices(vertices, x, y, z, block);
-                        }
-                    }
-                }
-            }
-            
-            vertexCount = vertices.size() / 8; // 8 floats per vertex (position + texture + normal)
-            
-            // Convert list to float array
-            float[] vertexData = new float[vertices.size()];
-            for (int i = 0; i < vertices.size(); i++) {
-                vertexData[i] = vertices.get(i);
+            // A recycled VAO keeps its attribute layout; only the buffer contents change
+            int[] buffers = freeBuffers.poll();
+            if (buffers != null) {
+                vaos[s] = buffers[0];
+                vbos[s] = buffers[1];
+                glBindBuffer(GL_ARRAY_BUFFER, vbos[s]);
+                glBufferData(GL_ARRAY_BUFFER, vertexData, GL_STATIC_DRAW);
+                glBindBuffer(GL_ARRAY_BUFFER, 0);
+                return;
             }
             
             // Create VAO and VBO
-            vao = glGenVertexArrays();
-            vbo = glGenBuffers();
+            vaos[s] = glGenVertexArrays();
+            vbos[s] = glGenBuffers();
             
-            glBindVertexArray(vao);
-            glBindBuffer(GL_ARRAY_BUFFER, vbo);
+            glBindVertexArray(vaos[s]);
+            glBindBuffer(GL_ARRAY_BUFFER, vbos[s]);
             glBufferData(GL_ARRAY_BUFFER, vertexData, GL_STATIC_DRAW);
             
-            // Position attribute
-            glVertexAttribPointer(0, 3, GL_FLOAT, false, 8 * Float.BYTES, 0);
+            // Packed position and face, then packed texture coordinates and tile (see VertexBuilder)
+            glVertexAttribIPointer(0, 1, GL_UNSIGNED_INT, VertexBuilder.BYTES_PER_VERTEX, 0);
             glEnableVertexAttribArray(0);
-            
-            // Texture coordinate attribute
-            glVertexAttribPointer(1, 2, GL_FLOAT, false, 8 * Float.BYTES, 3 * Float.BYTES);
+            glVertexAttribIPointer(1, 1, GL_UNSIGNED_INT, VertexBuilder.BYTES_PER_VERTEX, Integer.BYTES);
             glEnableVertexAttribArray(1);
             
-            // Normal attribute
-            glVertexAttribPointer(2, 3, GL_FLOAT, false, 8 * Float.BYTES, 5 * Float.BYTES);
-            glEnableVertexAttribArray(2);
-            
             glBindVertexArray(0);
         }
         
-        private void addBlockVertices(List<Float> vertices, int x, int y, int z, BlockType type) {
-            int worldX = this.x * CHUNK_SIZE + x;
-            int worldZ = this.z * CHUNK_SIZE + z;
-            
-            // Check which faces are visible (neighbors are transparent)
-            boolean[] visibleFaces = new boolean[6];
-            
-            // Check negative X
-            if (x == 0) {
-                // Check neighboring chunk
-                if (worldX - 1 >= 0) {
-                    Chunk neighbor = chunks[x > 0 ? this.x - 1 : this.x][z];
-                    visibleFaces[0] = neighbor == null || !neighbor.blocks[CHUNK_SIZE - 1][y][z].isSolid;
-                } else {
-                    visibleFaces[0] = true;
-                }
-            } else {
-                visibleFaces[0] = !blocks[x - 1][y][z].isSolid;
+        // Index in the culler by the sections' combined extent, or drop it if nothing is drawn
+        public void updateBounds() {
+            int low = CHUNK_HEIGHT, high = 0;
+            for (int s = 0; s < ChunkStorage.SECTIONS; s++) {
+                low = Math.min(low, minY[s]);
+                high = Math.max(high, maxY[s]);
             }
-            
-            // Check positive X
-            if (x == CHUNK_SIZE - 1) {
-                // Check neighboring chunk
-                Chunk neighbor = chunks[x < CHUNK_SIZE - 1 ? this.x + 1 : this.x][z];
-                visibleFaces[1] = neighbor == null || !neighbor.blocks[0][y][z].isSolid;
-            } else {
-                visibleFaces[1] = !blocks[x + 1][y][z].isSolid;
-            }
-            
-            // Check negative Y
-            visibleFaces[2] = y == 0 || !blocks[x][y - 1][z].isSolid;
-            
-            // Check positive Y
-            visibleFaces[3] = y == CHUNK_HEIGHT - 1 || !blocks[x][y + 1][z].isSolid;
-            
-            // Check negative Z
-            if (z == 0) {
-                // Check neighboring chunk
-                if (worldZ - 1 >= 0) {
-                    Chunk neighbor = chunks[x][z > 0 ? this.z - 1 : this.z];
-                    visibleFaces[4] = neighbor == null || !neighbor.blocks[x][y][CHUNK_SIZE - 1].isSolid;
-                } else {
-                    visibleFaces[4] = true;
-                }
-            } else {
-                visibleFaces[4] = !blocks[x][y][z - 1].isSolid;
-            }
-            
-            // Check positive Z
-            if (z == CHUNK_SIZE - 1) {
-                // Check neighboring chunk
-                Chunk neighbor = chunks[x][z < CHUNK_SIZE - 1 ? this.z + 1 : this.z];
-                visibleFaces[5] = neighbor == null || !neighbor.blocks[x][y][0].isSolid;
+            if (low <= high) {
+                culler.add(x, z, low, high, this);
             } else {
-                visibleFaces[5] = !blocks[x][y][z + 1].isSolid;
-            }
-            
-            // Add vertices for visible faces
-            for (int face = 0; face < 6; face++) {
-                if (visibleFaces[face]) {
-                    addFaceVertices(vertices, worldX, y, worldZ, face, type);
-                }
+                culler.remove(x, z);
             }
         }
         
-        private void addFaceVertices(List<Float> vertices, float x, float y, float z, int face, BlockType type) {
-            // Define cube vertices (centered at origin)
-            float[][] cubeVertices = {
-                // Front face
-                {-0.5f, -0.5f, 0.5f}, {0.5f, -0.5f, 0.5f}, {0.5f, 0.5f, 0.5f}, {-0.5f, 0.5f, 0.5f},
-                // Back face
-                {0.5f, -0.5f, -0.5f}, {-0.5f, -0.5f, -0.5f}, {-0.5f, 0.5f, -0.5f}, {0.5f, 0.5f, -0.5f},
-                // Right face
-                {0.5f, -0.5f, 0.5f}, {0.5f, -0.5f, -0.5f}, {0.5f, 0.5f, -0.5f}, {0.5f, 0.5f, 0.5f},
-                // Left face
-                {-0.5f, -0.5f, -0.5f}, {-0.5f, -0.5f, 0.5f}, {-0.5f, 0.5f, 0.5f}, {-0.5f, 0.5f, -0.5f},
-                // Top face
-                {-0.5f, 0.5f, 0.5f}, {0.5f, 0.5f, 0.5f}, {0.5f, 0.5f, -0.5f}, {-0.5f, 0.5f, -0.5f},
-                // Bottom face
-                {-0.5f, -0.5f, -0.5f}, {0.5f, -0.5f, -0.5f}, {0.5f, -0.5f, 0.5f}, {-0.5f, -0.5f, 0.5f}
-            };
-            
-            // Define texture coordinates (each face uses the same coords)
-            float[][] texCoords = {
-                {0.0f, 0.0f}, {1.0f, 0.0f}, {1.0f, 1.0f}, {0.0f, 1.0f}
-            };
-            
-            // Define normals for each face
-            float[][] normals = {
-                {0.0f, 0.0f, 1.0f},  // Front
-                {0.0f, 0.0f, -1.0f}, // Back
-                {1.0f, 0.0f, 0.0f},  // Right
-                {-1.0f, 0.0f, 0.0f}, // Left
-                {0.0f, 1.0f, 0.0f},  // Top
-                {0.0f, -1.0f, 0.0f}  // Bottom
-            };
-            
-            // Get the vertices for this face
-            int startIndex = face * 4;
-            
-            // Add two triangles for the face
-            for (int i = 0; i < 6; i++) {
-                int vertexIndex;
-                if (i == 0 || i == 1 || i == 3) {
-                    // First triangle: 0, 1, 2
-                    vertexIndex = i == 3 ? 2 : i;
-                } else {
-                    // Second triangle: 0, 2, 3
-                    vertexIndex = i == 4 ? 0 : (i == 5 ? 2 : 3);
+        public void render() {
+            glUniform3f(chunkOriginUniform, x * CHUNK_SIZE, 0, z * CHUNK_SIZE);
+            for (int s = 0; s < ChunkStorage.SECTIONS; s++) {
+                if (vertexCounts[s] > 0) {
+                    glBindVertexArray(vaos[s]);
+                    glDrawArrays(GL_TRIANGLES, 0, vertexCounts[s]);
                 }
-                
-                // Position
-                vertices.add(x + cubeVertices[startIndex + vertexIndex][0]);
-                vertices.add(y + cubeVertices[startIndex + vertexIndex][1]);
-                vertices.add(z + cubeVertices[startIndex + vertexIndex][2]);
-                
-                // Texture coordinates (based on block type)
-                float texX = (type.id % 16) / 16.0f;
-                float texY = (type.id / 16) / 16.0f;
-                vertices.add(texX + texCoords[vertexIndex][0] / 16.0f);
-                vertices.add(texY + texCoords[vertexIndex][1] / 16.0f);
-                
-                // Normal
-                vertices.add(normals[face][0]);
-                vertices.add(normals[face][1]);
-                vertices.add(normals[face][2]);
             }
+            glBindVertexArray(0);
         }
         
-        public void render() {
-            if (vertexCount > 0) {
-                glBindVertexArray(vao);
-                glDrawArrays(GL_TRIANGLES, 0, vertexCount);
-                glBindVertexArray(0);
+        // Hand the buffers to the next chunks loaded, or free them if enough are spare
+        public void recycle() {
+            for (int s = 0; s < ChunkStorage.SECTIONS; s++) {
+                recycle(s);
             }
         }
         
-        public void cleanup() {
-            glDeleteVertexArrays(vao);
-            glDeleteBuffers(vbo);
+        private void recycle(int s) {
+            if (vaos[s] == 0) return;
+            if (freeBuffers.size() < MAX_FREE_BUFFERS) {
+                freeBuffers.push(new int[] {vaos[s], vbos[s]});
+            } else {
+                glDeleteVertexArrays(vaos[s]);
+                glDeleteBuffers(vbos[s]);
+            }
+            vaos[s] = 0;
+            vbos[s] = 0;
         }
     }
     
@@ -470,98 +298,6 @@ public class MinecraftClone {
             elements[15] = 1.0f;
         }
         
-        public void translate(float x, float y, float z) {
-            elements[3] += x;
-            elements[7] += y;
-            elements[11] += z;
-        }
-        
-        public void rotate(float angle, float x, float y, float z) {
-            float c = (float) Math.cos(angle);
-            float s = (float) Math.sin(angle);
-            float ic = 1.0f - c;
-            
-            elements[0] = x * x * ic + c;
-            elements[1] = x * y * ic - z * s;
-            elements[2] = x * z * ic + y * s;
-            
-            elements[4] = y * x * ic + z * s;
-            elements[5] = y * y * ic + c;
-            elements[6] = y * z * ic - x * s;
-            
-            elements[8] = z * x * ic - y * s;
-            elements[9] = z * y * ic + x * s;
-            elements[10] = z * z * ic + c;
-        }
-    }
-    
-    // Simple Perlin/Simplex noise implementation
-    class SimplexNoise {
-        private static final int[] perm = new int[512];
-        
-        static {
-            int[] p = new int[256];
-            for (int i = 0; i < 256; i++) p[i] = i;
-            
-            // Shuffle the array
-            Random random = new Random();
-            for (int i = 0; i < 256; i++) {
-                int j = random.nextInt(256);
-                int tmp = p[i];
-                p[i] = p[j];
-                p[j] = tmp;
-            }
-            
-            // Duplicate the permutation vector
-            for (int i = 0; i < 512; i++) {
-                perm[i] = p[i & 255];
-            }
-        }
-        
-        private int seed;
-        
-        public SimplexNoise(int seed) {
-            this.seed = seed;
-        }
-        
-        public double eval(double x, double y) {
-            // Simple 2D noise implementation
-            int X = (int) Math.floor(x) & 255;
-            int Y = (int) Math.floor(y) & 255;
-            
-            x -= Math.floor(x);
-            y -= Math.floor(y);
-            
-            double u = fade(x);
-            double v = fade(y);
-            
-            int A = perm[X] + Y;
-            int AA = perm[A & 255];
-            int AB = perm[(A + 1) & 255];
-            int B = perm[(X + 1) & 255] + Y;
-            int BA = perm[B & 255];
-            int BB = perm[(B + 1) & 255];
-            
-            return lerp(v, lerp(u, grad(perm[AA & 255], x, y),
-                            grad(perm[BA & 255], x - 1, y)),
-                    lerp(u, grad(perm[AB & 255], x, y - 1),
-                            grad(perm[BB & 255], x - 1, y - 1)));
-        }
-        
-        private double fade(double t) {
-            return t * t * t * (t * (t * 6 - 15) + 10);
-        }
-        
-        private double lerp(double t, double a, double b) {
-            return a + t * (b - a);
-        }
-        
-        private double grad(int hash, double x, double y) {
-            int h = hash & 7;
-            double u = h < 4 ? x : y;
-            double v = h < 4 ? y : x;
-            return ((h & 1) != 0 ? -u : u) + ((h & 2) != 0 ? -2.0 * v : 2.0 * v);
-        }
     }
     
     // Main method
@@ -628,6 +364,7 @@ public class MinecraftClone {
         
         // Create shader program
         shaderProgram = createShaderProgram();
+        chunkOriginUniform = glGetUniformLocation(shaderProgram, "chunkOrigin");
         
         // Load texture atlas
         textureAtlas = loadTexture("texture_atlas.png");
@@ -639,35 +376,61 @@ public class MinecraftClone {
         generateWorld();
     }
     
+    // The world streams in around the camera, nearest chunks first, as it moves
     private void generateWorld() {
-        int worldSize = RENDER_DISTANCE * 2 + 1;
-        chunks = new Chunk[worldSize][worldSize];
-        
-        for (int x = -RENDER_DISTANCE; x <= RENDER_DISTANCE; x++) {
-            for (int z = -RENDER_DISTANCE; z <= RENDER_DISTANCE; z++) {
-                int arrayX = x + RENDER_DISTANCE;
-                int arrayZ = z + RENDER_DISTANCE;
-                chunks[arrayX][arrayZ] = new Chunk(x, z);
-            }
-        }
+        long seed = TerrainGenerator.DEFAULT_SEED;
+        try {
+            store = new RegionStore(WORLD_DIRECTORY);
+            seed = store.seed();
+        } catch (IOException e) {
+            System.err.println("World will not be saved: " + e.getMessage());
+            if (store != null) store.close();
+            store = null;
+        }
+        pipeline = new ChunkPipeline(Runtime.getRuntime().availableProcessors(), store, seed);
+        chunks = new ChunkStreamer<>(pipeline, RENDER_DISTANCE, MAX_CHUNKS_IN_FLIGHT,
+            new ChunkStreamer.ChunkSink<Chunk>() {
+                public Chunk load(ChunkPipeline.ChunkMesh mesh) {
+                    Chunk chunk = new Chunk(mesh);
+                    chunk.updateBounds();
+                    return chunk;
+                }
+                
+                public void update(Chunk chunk, ChunkPipeline.SectionMesh section) {
+                    chunk.createMesh(section);
+                    chunk.updateBounds();
+                }
+                
+                public void unload(Chunk chunk) {
+                    culler.remove(chunk.x, chunk.z);
+                    chunk.recycle();
+                }
+            });
     }
     
     private int createShaderProgram() {
         // Vertex shader source
         String vertexShaderSource = "#version 330 core\n" +
-            "layout (location = 0) in vec3 aPos;\n" +
-            "layout (location = 1) in vec2 aTexCoord;\n" +
-            "layout (location = 2) in vec3 aNormal;\n" +
+            "layout (location = 0) in uint aPosition;\n" +
+            "layout (location = 1) in uint aTexture;\n" +
+            "const vec3 NORMALS[6] = vec3[6](vec3(-1, 0, 0), vec3(1, 0, 0), vec3(0, -1, 0),\n" +
+            "                                vec3(0, 1, 0), vec3(0, 0, -1), vec3(0, 0, 1));\n" +
             "out vec2 TexCoord;\n" +
+            "flat out float Tile;\n" +
             "out vec3 Normal;\n" +
             "out vec3 FragPos;\n" +
             "uniform mat4 model;\n" +
             "uniform mat4 view;\n" +
             "uniform mat4 projection;\n" +
+            "uniform vec3 chunkOrigin;\n" +
             "void main() {\n" +
+            "   // Block corners are packed chunk-relative; blocks are centred on integer coordinates\n" +
+            "   vec3 corner = vec3(aPosition & 31u, (aPosition >> 5) & 127u, (aPosition >> 12) & 31u);\n" +
+            "   vec3 aPos = chunkOrigin + corner - 0.5;\n" +
             "   gl_Position = projection * view * model * vec4(aPos, 1.0);\n" +
-            "   TexCoord = aTexCoord;\n" +
-            "   Normal = aNormal;\n" +
+            "   TexCoord = vec2(aTexture & 127u, (aTexture >> 7) & 127u);\n" +
+            "   Tile = float(aTexture >> 14);\n" +
+            "   Normal = NORMALS[(aPosition >> 17) & 7u];\n" +
             "   FragPos = vec3(model * vec4(aPos, 1.0));\n" +
             "}\n";
         
@@ -675,6 +438,7 @@ public class MinecraftClone {
         String fragmentShaderSource = "#version 330 core\n" +
             "out vec4 FragColor;\n" +
             "in vec2 TexCoord;\n" +
+            "flat in float Tile;\n" +
             "in vec3 Normal;\n" +
             "in vec3 FragPos;\n" +
             "uniform sampler2D textureAtlas;\n" +
@@ -698,8 +462,12 @@ public class MinecraftClone {
             "   float spec = pow(max(dot(viewDir, reflectDir), 0.0), 32);\n" +
             "   vec3 specular = specularStrength * spec * vec3(1.0, 1.0, 1.0);\n" +
             "   \n" +
+            "   // Repeat the block's atlas tile across merged faces\n" +
+            "   vec2 tileOrigin = vec2(mod(Tile, 16.0), floor(Tile / 16.0)) / 16.0;\n" +
+            "   vec2 atlasCoord = tileOrigin + fract(TexCoord) / 16.0;\n" +
+            "   \n" +
             "   // Combine results\n" +
-            "   vec3 result = (ambient + diffuse + specular) * texture(textureAtlas, TexCoord).rgb;\n" +
+            "   vec3 result = (ambient + diffuse + specular) * texture(textureAtlas, atlasCoord).rgb;\n" +
             "   FragColor = vec4(result, 1.0);\n" +
             "}\n";
         
@@ -792,8 +560,19 @@ public class MinecraftClone {
         }
     }
     
+    // Block at world coordinates; null where the world is not loaded
+    public BlockType getBlock(int x, int y, int z) {
+        return chunks.getBlock(x, y, z);
+    }
+    
+    // Set a block at world coordinates; it shows from the next frame or so. False if unchanged
+    public boolean setBlock(int x, int y, int z, BlockType type) {
+        return chunks.setBlock(x, y, z, type);
+    }
+    
     private void update(float deltaTime) {
         camera.update(deltaTime);
+        chunks.update(camera.x, camera.z, UPLOAD_BUDGET_NANOS);
     }
     
     private void render() {
@@ -810,25 +589,12 @@ public class MinecraftClone {
         
         // Set up projection matrix
         Matrix4f projection = new Matrix4f();
-        // Create a perspective projection
         float aspect = (float) WIDTH / (float) HEIGHT;
-        float fov = (float) Math.toRadians(70.0f);
-        float near = 0.1f;
-        float far = 1000.0f;
-        
-        float yScale = (float) (1.0f / Math.tan(fov / 2.0f));
-        float xScale = yScale / aspect;
-        float frustumLength = far - near;
-        
-        projection.elements[0] = xScale;
-        projection.elements[5] = yScale;
-        projection.elements[10] = -((far + near) / frustumLength);
-        projection.elements[11] = -1.0f;
-        projection.elements[14] = -((2.0f * near * far) / frustumLength);
-        projection.elements[15] = 0.0f;
+        Frustum.perspective((float) Math.toRadians(70.0f), aspect, 0.1f, 1000.0f, projection.elements);
         
         // Set up view matrix (from camera)
         Matrix4f view = camera.getViewMatrix();
+        frustum.set(projection.elements, view.elements);
         
         // Set up model matrix (identity for world)
         Matrix4f model = new Matrix4f();
@@ -842,13 +608,10 @@ public class MinecraftClone {
         glUniform3f(glGetUniformLocation(shaderProgram, "lightPos"), 100.0f, 100.0f, 100.0f);
         glUniform3f(glGetUniformLocation(shaderProgram, "viewPos"), camera.x, camera.y, camera.z);
         
-        // Render all chunks
-        for (int x = 0; x < chunks.length; x++) {
-            for (int z = 0; z < chunks[x].length; z++) {
-                if (chunks[x][z] != null) {
-                    chunks[x][z].render();
-                }
-            }
+        // Render the loaded chunks in view
+        culler.cull(frustum, camera.x, camera.z, RENDER_DISTANCE * CHUNK_SIZE, visibleChunks);
+        for (Chunk chunk : visibleChunks) {
+            chunk.render();
         }
         
         // Swap the color buffers
@@ -856,14 +619,16 @@ public class MinecraftClone {
     }
     
     private void cleanup() {
-        // Clean up chunks
-        for (int x = 0; x < chunks.length; x++) {
-            for (int z = 0; z < chunks[x].length; z++) {
-                if (chunks[x][z] != null) {
-                    chunks[x][z].cleanup();
-                }
-            }
+        pipeline.shutdown();
+        if (store != null) store.close();
+        
+        // Clean up chunks and spare buffers
+        chunks.clear();
+        for (int[] buffers : freeBuffers) {
+            glDeleteVertexArrays(buffers[0]);
+            glDeleteBuffers(buffers[1]);
         }
+        freeBuffers.clear();
         
         // Clean up shaders and textures
         glDeleteProgram(shaderProgram);
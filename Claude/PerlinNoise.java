@@ -0,0 +1,138 @@
+import java.util.Random;
+
+// Seeded 2D Perlin noise. The permutation is shuffled from the seed once, so a seed always gives
+// the same values; instances are immutable and can be shared between threads.
+// Grids are filled one lattice cell at a time: the cell's corner hashes are computed once,
+// each row's fade once, and the kernel evaluates every sample of the grid inside the cell.
+public final class PerlinNoise {
+    // Adds amplitude * noise for the samples of a grid inside one lattice cell: rows r < rows
+    // and columns k < cols, at cell-relative (fx + k * step, fy + r * step), into
+    // out[offset + r * stride + k]
+    public interface Kernel {
+        void addCell(float[] out, int offset, int stride, int cols, int rows, float fx, float fy, float step,
+                     int h00, int h10, int h01, int h11, float amplitude);
+    }
+
+    private final int[] perm = new int[512];
+
+    public PerlinNoise(long seed) {
+        int[] p = new int[256];
+        for (int i = 0; i < 256; i++) p[i] = i;
+
+        // Shuffle the array
+        Random random = new Random(seed);
+        for (int i = 255; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = p[i];
+            p[i] = p[j];
+            p[j] = tmp;
+        }
+
+        // Duplicate the permutation vector
+        for (int i = 0; i < 512; i++) {
+            perm[i] = p[i & 255];
+        }
+    }
+
+    // The Vector API kernel when it was built (see vector/) and jdk.incubator.vector is
+    // available, otherwise the scalar loop.
+    // Both round identically, so terrain does not depend on which one runs
+    public static Kernel defaultKernel() {
+        try {
+            return (Kernel) Class.forName("VectorNoiseKernel").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return new ScalarKernel();
+        }
+    }
+
+    // One sample of the field fill samples, up to float rounding
+    public float eval(double x, double y) {
+        float[] out = new float[1];
+        add(out, x, y, 1, 1, 1, 1, ScalarKernel.INSTANCE);
+        return out[0];
+    }
+
+    // out[row * width + col] += amplitude * noise(x0 + col * step, y0 + row * step)
+    public void add(float[] out, double x0, double y0, double step, int width, int height, float amplitude, Kernel kernel) {
+        for (int row = 0; row < height; ) {
+            double y = y0 + row * step;
+            double yFloor = Math.floor(y);
+            int Y = (int) yFloor & 255;
+            int rows = samplesInCell(y, yFloor, step, height - row);
+
+            for (int col = 0; col < width; ) {
+                double x = x0 + col * step;
+                double xFloor = Math.floor(x);
+                int X = (int) xFloor & 255;
+                int cols = samplesInCell(x, xFloor, step, width - col);
+
+                int A = perm[X] + Y;
+                int AA = perm[A & 255];
+                int AB = perm[(A + 1) & 255];
+                int B = perm[(X + 1) & 255] + Y;
+                int BA = perm[B & 255];
+                int BB = perm[(B + 1) & 255];
+                kernel.addCell(out, row * width + col, width, cols, rows, (float) (x - xFloor), (float) (y - yFloor),
+                    (float) step, perm[AA & 255], perm[BA & 255], perm[AB & 255], perm[BB & 255], amplitude);
+                col += cols;
+            }
+            row += rows;
+        }
+    }
+
+    // Samples from start on, at most left, before the next cell: those with start + k * step < floor + 1
+    private static int samplesInCell(double start, double floor, double step, int left) {
+        return (int) Math.min(left, Math.max(1, Math.ceil((floor + 1 - start) / step)));
+    }
+
+    // Gradient for a corner hash, dotted with the offset (x, y): one axis weighted 1, the other 2
+    static float gradX(int hash) {
+        int h = hash & 7;
+        float weight = h < 4 ? 1 : 2;
+        return (h & (h < 4 ? 1 : 2)) != 0 ? -weight : weight;
+    }
+
+    static float gradY(int hash) {
+        int h = hash & 7;
+        float weight = h < 4 ? 2 : 1;
+        return (h & (h < 4 ? 2 : 1)) != 0 ? -weight : weight;
+    }
+
+    // Plain loop; also the reference for VectorNoiseKernel, which must round the same way
+    static class ScalarKernel implements Kernel {
+        static final ScalarKernel INSTANCE = new ScalarKernel();
+
+        @Override
+        public void addCell(float[] out, int offset, int stride, int cols, int rows, float fx, float fy, float step,
+                            int h00, int h10, int h01, int h11, float amplitude) {
+            for (int r = 0; r < rows; r++) {
+                addRow(out, offset + r * stride, 0, cols, fx, step, fy + r * step, h00, h10, h01, h11, amplitude);
+            }
+        }
+
+        // Samples from <= k < to of one row of a cell, at cell-relative y = fy
+        static void addRow(float[] out, int offset, int from, int to, float fx, float step, float fy,
+                           int h00, int h10, int h01, int h11, float amplitude) {
+            float gx00 = gradX(h00), gx10 = gradX(h10), gx01 = gradX(h01), gx11 = gradX(h11);
+            // The y terms are fixed along the row
+            float c00 = gradY(h00) * fy, c10 = gradY(h10) * fy;
+            float c01 = gradY(h01) * (fy - 1), c11 = gradY(h11) * (fy - 1);
+            float v = fade(fy);
+            for (int k = from; k < to; k++) {
+                float x = fx + k * step;
+                float u = fade(x);
+                float n00 = gx00 * x + c00;
+                float n10 = gx10 * (x - 1) + c10;
+                float n01 = gx01 * x + c01;
+                float n11 = gx11 * (x - 1) + c11;
+                float a = n00 + u * (n10 - n00);
+                float b = n01 + u * (n11 - n01);
+                out[offset + k] += amplitude * (a + v * (b - a));
+            }
+        }
+    }
+
+    static float fade(float t) {
+        return t * t * t * (t * (t * 6 - 15) + 10);
+    }
+}
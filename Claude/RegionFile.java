@@ -0,0 +1,157 @@
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.BitSet;
+import java.util.zip.*;
+
+// One region file: up to 32x32 chunks, each stored as a deflated ChunkStorage.
+// The file starts with a header of 1024 entries (chunk index localZ * 32 + localX), each an
+// int sector offset (0 = not stored) and an int payload length in bytes. Payloads take whole
+// 4 KB sectors. A rewritten chunk goes to the first free run, never over its old payload, and
+// old sectors are reused only once a header no longer pointing at them is forced to disk:
+// after a crash, the header on disk points at complete payloads of the last header written.
+// Reads go through a read-only mapping of the file; writes go through the channel.
+public final class RegionFile implements Closeable {
+    public static final int CHUNKS = 32;
+    private static final int SECTOR_BYTES = 4096;
+    private static final int HEADER_SECTORS = CHUNKS * CHUNKS * 2 * Integer.BYTES / SECTOR_BYTES;
+
+    // Inflater and scratch per reading thread
+    private static final ThreadLocal<Inflater> inflaters = ThreadLocal.withInitial(Inflater::new);
+    private static final ThreadLocal<byte[][]> scratch = ThreadLocal.withInitial(() -> new byte[2][ChunkStorage.VOLUME]);
+
+    private final FileChannel channel;
+    private final int[] offsets = new int[CHUNKS * CHUNKS];
+    private final int[] lengths = new int[CHUNKS * CHUNKS];
+    private final BitSet used = new BitSet();
+    private final BitSet freed = new BitSet(); // still used until the next header is on disk
+    private MappedByteBuffer mapped; // null after the file grew
+    private boolean headerDirty;
+
+    public RegionFile(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        used.set(0, HEADER_SECTORS);
+        if (channel.size() < HEADER_SECTORS * SECTOR_BYTES) {
+            channel.write(ByteBuffer.allocate(HEADER_SECTORS * SECTOR_BYTES), 0);
+            return;
+        }
+
+        IntBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SECTORS * SECTOR_BYTES).asIntBuffer();
+        long sectors = channel.size() / SECTOR_BYTES;
+        for (int i = 0; i < offsets.length; i++) {
+            int offset = header.get(i * 2), length = header.get(i * 2 + 1);
+            if (offset == 0) continue;
+            if (offset < HEADER_SECTORS || offset + sectorsFor(length) > sectors) {
+                System.err.println("Ignoring corrupt entry " + i + " in " + path);
+                continue;
+            }
+            offsets[i] = offset;
+            lengths[i] = length;
+            used.set(offset, offset + sectorsFor(length));
+        }
+    }
+
+    // Chunk index within its region
+    public static int index(int chunkX, int chunkZ) {
+        return Math.floorMod(chunkZ, CHUNKS) * CHUNKS + Math.floorMod(chunkX, CHUNKS);
+    }
+
+    // The stored chunk, or null if it was never saved
+    public ChunkStorage read(int index) throws IOException {
+        byte[][] buffers = scratch.get();
+        int length;
+        synchronized (this) {
+            if (offsets[index] == 0) return null;
+            if (mapped == null) mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            length = lengths[index];
+            if (buffers[0].length < length) buffers[0] = new byte[length];
+            mapped.get(offsets[index] * SECTOR_BYTES, buffers[0], 0, length);
+        }
+
+        // Payload: uncompressed length, then the deflated column
+        ByteBuffer payload = ByteBuffer.wrap(buffers[0], 0, length);
+        int rawLength = payload.getInt();
+        if (buffers[1].length < rawLength) buffers[1] = new byte[rawLength];
+        Inflater inflater = inflaters.get();
+        inflater.reset();
+        inflater.setInput(buffers[0], Integer.BYTES, length - Integer.BYTES);
+        try {
+            int inflated = 0;
+            while (inflated < rawLength && !inflater.finished()) {
+                int n = inflater.inflate(buffers[1], inflated, rawLength - inflated);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+                inflated += n;
+            }
+            if (inflated != rawLength) throw new IOException("Truncated chunk " + index);
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt chunk " + index, e);
+        }
+        return ChunkStorage.read(ByteBuffer.wrap(buffers[1], 0, rawLength));
+    }
+
+    // Store a payload (uncompressed length, then deflated column) for a chunk; the header
+    // is written by writeHeader, so a batch of chunks updates it once
+    public synchronized void write(int index, ByteBuffer payload) throws IOException {
+        int length = payload.remaining();
+        int sectors = sectorsFor(length);
+        if (offsets[index] != 0) freed.set(offsets[index], offsets[index] + sectorsFor(lengths[index]));
+        int offset = findFree(sectors);
+        used.set(offset, offset + sectors);
+
+        long end = (long) (offset + sectors) * SECTOR_BYTES;
+        if (end > channel.size()) {
+            // Pad to whole sectors so the next payload starts on a sector boundary
+            ByteBuffer padded = ByteBuffer.allocate(sectors * SECTOR_BYTES);
+            padded.put(payload).clear();
+            payload = padded;
+            mapped = null;
+        }
+        long position = (long) offset * SECTOR_BYTES;
+        while (payload.hasRemaining()) position += channel.write(payload, position);
+        offsets[index] = offset;
+        lengths[index] = length;
+        headerDirty = true;
+    }
+
+    // Payloads reach the disk before the header pointing at them, and sectors the header no
+    // longer points at are free only once it is there too
+    public synchronized void writeHeader() throws IOException {
+        if (!headerDirty) return;
+        channel.force(false);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SECTORS * SECTOR_BYTES);
+        for (int i = 0; i < offsets.length; i++) header.putInt(offsets[i]).putInt(lengths[i]);
+        header.flip();
+        for (long position = 0; header.hasRemaining(); ) position += channel.write(header, position);
+        channel.force(false);
+        headerDirty = false;
+        used.andNot(freed);
+        freed.clear();
+    }
+
+    public synchronized long sizeBytes() throws IOException {
+        return channel.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writeHeader();
+        channel.force(true);
+        channel.close();
+        mapped = null;
+    }
+
+    // First run of free sectors long enough, possibly past the end of the file
+    private int findFree(int sectors) {
+        int start = used.nextClearBit(HEADER_SECTORS);
+        while (true) {
+            int next = used.nextSetBit(start);
+            if (next < 0 || next - start >= sectors) return start;
+            start = used.nextClearBit(next);
+        }
+    }
+
+    private static int sectorsFor(int length) {
+        return (length + SECTOR_BYTES - 1) / SECTOR_BYTES;
+    }
+}
@@ -0,0 +1,206 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.zip.Deflater;
+
+// A world directory of region files. Loads run on the caller's thread; saves are queued and
+// written in batches by one background thread, so each touched region's header is written once
+// per batch. A chunk queued but not yet written is loaded from the queue.
+// Saving reads a chunk while holding its ChunkStorage's monitor; edit it under the same lock.
+public class RegionStore implements Closeable {
+    private static final long SAVE_INTERVAL_MILLIS = 2000;
+
+    private final Path directory;
+    private final Map<Long, RegionFile> regions = new ConcurrentHashMap<>();
+    private final Map<Long, ChunkStorage> dirty = new ConcurrentHashMap<>();
+    // Taken off dirty by the saver until written, so a save during the write queues it again
+    private final Map<Long, ChunkStorage> writing = new ConcurrentHashMap<>();
+    // Stored but failed to load: never overwritten, so a transient error cannot lose edits
+    private final Set<Long> unreadable = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService saver;
+
+    // Saver thread only
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private ByteBuffer raw = ByteBuffer.allocate(ChunkStorage.VOLUME * 2);
+    private ByteBuffer payload = ByteBuffer.allocate(ChunkStorage.VOLUME * 2);
+    private volatile long chunksSaved;
+
+    public RegionStore(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        saver = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "region-saver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        saver.scheduleWithFixedDelay(this::saveDirty, SAVE_INTERVAL_MILLIS, SAVE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    // The world's terrain seed, chosen at random and saved the first time it is asked for
+    public long seed() throws IOException {
+        Path path = directory.resolve("seed");
+        if (Files.exists(path)) {
+            try {
+                return Long.parseLong(Files.readString(path).trim());
+            } catch (NumberFormatException e) {
+                throw new IOException("Bad seed file " + path, e);
+            }
+        }
+        long seed = new Random().nextLong();
+        Files.writeString(path, Long.toString(seed));
+        return seed;
+    }
+
+    // The saved chunk, or null if it was never saved. A chunk that is stored but cannot be read
+    // throws, and is not overwritten by save until a later load succeeds.
+    public ChunkStorage load(int chunkX, int chunkZ) throws IOException {
+        long key = ChunkMap.key(chunkX, chunkZ);
+        ChunkStorage pending = dirty.get(key);
+        if (pending == null) pending = writing.get(key);
+        if (pending != null) return pending;
+        try {
+            RegionFile region = region(chunkX, chunkZ, false);
+            ChunkStorage blocks = region == null ? null : region.read(RegionFile.index(chunkX, chunkZ));
+            unreadable.remove(key);
+            return blocks;
+        } catch (IOException e) {
+            unreadable.add(key);
+            throw e;
+        }
+    }
+
+    // Queue a chunk to be written with the next batch; saving it again before then writes it once
+    public void save(int chunkX, int chunkZ, ChunkStorage blocks) {
+        long key = ChunkMap.key(chunkX, chunkZ);
+        if (unreadable.contains(key)) {
+            System.err.println("Not saving chunk " + chunkX + ", " + chunkZ + " over its unreadable copy");
+            return;
+        }
+        dirty.put(key, blocks);
+    }
+
+    // Write everything queued so far, and wait for it
+    public void flush() {
+        try {
+            saver.submit(this::saveDirty).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.err.println("Failed to save chunks: " + e.getCause());
+        }
+    }
+
+    public int pendingCount() {
+        return dirty.size() + writing.size();
+    }
+
+    public long savedCount() {
+        return chunksSaved;
+    }
+
+    // Bytes on disk across the region files opened so far
+    public long sizeBytes() throws IOException {
+        long size = 0;
+        for (RegionFile region : regions.values()) size += region.sizeBytes();
+        return size;
+    }
+
+    @Override
+    public void close() {
+        flush();
+        saver.shutdown();
+        for (RegionFile region : regions.values()) {
+            try {
+                region.close();
+            } catch (IOException e) {
+                System.err.println("Failed to close region file: " + e.getMessage());
+            }
+        }
+        regions.clear();
+    }
+
+    // Saver thread: write the queued chunks region by region, then each touched header
+    private void saveDirty() {
+        if (dirty.isEmpty()) return;
+        List<Long> keys = new ArrayList<>(dirty.keySet());
+        keys.sort(Comparator.comparingLong(key -> regionKey(ChunkMap.keyX(key), ChunkMap.keyZ(key))));
+
+        Set<RegionFile> touched = new HashSet<>();
+        for (long key : keys) {
+            // Dequeue before reading the chunk: an edit saved from here on queues it again,
+            // even though it is the same ChunkStorage. It is in writing before it leaves dirty,
+            // so load always finds it in one of them.
+            ChunkStorage blocks = dirty.get(key);
+            if (blocks == null) continue;
+            writing.put(key, blocks);
+            dirty.remove(key, blocks);
+            int chunkX = ChunkMap.keyX(key), chunkZ = ChunkMap.keyZ(key);
+            try {
+                RegionFile region = region(chunkX, chunkZ, true);
+                region.write(RegionFile.index(chunkX, chunkZ), compress(blocks));
+                touched.add(region);
+                chunksSaved++;
+            } catch (IOException e) {
+                System.err.println("Failed to save chunk " + chunkX + ", " + chunkZ + ": " + e.getMessage());
+                dirty.putIfAbsent(key, blocks); // retry with the next batch
+            } finally {
+                writing.remove(key, blocks);
+            }
+        }
+        for (RegionFile region : touched) {
+            try {
+                region.writeHeader();
+            } catch (IOException e) {
+                System.err.println("Failed to write region header: " + e.getMessage());
+            }
+        }
+    }
+
+    // Uncompressed length, then the deflated column
+    private ByteBuffer compress(ChunkStorage blocks) {
+        raw.clear();
+        synchronized (blocks) {
+            int size = blocks.serializedSize();
+            if (raw.capacity() < size) raw = ByteBuffer.allocate(size);
+            blocks.write(raw);
+        }
+        raw.flip();
+
+        int rawLength = raw.remaining();
+        payload.clear();
+        payload.putInt(rawLength);
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+        while (!deflater.finished()) {
+            if (!payload.hasRemaining()) {
+                payload.flip();
+                payload = ByteBuffer.allocate(payload.capacity() * 2).put(payload);
+            }
+            deflater.deflate(payload);
+        }
+        return payload.flip();
+    }
+
+    // Open, or with create make, the region file holding a chunk; null if absent
+    private RegionFile region(int chunkX, int chunkZ, boolean create) throws IOException {
+        long key = regionKey(chunkX, chunkZ);
+        RegionFile region = regions.get(key);
+        if (region != null) return region;
+        synchronized (regions) {
+            region = regions.get(key);
+            if (region != null) return region;
+            Path path = directory.resolve("r." + Math.floorDiv(chunkX, RegionFile.CHUNKS) + "."
+                + Math.floorDiv(chunkZ, RegionFile.CHUNKS) + ".region");
+            if (!create && !Files.exists(path)) return null;
+            region = new RegionFile(path);
+            regions.put(key, region);
+            return region;
+        }
+    }
+
+    private static long regionKey(int chunkX, int chunkZ) {
+        return ChunkMap.key(Math.floorDiv(chunkX, RegionFile.CHUNKS), Math.floorDiv(chunkZ, RegionFile.CHUNKS));
+    }
+}
@@ -0,0 +1,137 @@
+import java.util.Arrays;
+import java.util.Random;
+
+// Fills chunk columns from noise. Uses no GL, so it runs on any thread or headless;
+// holds a scratch column, so use one generator per thread. Generators of one world share
+// its FractalNoise, and the same seed always generates the same chunks.
+public class TerrainGenerator {
+    private static final int SIZE = ChunkStorage.SIZE;
+    private static final int HEIGHT = ChunkStorage.HEIGHT;
+    public static final long DEFAULT_SEED = 0;
+
+    // Height noise: 100-block hills with three octaves of finer detail, 20 blocks either side of 32
+    private static final int OCTAVES = 4;
+    private static final double FREQUENCY = 0.01;
+    private static final float BASE_HEIGHT = 32;
+    private static final float AMPLITUDE = 20;
+    private static final int WATER_LEVEL = 32; // water fills air below this height
+
+    private final long seed;
+    private final FractalNoise noise;
+    private final float[] heights = new float[SIZE * SIZE]; // by localZ * SIZE + localX
+    private final byte[] ids = new byte[ChunkStorage.VOLUME];
+
+    public TerrainGenerator() {
+        this(DEFAULT_SEED);
+    }
+
+    public TerrainGenerator(long seed) {
+        this(seed, terrainNoise(seed));
+    }
+
+    // A generator sharing a world's noise with the world's other generators
+    public TerrainGenerator(long seed, FractalNoise noise) {
+        this.seed = seed;
+        this.noise = noise;
+    }
+
+    // The height noise for a world, built once and shared by its generators
+    public static FractalNoise terrainNoise(long seed) {
+        return new FractalNoise(seed, OCTAVES, FREQUENCY, 2, 0.5);
+    }
+
+    public ChunkStorage generate(int chunkX, int chunkZ) {
+        Random random = new Random(seed + chunkX * 341873128712L + chunkZ * 132897987541L);
+        noise.fill(heights, chunkX * SIZE, chunkZ * SIZE, 1, SIZE, SIZE);
+        float minHeight = Float.MAX_VALUE, maxHeight = -Float.MAX_VALUE;
+        for (int i = 0; i < heights.length; i++) {
+            heights[i] = heights[i] * AMPLITUDE + BASE_HEIGHT;
+            minHeight = Math.min(minHeight, heights[i]);
+            maxHeight = Math.max(maxHeight, heights[i]);
+        }
+
+        // Sections entirely below the dirt are stone, and those above the ground and water are
+        // air unless a tree reaches into them: only the sections between are filled and packed.
+        // Trees start above their own ground, which is above every column's stone
+        int stoneSections = Math.max(0, Math.min((int) Math.floor(minHeight) - 3, HEIGHT) / ChunkSection.SIZE);
+        int groundTop = Math.max(stoneSections * ChunkSection.SIZE, Math.min((int) Math.floor(maxHeight) + 1, HEIGHT));
+        int airFrom = (Math.max(groundTop, WATER_LEVEL) + ChunkSection.SIZE - 1) / ChunkSection.SIZE * ChunkSection.SIZE;
+        Arrays.fill(ids, airFrom << 8, ids.length, (byte) BlockType.AIR.id);
+
+        int fillFrom = stoneSections * ChunkSection.SIZE;
+        for (int localX = 0; localX < SIZE; localX++) {
+            for (int localZ = 0; localZ < SIZE; localZ++) {
+                // Stone, three dirt, grass at the surface, then water up to the water level and air
+                int surface = (int) Math.floor(heights[localZ * SIZE + localX]);
+                int column = ChunkStorage.index(localX, 0, localZ);
+                fill(column, fillFrom, surface - 3, BlockType.STONE);
+                fill(column, Math.max(fillFrom, surface - 3), surface, BlockType.DIRT);
+                fill(column, surface, surface + 1, BlockType.GRASS);
+                fill(column, surface + 1, Math.min(WATER_LEVEL, airFrom), BlockType.WATER);
+                fill(column, Math.max(surface + 1, WATER_LEVEL), airFrom, BlockType.AIR);
+            }
+        }
+
+        // Trees go in after the ground, as they overhang neighbouring columns
+        int highestTree = -1;
+        for (int localX = 0; localX < SIZE; localX++) {
+            for (int localZ = 0; localZ < SIZE; localZ++) {
+                float height = heights[localZ * SIZE + localX];
+                if (random.nextDouble() < 0.02 && height > 40) {
+                    highestTree = Math.max(highestTree, generateTree(localX, (int) height, localZ, random));
+                }
+            }
+        }
+
+        ChunkSection[] sections = new ChunkSection[ChunkStorage.SECTIONS];
+        for (int s = 0; s < sections.length; s++) {
+            int bottom = s * ChunkSection.SIZE;
+            if (s < stoneSections) {
+                sections[s] = new ChunkSection(BlockType.STONE);
+            } else if (bottom >= airFrom && bottom > highestTree) {
+                sections[s] = new ChunkSection(BlockType.AIR);
+            } else {
+                sections[s] = ChunkSection.of(ids, bottom << 8);
+            }
+        }
+        return ChunkStorage.fromSections(sections);
+    }
+
+    // Set y in [from, to) of a column, clamped to the chunk
+    private void fill(int column, int from, int to, BlockType block) {
+        byte id = (byte) block.id;
+        for (int y = Math.max(from, 0), end = Math.min(to, HEIGHT); y < end; y++) {
+            ids[column | y << 8] = id;
+        }
+    }
+
+    // Returns the highest y the tree may have written
+    private int generateTree(int x, int y, int z, Random random) {
+        int height = 4 + random.nextInt(3);
+
+        // Generate trunk
+        for (int i = 1; i <= height; i++) {
+            if (y + i < HEIGHT) {
+                ids[ChunkStorage.index(x, y + i, z)] = (byte) BlockType.WOOD.id;
+            }
+        }
+
+        // Generate leaves
+        for (int i = -2; i <= 2; i++) {
+            for (int j = -2; j <= 2; j++) {
+                for (int k = -2; k <= 2; k++) {
+                    if (x + i >= 0 && x + i < SIZE &&
+                        z + j >= 0 && z + j < SIZE &&
+                        y + height + k < HEIGHT) {
+
+                        // Skip corners for a more natural shape
+                        if (Math.abs(i) == 2 && Math.abs(j) == 2 && Math.abs(k) == 2) continue;
+
+                        ids[ChunkStorage.index(x + i, y + height + k, z + j)] = (byte) BlockType.LEAVES.id;
+                    }
+                }
+            }
+        }
+        return y + height + 2;
+    }
+}
@@ -0,0 +1,58 @@
+import java.util.Arrays;
+
+// Growable buffer of packed chunk vertices, reused across meshes so building a mesh
+// allocates nothing but its result. A vertex is two ints (8 bytes):
+//   position: x (5 bits) | y (7) << 5 | z (5) << 12 | face (3) << 17
+//   texture:  u (7 bits) | v (7) << 7 | atlas tile (8) << 14
+// Positions are block-corner coordinates within the chunk; the vertex shader adds the
+// chunk origin and looks the normal up by face (-X, +X, -Y, +Y, -Z, +Z).
+public class VertexBuilder {
+    public static final int INTS_PER_VERTEX = 2;
+    public static final int BYTES_PER_VERTEX = INTS_PER_VERTEX * Integer.BYTES;
+
+    private int[] data;
+    private int size; // ints used
+
+    public VertexBuilder() {
+        this(1 << 14);
+    }
+
+    public VertexBuilder(int initialVertices) {
+        data = new int[Math.max(initialVertices, 1) * INTS_PER_VERTEX];
+    }
+
+    public static int packPosition(int x, int y, int z, int face) {
+        return x | y << 5 | z << 12 | face << 17;
+    }
+
+    public static int packTexture(int u, int v, int tile) {
+        return u | v << 7 | tile << 14;
+    }
+
+    public void add(int position, int texture) {
+        if (size + INTS_PER_VERTEX > data.length) data = Arrays.copyOf(data, data.length * 2);
+        data[size++] = position;
+        data[size++] = texture;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int vertexCount() {
+        return size / INTS_PER_VERTEX;
+    }
+
+    // The packed vertices, valid until the next add or clear; the first size() ints are used
+    public int[] data() {
+        return data;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int[] toArray() {
+        return Arrays.copyOf(data, size);
+    }
+}
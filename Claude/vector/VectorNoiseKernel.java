@@ -0,0 +1,56 @@
+import jdk.incubator.vector.*;
+
+// Perlin cell rows with the Vector API. Compiled on its own, after the classes it extends, so
+// the rest of the game builds without the incubator module:
+//   javac --add-modules jdk.incubator.vector -cp <classes> -d <classes> vector/*.java
+// Loaded reflectively by PerlinNoise when run with --add-modules jdk.incubator.vector;
+// without the module, or if this class was not built, the scalar kernel runs.
+// Uses the scalar kernel's operations in the same order and no fused multiply-add,
+// so both produce bit-identical terrain.
+public class VectorNoiseKernel implements PerlinNoise.Kernel {
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+    private static final float[] LANE_INDICES = new float[SPECIES.length()];
+
+    static {
+        for (int i = 0; i < LANE_INDICES.length; i++) LANE_INDICES[i] = i;
+    }
+
+    private static final FloatVector LANES = FloatVector.fromArray(SPECIES, LANE_INDICES, 0);
+
+    @Override
+    public void addCell(float[] out, int offset, int stride, int cols, int rows, float fx, float fy, float step,
+                        int h00, int h10, int h01, int h11, float amplitude) {
+        int lanes = SPECIES.length();
+        int vectorEnd = cols / lanes * lanes;
+        float gx00 = PerlinNoise.gradX(h00), gx10 = PerlinNoise.gradX(h10);
+        float gx01 = PerlinNoise.gradX(h01), gx11 = PerlinNoise.gradX(h11);
+        float gy00 = PerlinNoise.gradY(h00), gy10 = PerlinNoise.gradY(h10);
+        float gy01 = PerlinNoise.gradY(h01), gy11 = PerlinNoise.gradY(h11);
+        for (int r = 0; r < rows; r++) {
+            int row = offset + r * stride;
+            float y = fy + r * step;
+            if (vectorEnd > 0) {
+                float c00 = gy00 * y, c10 = gy10 * y;
+                float c01 = gy01 * (y - 1), c11 = gy11 * (y - 1);
+                float v = PerlinNoise.fade(y);
+                for (int k = 0; k < vectorEnd; k += lanes) {
+                    FloatVector x = LANES.add(k).mul(step).add(fx);
+                    FloatVector x1 = x.sub(1);
+                    // fade(x) = x * x * x * (x * (x * 6 - 15) + 10)
+                    FloatVector u = x.mul(x).mul(x).mul(x.mul(x.mul(6).sub(15)).add(10));
+                    FloatVector n00 = x.mul(gx00).add(c00);
+                    FloatVector n10 = x1.mul(gx10).add(c10);
+                    FloatVector n01 = x.mul(gx01).add(c01);
+                    FloatVector n11 = x1.mul(gx11).add(c11);
+                    FloatVector a = n00.add(u.mul(n10.sub(n00)));
+                    FloatVector b = n01.add(u.mul(n11.sub(n01)));
+                    FloatVector value = a.add(b.sub(a).mul(v)).mul(amplitude);
+                    FloatVector.fromArray(SPECIES, out, row + k).add(value).intoArray(out, row + k);
+                }
+            }
+            if (vectorEnd < cols) {
+                PerlinNoise.ScalarKernel.addRow(out, row, vectorEnd, cols, fx, step, y, h00, h10, h01, h11, amplitude);
+            }
+        }
+    }
+}
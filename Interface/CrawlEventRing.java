@@ -0,0 +1,75 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Bounded lock-free ring of crawl events: many crawler threads publish, one renderer drains.
+// Each slot carries a sequence number (Vyukov's bounded queue), so producers claim slots with a
+// single CAS and never wait; when the renderer falls behind, new events are dropped and counted.
+public class CrawlEventRing {
+    // Page kinds, as the view colours them
+    static final int PAGE_OTHER = 0;
+    static final int PAGE_VALUABLE = 1;
+    static final int PAGE_MALFORMED = 2;
+
+    // Receives drained events without boxing
+    public interface Handler {
+        void onEvent(int action, int pageKind, int reward);
+    }
+
+    private final int mask;
+    private final long[] events;          // packed: reward << 32 | pageKind << 8 | action
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private long head = 0;                // consumer only
+    private final LongAdder dropped = new LongAdder();
+
+    public CrawlEventRing(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        mask = capacity - 1;
+        events = new long[capacity];
+        sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) sequences.set(i, i);
+    }
+
+    // Returns false, without blocking, if the ring is full
+    public boolean publish(int action, int pageKind, int reward) {
+        long position = tail.get();
+        while (true) {
+            int slot = (int) (position & mask);
+            long sequence = sequences.getAcquire(slot);
+            if (sequence == position) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    events[slot] = ((long) reward << 32) | ((pageKind & 0xFF) << 8) | (action & 0xFF);
+                    sequences.setRelease(slot, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (sequence < position) {
+                dropped.increment(); // slot still holds an event from a lap ago
+                return false;
+            } else {
+                position = tail.get(); // another producer took this slot
+            }
+        }
+    }
+
+    // Hand every published event to handler, oldest first; single consumer thread only
+    public int drain(Handler handler) {
+        int count = 0;
+        while (true) {
+            int slot = (int) (head & mask);
+            if (sequences.getAcquire(slot) != head + 1) return count;
+            long event = events[slot];
+            sequences.setRelease(slot, head + mask + 1);
+            head++;
+            count++;
+            handler.onEvent((int) (event & 0xFF), (int) ((event >>> 8) & 0xFF), (int) (event >> 32));
+        }
+    }
+
+    public long droppedCount() {
+        return dropped.sum();
+    }
+}
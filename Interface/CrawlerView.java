@@ -0,0 +1,155 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import javax.swing.*;
+import javax.swing.Timer;
+
+// Minecraft-style view of a running RLWebCrawler. Crawl events arrive through a CrawlEventRing
+// and are applied once per frame on the Swing thread, so crawler threads never touch AWT.
+public class CrawlerView extends JPanel {
+    private static final int BLOCK_SIZE = 32;
+    private static final int VIEW_SIZE = 15; // 15x15 grid
+    private static final int FRAME_MILLIS = 33; // about 30 frames per second
+    private static final int EVENT_CAPACITY = 4096;
+    // Blocks land at random spots, so older events of a busy frame would be painted over anyway
+    private static final int MAX_BLOCKS_PER_FRAME = 64;
+
+    private static final Color STONE = new Color(100, 100, 100);
+    private static final Color GRASS = new Color(0, 150, 0);
+    private static final Color SKY = new Color(135, 206, 235);
+    private static final Color[] VALUABLE_BLOCKS = new Color[RLWebCrawler.ACTION_SPACE_SIZE];
+    private static final Color[] OTHER_BLOCKS = new Color[RLWebCrawler.ACTION_SPACE_SIZE];
+    static {
+        for (int action = 0; action < RLWebCrawler.ACTION_SPACE_SIZE; action++) {
+            VALUABLE_BLOCKS[action] = new Color(0, 100 + action * 30, 200); // Blue-green shades
+            OTHER_BLOCKS[action] = new Color(150 + action * 20, 100, 50); // Red-orange shades
+        }
+    }
+
+    private final RLWebCrawler crawler;
+    private final CrawlEventRing events;
+    private final BufferedImage minecraftView;
+    private final Random random = new Random();
+    private int playerX = 0, playerY = 0;
+
+    // The last MAX_BLOCKS_PER_FRAME events drained this frame, as a circular buffer
+    private final CrawlEventRing.Handler collector = this::collect;
+    private final int[] recentActions = new int[MAX_BLOCKS_PER_FRAME];
+    private final int[] recentKinds = new int[MAX_BLOCKS_PER_FRAME];
+    private int recentCount = 0;
+
+    public CrawlerView(RLWebCrawler crawler) {
+        this.crawler = crawler;
+        this.events = crawler.enableEvents(EVENT_CAPACITY);
+
+        setPreferredSize(new Dimension(VIEW_SIZE * BLOCK_SIZE, VIEW_SIZE * BLOCK_SIZE));
+        minecraftView = new BufferedImage(VIEW_SIZE * BLOCK_SIZE, VIEW_SIZE * BLOCK_SIZE,
+                                         BufferedImage.TYPE_INT_RGB);
+        initializeMinecraftWorld();
+
+        new Timer(FRAME_MILLIS, e -> renderFrame()).start();
+    }
+
+    // Show a crawler's view in its own window
+    public static void open(RLWebCrawler crawler) {
+        SwingUtilities.invokeLater(() -> {
+            JFrame frame = new JFrame("RL Web Crawler with Minecraft Visualization");
+            frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+            frame.getContentPane().add(new CrawlerView(crawler));
+            frame.pack();
+            frame.setLocationRelativeTo(null);
+            frame.setVisible(true);
+        });
+    }
+
+    private void initializeMinecraftWorld() {
+        Graphics2D g = minecraftView.createGraphics();
+
+        // Draw basic terrain
+        for (int x = 0; x < VIEW_SIZE; x++) {
+            for (int y = 0; y < VIEW_SIZE; y++) {
+                if (y > VIEW_SIZE / 2) {
+                    g.setColor(STONE);
+                } else if (y == VIEW_SIZE / 2) {
+                    g.setColor(GRASS);
+                } else {
+                    g.setColor(SKY);
+                }
+                g.fillRect(x * BLOCK_SIZE, y * BLOCK_SIZE, BLOCK_SIZE, BLOCK_SIZE);
+
+                // Grid lines
+                g.setColor(Color.BLACK);
+                g.drawRect(x * BLOCK_SIZE, y * BLOCK_SIZE, BLOCK_SIZE, BLOCK_SIZE);
+            }
+        }
+
+        // Add some blocks to represent web pages
+        for (int i = 0; i < 10; i++) {
+            int x = random.nextInt(VIEW_SIZE);
+            int y = random.nextInt(VIEW_SIZE / 2 - 2);
+            g.setColor(new Color(200, 100 + random.nextInt(100), 50));
+            g.fillRect(x * BLOCK_SIZE, y * BLOCK_SIZE, BLOCK_SIZE, BLOCK_SIZE);
+            g.setColor(Color.BLACK);
+            g.drawRect(x * BLOCK_SIZE, y * BLOCK_SIZE, BLOCK_SIZE, BLOCK_SIZE);
+        }
+
+        g.dispose();
+    }
+
+    // Apply every event since the last frame, then repaint once
+    private void renderFrame() {
+        recentCount = 0;
+        events.drain(collector);
+
+        int blocks = Math.min(recentCount, MAX_BLOCKS_PER_FRAME);
+        if (blocks > 0) {
+            Graphics2D g = minecraftView.createGraphics();
+            for (int i = recentCount - blocks; i < recentCount; i++) {
+                int slot = i % MAX_BLOCKS_PER_FRAME;
+                int kind = recentKinds[slot];
+                int action = recentActions[slot];
+                Color blockColor = kind == CrawlEventRing.PAGE_MALFORMED ? Color.GRAY
+                    : kind == CrawlEventRing.PAGE_VALUABLE ? VALUABLE_BLOCKS[action] : OTHER_BLOCKS[action];
+
+                // Place the block at a random position in the upper part of the world
+                int blockX = random.nextInt(VIEW_SIZE);
+                int blockY = random.nextInt(VIEW_SIZE / 2 - 2);
+                g.setColor(blockColor);
+                g.fillRect(blockX * BLOCK_SIZE, blockY * BLOCK_SIZE, BLOCK_SIZE, BLOCK_SIZE);
+                g.setColor(Color.BLACK);
+                g.drawRect(blockX * BLOCK_SIZE, blockY * BLOCK_SIZE, BLOCK_SIZE, BLOCK_SIZE);
+            }
+            g.dispose();
+        }
+        repaint();
+    }
+
+    private void collect(int action, int pageKind, int reward) {
+        // The player still takes one step per crawled page
+        playerX = (playerX + 1) % VIEW_SIZE;
+        playerY = (playerY + (action % 2 == 0 ? 1 : -1)) % VIEW_SIZE;
+        if (playerY < 0) playerY = VIEW_SIZE - 1;
+
+        int slot = recentCount % MAX_BLOCKS_PER_FRAME;
+        recentActions[slot] = Math.min(action, RLWebCrawler.ACTION_SPACE_SIZE - 1);
+        recentKinds[slot] = pageKind;
+        recentCount++;
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        g.drawImage(minecraftView, 0, 0, this);
+
+        // Draw player
+        g.setColor(Color.RED);
+        g.fillRect(playerX * BLOCK_SIZE, playerY * BLOCK_SIZE, BLOCK_SIZE, BLOCK_SIZE);
+
+        // Draw status information
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, 200, 40);
+        g.setColor(Color.BLACK);
+        g.drawString("Pages Crawled: " + crawler.pagesCrawled(), 10, 15);
+        g.drawString("URLs in Queue: " + crawler.queuedUrlCount(), 10, 30);
+    }
+}
@@ -0,0 +1,177 @@
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+
+// Append-only log of crawl transitions (state, action, reward, next state) for offline training.
+// Layout (big-endian): header, then 7-byte records of u16 state, u16 next state, u8 action, i16 reward.
+// A next state of 0xFFFF marks the end of a worker's trajectory.
+public class ExperienceLog implements Closeable {
+    static final int MAGIC = 0x524C5850; // "RLXP"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    static final int RECORD_BYTES = 7;
+    static final int TERMINAL = -1;
+    private static final int BUFFER_RECORDS = 8192;
+    private static final int MAX_STATES = 0xFFFF; // 0xFFFF itself is the terminal marker
+
+    private final Path path;
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_RECORDS * RECORD_BYTES);
+    private long appended = 0;
+
+    // Open for appending, writing the header for a new file or checking it for an existing one
+    public ExperienceLog(Path path, int states, int actions) throws IOException {
+        if (states > MAX_STATES || actions > 0xFF) {
+            throw new IllegalArgumentException("Too many states or actions for the log format: " + states + " x " + actions);
+        }
+        this.path = path;
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() == 0) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                header.putInt(MAGIC).putInt(VERSION).putInt(states).putInt(actions).flip();
+                while (header.hasRemaining()) channel.write(header);
+            } else {
+                Header header = readHeader(channel, path);
+                if (header.states != states || header.actions != actions) {
+                    throw new IOException("Experience log " + path + " has " + header.states + " states x " +
+                        header.actions + " actions, expected " + states + " x " + actions);
+                }
+            }
+            // Drop a partial record left by a crash, so appends stay aligned
+            channel.truncate(HEADER_BYTES + recordCount(channel.size()) * RECORD_BYTES);
+            channel.position(channel.size());
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public synchronized void append(int state, int action, int reward, int nextState) {
+        if (buffer.remaining() < RECORD_BYTES) {
+            flushBuffer();
+        }
+        buffer.putShort((short) state);
+        buffer.putShort((short) (nextState == TERMINAL ? 0xFFFF : nextState));
+        buffer.put((byte) action);
+        buffer.putShort((short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, reward)));
+        appended++;
+    }
+
+    public synchronized void flush() {
+        flushBuffer();
+    }
+
+    private void flushBuffer() {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) channel.write(buffer);
+        } catch (IOException e) {
+            System.err.println("Error writing experience log " + path + ": " + e.getMessage());
+        }
+        buffer.clear();
+    }
+
+    public synchronized long appendedCount() {
+        return appended;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        flushBuffer();
+        channel.close();
+    }
+
+    static long recordCount(long fileSize) {
+        return Math.max(0, fileSize - HEADER_BYTES) / RECORD_BYTES;
+    }
+
+    static Header readHeader(FileChannel channel, Path path) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        channel.read(header, 0);
+        if (header.position() < HEADER_BYTES || header.getInt(0) != MAGIC) {
+            throw new IOException("Not an experience log: " + path);
+        }
+        if (header.getInt(4) != VERSION) {
+            throw new IOException("Unsupported experience log version " + header.getInt(4) + ": " + path);
+        }
+        return new Header(header.getInt(8), header.getInt(12));
+    }
+
+    static class Header {
+        final int states;
+        final int actions;
+
+        Header(int states, int actions) {
+            this.states = states;
+            this.actions = actions;
+        }
+    }
+
+    // Memory-mapped view of a log's complete records, split into chunks below the 2 GB mapping limit
+    public static class Reader implements Closeable {
+        private static final long CHUNK_RECORDS = (1L << 30) / RECORD_BYTES;
+
+        public final int states;
+        public final int actions;
+        private final long records;
+        private final MappedByteBuffer[] chunks;
+        private final FileChannel channel;
+
+        public Reader(Path path) throws IOException {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+            try {
+                Header header = readHeader(channel, path);
+                states = header.states;
+                actions = header.actions;
+                records = recordCount(channel.size());
+                chunks = new MappedByteBuffer[(int) ((records + CHUNK_RECORDS - 1) / CHUNK_RECORDS)];
+                for (int i = 0; i < chunks.length; i++) {
+                    long first = i * CHUNK_RECORDS;
+                    long count = Math.min(CHUNK_RECORDS, records - first);
+                    chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + first * RECORD_BYTES,
+                        count * RECORD_BYTES);
+                }
+            } catch (IOException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        public long size() {
+            return records;
+        }
+
+        public int state(long record) {
+            return chunk(record).getShort(offset(record)) & 0xFFFF;
+        }
+
+        // Next state, or TERMINAL at the end of a trajectory
+        public int nextState(long record) {
+            int next = chunk(record).getShort(offset(record) + 2) & 0xFFFF;
+            return next == 0xFFFF ? TERMINAL : next;
+        }
+
+        public int action(long record) {
+            return chunk(record).get(offset(record) + 4) & 0xFF;
+        }
+
+        public int reward(long record) {
+            return chunk(record).getShort(offset(record) + 5);
+        }
+
+        private MappedByteBuffer chunk(long record) {
+            return chunks[(int) (record / CHUNK_RECORDS)];
+        }
+
+        private static int offset(long record) {
+            return (int) (record % CHUNK_RECORDS) * RECORD_BYTES;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
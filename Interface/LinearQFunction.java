@@ -0,0 +1,297 @@
+import java.util.*;
+
+// Linear Q-function over hashed URL features: Q(url, a) = bias[a] + the mean of w[a] over the
+// URL's other features. phi is binary and sparse, so a dot product is a gather-sum over the URL's
+// feature indices, and every row starts with the bias feature.
+public class LinearQFunction {
+    private static final int DEFAULT_DIMENSION = 1 << 18; // hashed feature slots per action
+    private static final int MAX_TOKENS = 24;             // URL tokens hashed per URL
+    private static final int MAX_DEPTH_FEATURE = 15;
+    private static final int DEFAULT_BATCH_SIZE = 32;
+
+    // Feature namespaces, mixed into the hash so a token never collides with a host by construction
+    private static final int NS_BIAS = 0x62;
+    private static final int NS_HOST = 0x68;
+    private static final int NS_DOMAIN = 0x64;
+    private static final int NS_DEPTH = 0x70;
+    private static final int NS_TOKEN = 0x74;
+    private static final int NS_NUMBER = 0x6e;
+    private static final int NS_STATE = 0x73;
+
+    // Batched dot products: out[i * actions + a] = sum of weights[a * dimension + k] over the features k of row i
+    public interface Kernel {
+        void score(float[] weights, int dimension, int actions, FeatureBatch batch, float[] out);
+    }
+
+    private final int actions;
+    private final int dimension;
+    private final int mask;
+    private final float learningRate;
+    private final float[] weights; // action-major: weights[action * dimension + feature]
+    private final Kernel kernel;
+
+    // Mini-batch of pending updates, guarded by pendingLock; the worker that fills it applies it
+    private final int batchSize;
+    private final Object pendingLock = new Object();
+    private final FeatureBatch pending = new FeatureBatch();
+    private final int[] pendingActions;
+    private final float[] pendingTargets;
+    private final float[] predictions;
+    private long updates = 0;
+
+    public LinearQFunction(int actions, double learningRate) {
+        this(actions, DEFAULT_DIMENSION, learningRate, DEFAULT_BATCH_SIZE, defaultKernel());
+    }
+
+    public LinearQFunction(int actions, int dimension, double learningRate) {
+        this(actions, dimension, learningRate, DEFAULT_BATCH_SIZE, defaultKernel());
+    }
+
+    public LinearQFunction(int actions, int dimension, double learningRate, int batchSize, Kernel kernel) {
+        if (Integer.bitCount(dimension) != 1) {
+            throw new IllegalArgumentException("Dimension must be a power of two: " + dimension);
+        }
+        this.actions = actions;
+        this.dimension = dimension;
+        this.mask = dimension - 1;
+        this.learningRate = (float) learningRate;
+        this.weights = new float[actions * dimension];
+        this.kernel = kernel;
+        this.batchSize = batchSize;
+        this.pendingActions = new int[batchSize];
+        this.pendingTargets = new float[batchSize];
+        this.predictions = new float[batchSize * actions];
+    }
+
+    // The Vector API kernel when it was built (see vector/) and jdk.incubator.vector is
+    // available, otherwise the scalar loop
+    public static Kernel defaultKernel() {
+        try {
+            return (Kernel) Class.forName("VectorLinearKernel").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return new ScalarKernel();
+        }
+    }
+
+    public int actions() {
+        return actions;
+    }
+
+    public int dimension() {
+        return dimension;
+    }
+
+    // Snapshot of the weights; concurrent mini-batches may be partly included
+    public float[] copyWeights() {
+        return weights.clone();
+    }
+
+    public void loadWeights(float[] source) {
+        if (source.length != weights.length) {
+            throw new IllegalArgumentException("Expected " + weights.length + " weights, got " + source.length);
+        }
+        synchronized (pendingLock) {
+            System.arraycopy(source, 0, weights, 0, weights.length);
+        }
+    }
+
+    public String kernelName() {
+        return kernel.getClass().getSimpleName();
+    }
+
+    // Append the hashed features of a URL, plus the crawler's discrete state for it, as a new row
+    public void addFeatures(FeatureBatch batch, String url, int state) {
+        addFeatures(batch, url);
+        batch.addFeature(mix(NS_STATE << 24 ^ state) & mask);
+    }
+
+    // Append the hashed features of a URL as a new row of the batch
+    public void addFeatures(FeatureBatch batch, String url) {
+        batch.beginRow();
+        batch.addFeature(slot(NS_BIAS, url, 0, 0));
+
+        // Locate host and path without allocating
+        int schemeEnd = url.indexOf("://");
+        int hostStart = schemeEnd < 0 ? 0 : schemeEnd + 3;
+        int hostEnd = hostStart;
+        while (hostEnd < url.length() && "/:?#".indexOf(url.charAt(hostEnd)) < 0) hostEnd++;
+        int pathStart = hostEnd;
+        while (pathStart < url.length() && url.charAt(pathStart) != '/' && "?#".indexOf(url.charAt(pathStart)) < 0) {
+            pathStart++; // skip the port
+        }
+
+        // Host, and its last two labels as a stand-in for the site
+        if (hostEnd > hostStart) {
+            batch.addFeature(slot(NS_HOST, url, hostStart, hostEnd));
+            int dot = url.lastIndexOf('.', hostEnd - 1);
+            int domainStart = dot > hostStart ? url.lastIndexOf('.', dot - 1) + 1 : hostStart;
+            batch.addFeature(slot(NS_DOMAIN, url, Math.max(domainStart, hostStart), hostEnd));
+        }
+
+        // Path depth and alphanumeric path/query tokens
+        int depth = 0;
+        int tokens = 0;
+        int tokenStart = -1;
+        boolean numeric = true;
+        int end = url.indexOf('#', pathStart);
+        if (end < 0) end = url.length();
+        for (int i = pathStart; i <= end; i++) {
+            char c = i < end ? url.charAt(i) : '/';
+            if (Character.isLetterOrDigit(c)) {
+                if (tokenStart < 0) {
+                    tokenStart = i;
+                    numeric = true;
+                }
+                numeric &= Character.isDigit(c);
+                continue;
+            }
+            if (tokenStart >= 0 && tokens < MAX_TOKENS) {
+                // Ids and page numbers rarely repeat, so numbers count only by their digit count
+                batch.addFeature(numeric ? mix(NS_NUMBER * 31 + Math.min(i - tokenStart, MAX_DEPTH_FEATURE)) & mask
+                    : slot(NS_TOKEN, url, tokenStart, i));
+                tokens++;
+            }
+            tokenStart = -1;
+            if (c == '/' && i + 1 < end) depth++;
+        }
+        batch.addFeature(mix(NS_DEPTH * 31 + Math.min(depth, MAX_DEPTH_FEATURE)) & mask);
+    }
+
+    // Hash url[start, end) case-insensitively into a feature slot
+    private int slot(int namespace, String url, int start, int end) {
+        int hash = 0x811c9dc5 ^ namespace;
+        for (int i = start; i < end; i++) {
+            hash ^= Character.toLowerCase(url.charAt(i));
+            hash *= 0x01000193;
+        }
+        return mix(hash) & mask;
+    }
+
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        return h ^ (h >>> 16);
+    }
+
+    // Q-values of every row in the batch, out[row * actions + action]
+    public void score(FeatureBatch batch, float[] out) {
+        kernel.score(weights, dimension, actions, batch, out);
+        normalize(batch, out);
+    }
+
+    // The bias carries the value every URL shares, and the other features only how a URL differs
+    // from it: a host or token not seen yet scores the common level, not zero
+    private void normalize(FeatureBatch batch, float[] out) {
+        for (int row = 0; row < batch.rows(); row++) {
+            int from = batch.rowStart(row);
+            float scale = 1f / Math.max(1, batch.rowEnd(row) - from - 1);
+            for (int action = 0; action < actions; action++) {
+                float bias = weights[action * dimension + batch.indices[from]];
+                out[row * actions + action] = bias + (out[row * actions + action] - bias) * scale;
+            }
+        }
+    }
+
+    // Queue one TD example; applied with the rest of its mini-batch
+    public void update(FeatureBatch features, int row, int action, double target) {
+        synchronized (pendingLock) {
+            pendingActions[pending.rows()] = action;
+            pendingTargets[pending.rows()] = (float) target;
+            pending.copyRow(features, row);
+            if (pending.rows() == batchSize) {
+                applyPending();
+            }
+        }
+    }
+
+    // One gradient step per example, with predictions taken before any of the batch is applied.
+    // Readers score concurrently without locking and may see a partly applied batch.
+    private void applyPending() {
+        kernel.score(weights, dimension, actions, pending, predictions);
+        normalize(pending, predictions);
+        for (int row = 0; row < pending.rows(); row++) {
+            int action = pendingActions[row];
+            float error = pendingTargets[row] - predictions[row * actions + action];
+            int from = pending.rowStart(row);
+            int to = pending.rowEnd(row);
+            // The bias and every other weight move by half the step, so Q moves by learningRate * error
+            float step = learningRate * error * 0.5f;
+            int base = action * dimension;
+            for (int k = from; k < to; k++) {
+                weights[base + pending.indices[k]] += step;
+            }
+        }
+        updates += pending.rows();
+        pending.clear();
+    }
+
+    public long updateCount() {
+        synchronized (pendingLock) {
+            return updates;
+        }
+    }
+
+    // Rows of sparse binary feature vectors in CSR form, reused across pages
+    public static class FeatureBatch {
+        int[] indices = new int[256];
+        int[] offsets = new int[33];
+        int rows = 0;
+        int size = 0;
+
+        public int rows() {
+            return rows;
+        }
+
+        public void clear() {
+            rows = 0;
+            size = 0;
+        }
+
+        int rowStart(int row) {
+            return offsets[row];
+        }
+
+        int rowEnd(int row) {
+            return row + 1 < rows ? offsets[row + 1] : size;
+        }
+
+        void beginRow() {
+            if (rows == offsets.length) offsets = Arrays.copyOf(offsets, rows * 2);
+            offsets[rows++] = size;
+        }
+
+        void addFeature(int index) {
+            if (size == indices.length) indices = Arrays.copyOf(indices, size * 2);
+            indices[size++] = index;
+        }
+
+        void copyRow(FeatureBatch from, int row) {
+            beginRow();
+            for (int k = from.rowStart(row); k < from.rowEnd(row); k++) {
+                addFeature(from.indices[k]);
+            }
+        }
+    }
+
+    // Plain loop; also the reference for VectorLinearKernel
+    static class ScalarKernel implements Kernel {
+        @Override
+        public void score(float[] weights, int dimension, int actions, FeatureBatch batch, float[] out) {
+            int[] indices = batch.indices;
+            for (int row = 0; row < batch.rows(); row++) {
+                int from = batch.rowStart(row);
+                int to = batch.rowEnd(row);
+                for (int action = 0; action < actions; action++) {
+                    int base = action * dimension;
+                    float sum = 0;
+                    for (int k = from; k < to; k++) {
+                        sum += weights[base + indices[k]];
+                    }
+                    out[row * actions + action] = sum;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,223 @@
+import java.io.*;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.DoubleAdder;
+
+// Replays experience logs with multi-threaded mini-batch Q-learning and writes a policy snapshot
+public class OfflineTrainer {
+    private static final int DEFAULT_EPOCHS = 10;
+    private static final int DEFAULT_BATCH_SIZE = 256;
+
+    private static final VarHandle Q_VALUE = MethodHandles.arrayElementVarHandle(double[].class);
+
+    private final int states;
+    private final int actions;
+    private final double learningRate;
+    private final double discount;
+    private final double[] qTable;
+    // Visits per state from the loaded snapshot and from the logs, each log counted once. A
+    // snapshot of the crawl that wrote the logs already counts their transitions, so the two
+    // combine by maximum: logs of a different crawl are undercounted, never counted twice.
+    private final int[] loadedVisits;
+    private final int[] loggedVisits;
+    private final Set<ExperienceLog.Reader> countedLogs = Collections.newSetFromMap(new IdentityHashMap<>());
+    private long updates = 0;
+
+    public OfflineTrainer(int states, int actions, double learningRate, double discount) {
+        this.states = states;
+        this.actions = actions;
+        this.learningRate = learningRate;
+        this.discount = discount;
+        this.qTable = new double[states * actions];
+        this.loadedVisits = new int[states];
+        this.loggedVisits = new int[states];
+    }
+
+    // Continue from an existing policy instead of an empty table
+    public void load(QTableSnapshot snapshot) {
+        if (snapshot.states != states || snapshot.actions != actions) {
+            throw new IllegalArgumentException("Snapshot has " + snapshot.states + " states x " + snapshot.actions +
+                " actions, expected " + states + " x " + actions);
+        }
+        System.arraycopy(snapshot.qValues, 0, qTable, 0, qTable.length);
+        System.arraycopy(snapshot.visits, 0, loadedVisits, 0, loadedVisits.length);
+        updates = snapshot.updates;
+    }
+
+    // Train for the given number of epochs, each sampling as many transitions as the logs hold.
+    // Returns the mean absolute TD error of each epoch.
+    public double[] train(List<ExperienceLog.Reader> logs, int epochs, int threads, int batchSize, long seed)
+            throws InterruptedException {
+        long[] firstRecord = new long[logs.size() + 1]; // global record index of each log's first record
+        for (int i = 0; i < logs.size(); i++) {
+            ExperienceLog.Reader log = logs.get(i);
+            if (log.states != states || log.actions != actions) {
+                throw new IllegalArgumentException("Experience log has " + log.states + " states x " + log.actions +
+                    " actions, expected " + states + " x " + actions);
+            }
+            firstRecord[i + 1] = firstRecord[i] + log.size();
+        }
+        long records = firstRecord[logs.size()];
+        double[] epochErrors = new double[epochs];
+        if (records == 0) return epochErrors;
+
+        for (ExperienceLog.Reader log : logs) {
+            if (!countedLogs.add(log)) continue;
+            for (long r = 0; r < log.size(); r++) loggedVisits[log.state(r)]++;
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            long batchesPerThread = Math.max(1, (records + (long) batchSize * threads - 1) / ((long) batchSize * threads));
+            for (int epoch = 0; epoch < epochs; epoch++) {
+                // Targets come from a frozen copy, so every thread bootstraps from the same values this epoch
+                double[] targetTable = qTable.clone();
+                DoubleAdder absError = new DoubleAdder();
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    SplittableRandom random = new SplittableRandom(seed * 1_000_003L + epoch * 1009L + t);
+                    futures.add(pool.submit(() ->
+                        trainShard(logs, firstRecord, targetTable, batchesPerThread, batchSize, random, absError)));
+                }
+                for (Future<?> future : futures) {
+                    try {
+                        future.get();
+                    } catch (ExecutionException e) {
+                        throw new IllegalStateException("Training thread failed", e.getCause());
+                    }
+                }
+                long samples = batchesPerThread * batchSize * threads;
+                updates += samples;
+                epochErrors[epoch] = absError.sum() / samples;
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return epochErrors;
+    }
+
+    // Sample mini-batches uniformly from all logs; each batch's TD errors are averaged per cell before applying
+    private void trainShard(List<ExperienceLog.Reader> logs, long[] firstRecord, double[] targetTable,
+                            long batches, int batchSize, SplittableRandom random, DoubleAdder absError) {
+        long records = firstRecord[logs.size()];
+        double[] errorSum = new double[qTable.length];
+        int[] errorCount = new int[qTable.length];
+        int[] touched = new int[batchSize];
+        double shardError = 0;
+
+        for (long b = 0; b < batches; b++) {
+            int touchedCount = 0;
+            for (int i = 0; i < batchSize; i++) {
+                long global = random.nextLong(records);
+                int logIndex = Arrays.binarySearch(firstRecord, global);
+                if (logIndex < 0) logIndex = -logIndex - 2;
+                while (firstRecord[logIndex + 1] == global) logIndex++; // skip empty logs
+                ExperienceLog.Reader log = logs.get(logIndex);
+                long record = global - firstRecord[logIndex];
+
+                int state = log.state(record);
+                int nextState = log.nextState(record);
+                double target = log.reward(record);
+                if (nextState != ExperienceLog.TERMINAL) {
+                    target += discount * maxValue(targetTable, nextState * actions);
+                }
+
+                int cell = state * actions + log.action(record);
+                double error = target - (double) Q_VALUE.getOpaque(qTable, cell);
+                if (errorCount[cell]++ == 0) touched[touchedCount++] = cell;
+                errorSum[cell] += error;
+                shardError += Math.abs(error);
+            }
+
+            for (int i = 0; i < touchedCount; i++) {
+                int cell = touched[i];
+                double step = learningRate * errorSum[cell] / errorCount[cell];
+                double oldValue;
+                do {
+                    oldValue = (double) Q_VALUE.getVolatile(qTable, cell);
+                } while (!Q_VALUE.compareAndSet(qTable, cell, oldValue, oldValue + step));
+                errorSum[cell] = 0;
+                errorCount[cell] = 0;
+            }
+        }
+        absError.add(shardError);
+    }
+
+    private double maxValue(double[] table, int offset) {
+        double max = table[offset];
+        for (int a = 1; a < actions; a++) max = Math.max(max, table[offset + a]);
+        return max;
+    }
+
+    public QTableSnapshot toSnapshot() {
+        int[] visits = new int[states];
+        for (int s = 0; s < states; s++) visits[s] = Math.max(loadedVisits[s], loggedVisits[s]);
+        return new QTableSnapshot(states, actions, qTable.clone(), visits, 0, null, updates,
+            System.currentTimeMillis());
+    }
+
+    // java OfflineTrainer <out_snapshot> <experience_log>... [--init=<snapshot>] [--epochs=N] [--threads=N] [--batch=N]
+    public static void main(String[] args) throws Exception {
+        Path output = null;
+        Path initial = null;
+        List<Path> logPaths = new ArrayList<>();
+        int epochs = DEFAULT_EPOCHS;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int batchSize = DEFAULT_BATCH_SIZE;
+
+        for (String arg : args) {
+            if (arg.startsWith("--init=")) {
+                initial = Paths.get(arg.substring("--init=".length()));
+            } else if (arg.startsWith("--epochs=")) {
+                epochs = Integer.parseInt(arg.substring("--epochs=".length()));
+            } else if (arg.startsWith("--threads=")) {
+                threads = Integer.parseInt(arg.substring("--threads=".length()));
+            } else if (arg.startsWith("--batch=")) {
+                batchSize = Integer.parseInt(arg.substring("--batch=".length()));
+            } else if (output == null) {
+                output = Paths.get(arg);
+            } else {
+                logPaths.add(Paths.get(arg));
+            }
+        }
+        if (output == null || logPaths.isEmpty()) {
+            System.out.println("Usage: java OfflineTrainer <out_snapshot> <experience_log>... " +
+                               "[--init=<snapshot>] [--epochs=N] [--threads=N] [--batch=N]");
+            System.exit(1);
+        }
+
+        List<ExperienceLog.Reader> logs = new ArrayList<>();
+        try {
+            long records = 0;
+            for (Path path : logPaths) {
+                ExperienceLog.Reader log = new ExperienceLog.Reader(path);
+                logs.add(log);
+                records += log.size();
+            }
+
+            OfflineTrainer trainer = new OfflineTrainer(logs.get(0).states, logs.get(0).actions,
+                RLWebCrawler.LEARNING_RATE, RLWebCrawler.DISCOUNT_FACTOR);
+            if (initial != null) {
+                trainer.load(QTableSnapshot.read(initial));
+            }
+
+            long start = System.nanoTime();
+            double[] errors = trainer.train(logs, epochs, threads, batchSize, 42);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            for (int epoch = 0; epoch < errors.length; epoch++) {
+                System.out.printf("epoch %3d  mean |TD error| %.4f%n", epoch + 1, errors[epoch]);
+            }
+            System.out.printf("%d transitions x %d epochs on %d threads in %.2fs (%.0f transitions/s)%n",
+                records, epochs, threads, seconds, records * epochs / seconds);
+
+            QTableSnapshot.write(output, trainer.toSnapshot());
+            System.out.println("Policy written to " + output);
+        } finally {
+            for (ExperienceLog.Reader log : logs) log.close();
+        }
+    }
+}
@@ -0,0 +1,228 @@
+import java.net.*;
+import java.util.*;
+
+public class PageAnalyzer {
+    private static final int ALPHABET = 128; // keywords are ASCII; other chars reset the automaton
+
+    // Aho-Corasick automaton over the keywords, as a dense transition table
+    private final String[] keywords;
+    private final int[] transitions; // node * ALPHABET + char -> node
+    private final int[][] outputs;   // node -> indices of keywords ending there
+
+    public PageAnalyzer(String... keywords) {
+        this.keywords = keywords.clone();
+
+        // Trie of the keywords
+        List<int[]> children = new ArrayList<>();
+        List<List<Integer>> matches = new ArrayList<>();
+        children.add(newNode());
+        matches.add(new ArrayList<>());
+        for (int k = 0; k < keywords.length; k++) {
+            int node = 0;
+            for (char c : keywords[k].toCharArray()) {
+                if (c >= ALPHABET) {
+                    throw new IllegalArgumentException("Keywords must be ASCII: " + keywords[k]);
+                }
+                if (children.get(node)[c] < 0) {
+                    children.get(node)[c] = children.size();
+                    children.add(newNode());
+                    matches.add(new ArrayList<>());
+                }
+                node = children.get(node)[c];
+            }
+            matches.get(node).add(k);
+        }
+
+        // Breadth-first failure links, folded into a full transition table
+        int nodes = children.size();
+        transitions = new int[nodes * ALPHABET];
+        int[] failure = new int[nodes];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int c = 0; c < ALPHABET; c++) {
+            int child = children.get(0)[c];
+            transitions[c] = Math.max(child, 0);
+            if (child > 0) queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            matches.get(node).addAll(matches.get(failure[node]));
+            for (int c = 0; c < ALPHABET; c++) {
+                int child = children.get(node)[c];
+                if (child > 0) {
+                    failure[child] = transitions[failure[node] * ALPHABET + c];
+                    transitions[node * ALPHABET + c] = child;
+                    queue.add(child);
+                } else {
+                    transitions[node * ALPHABET + c] = transitions[failure[node] * ALPHABET + c];
+                }
+            }
+        }
+
+        outputs = new int[nodes][];
+        for (int node = 0; node < nodes; node++) {
+            outputs[node] = matches.get(node).stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    private static int[] newNode() {
+        int[] node = new int[ALPHABET];
+        Arrays.fill(node, -1);
+        return node;
+    }
+
+    // Analyze a page in one pass: keyword hits, anchor hrefs, and link statistics
+    public PageAnalysis analyze(String htmlContent, String baseUrl) {
+        URL base;
+        try {
+            base = new URL(baseUrl);
+        } catch (MalformedURLException e) {
+            return new PageAnalysis(null, htmlContent.length(), new int[keywords.length], new LinkedHashMap<>());
+        }
+
+        int[] keywordHits = new int[keywords.length];
+        Map<String, UrlRecord> links = new LinkedHashMap<>(); // normalized URL -> parsed link, in page order
+
+        // Tag scanner state, mirroring <a\s+(?:[^>]*?\s+)?href=(["'])(.*?)\1
+        final int TEXT = 0, LT = 1, LT_A = 2, IN_ANCHOR = 3, HREF = 4, VALUE = 5;
+        int tagState = TEXT;
+        int hrefMatched = 0; // chars of "href=" matched after whitespace
+        char quote = 0;
+        int valueStart = 0;
+        char previous = ' ';
+        int node = 0;
+
+        int length = htmlContent.length();
+        for (int i = 0; i < length; i++) {
+            char c = htmlContent.charAt(i);
+
+            // Keywords
+            node = c < ALPHABET ? transitions[node * ALPHABET + c] : 0;
+            for (int k : outputs[node]) keywordHits[k]++;
+
+            // Anchors
+            char lower = Character.toLowerCase(c);
+            switch (tagState) {
+                case TEXT:
+                    if (c == '<') tagState = LT;
+                    break;
+                case LT:
+                    tagState = lower == 'a' ? LT_A : (c == '<' ? LT : TEXT);
+                    break;
+                case LT_A:
+                    tagState = Character.isWhitespace(c) ? IN_ANCHOR : (c == '<' ? LT : TEXT);
+                    hrefMatched = 0;
+                    break;
+                case IN_ANCHOR:
+                    if (c == '>') {
+                        tagState = TEXT;
+                    } else if (hrefMatched == 0) {
+                        if (lower == 'h' && Character.isWhitespace(previous)) hrefMatched = 1;
+                    } else if (lower == "href=".charAt(hrefMatched)) {
+                        if (++hrefMatched == 5) tagState = HREF;
+                    } else {
+                        hrefMatched = lower == 'h' && Character.isWhitespace(previous) ? 1 : 0;
+                    }
+                    break;
+                case HREF:
+                    if (c == '"' || c == '\'') {
+                        quote = c;
+                        valueStart = i + 1;
+                        tagState = VALUE;
+                    } else {
+                        tagState = c == '>' ? TEXT : IN_ANCHOR;
+                        hrefMatched = 0;
+                    }
+                    break;
+                case VALUE:
+                    if (c == quote) {
+                        addLink(base, htmlContent.substring(valueStart, i), links);
+                        tagState = TEXT; // the pattern takes one href per tag
+                    } else if (c == '\n') {
+                        tagState = IN_ANCHOR;
+                        hrefMatched = 0;
+                    }
+                    break;
+            }
+            previous = c;
+        }
+
+        return new PageAnalysis(base.getHost().toLowerCase(Locale.ROOT), length, keywordHits, links);
+    }
+
+    private static void addLink(URL base, String link, Map<String, UrlRecord> links) {
+        // Skip empty links and JavaScript links
+        if (link.isEmpty() || link.startsWith("javascript:")) return;
+
+        try {
+            URL absoluteUrl = new URL(base, link);
+            String normalizedUrl = normalizeUrl(absoluteUrl);
+            boolean web = normalizedUrl.startsWith("http://") || normalizedUrl.startsWith("https://");
+            if (web && !absoluteUrl.getHost().isEmpty()) {
+                // Parsed here, once; the crawler reads host and depth from the record
+                links.computeIfAbsent(normalizedUrl,
+                    u -> new UrlRecord(u, absoluteUrl.getHost(), UrlRecord.pathDepth(absoluteUrl.getPath())));
+            }
+        } catch (MalformedURLException e) {
+            // Skip malformed URLs
+        }
+    }
+
+    // Drop the fragment and common tracking parameters
+    static String normalizeUrl(URL url) {
+        try {
+            String normalized = new URL(
+                url.getProtocol(),
+                url.getHost(),
+                url.getPort(),
+                url.getFile()
+            ).toString();
+
+            normalized = normalized.replaceAll("(?i)[?&](utm_[^&]+|fbclid|gclid)=[^&]*", "");
+            normalized = normalized.replaceAll("([?&])&+", "$1");
+            normalized = normalized.replaceAll("\\?$", "");
+
+            return normalized;
+        } catch (MalformedURLException e) {
+            return url.toString();
+        }
+    }
+
+    // Everything the crawler needs to know about a fetched page
+    public static class PageAnalysis {
+        public final String host;       // null if the page URL was malformed
+        public final int length;
+        public final int[] keywordHits; // per keyword, in constructor order
+        public final Map<String, UrlRecord> links; // normalized outlink -> parsed link, in page order
+        public final int sameHostLinks;
+        public final int distinctHosts;
+
+        PageAnalysis(String host, int length, int[] keywordHits, Map<String, UrlRecord> links) {
+            this.host = host;
+            this.length = length;
+            this.keywordHits = keywordHits;
+            this.links = links;
+
+            // Interned host ids, sorted, so counting hosts allocates one small array
+            int same = 0;
+            int[] hostIds = new int[links.size()];
+            int n = 0;
+            for (UrlRecord link : links.values()) {
+                if (link.host != null && link.host.equals(host)) same++;
+                hostIds[n++] = link.hostId;
+            }
+            Arrays.sort(hostIds);
+            int distinct = 0;
+            for (int i = 0; i < n; i++) {
+                if (i == 0 || hostIds[i] != hostIds[i - 1]) distinct++;
+            }
+            this.sameHostLinks = same;
+            this.distinctHosts = distinct;
+        }
+
+        public int totalKeywordHits() {
+            int total = 0;
+            for (int hits : keywordHits) total += hits;
+            return total;
+        }
+    }
+}
@@ -0,0 +1,5 @@
+// Where RLWebCrawler gets its pages: the live web, or a simulator for training
+public interface PageSource {
+    // The analyzed page at url, or null if it can't be fetched
+    PageAnalyzer.PageAnalysis fetch(String url);
+}
@@ -0,0 +1,117 @@
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.zip.CRC32;
+
+// Learned crawler state on disk: Q-table, per-state visit counts and, optionally, linear weights.
+// Layout (big-endian): header, double[states * actions], int[states], float[actions * linearDimension], CRC32.
+public class QTableSnapshot {
+    static final int MAGIC = 0x524C5153; // "RLQS"
+    static final int VERSION = 1;
+    private static final int HEADER_BYTES = 5 * 4 + 2 * 8;
+
+    public final int states;
+    public final int actions;
+    public final double[] qValues;
+    public final int[] visits;
+    public final int linearDimension;  // 0 when no linear weights are stored
+    public final float[] linearWeights; // null when no linear weights are stored
+    public final long updates;
+    public final long savedAt;
+
+    public QTableSnapshot(int states, int actions, double[] qValues, int[] visits,
+                          int linearDimension, float[] linearWeights, long updates, long savedAt) {
+        if (qValues.length != states * actions || visits.length != states ||
+            (linearWeights == null ? linearDimension != 0 : linearWeights.length != actions * linearDimension)) {
+            throw new IllegalArgumentException("Snapshot arrays don't match " + states + " states x " + actions + " actions");
+        }
+        this.states = states;
+        this.actions = actions;
+        this.qValues = qValues;
+        this.visits = visits;
+        this.linearDimension = linearDimension;
+        this.linearWeights = linearWeights;
+        this.updates = updates;
+        this.savedAt = savedAt;
+    }
+
+    // Write to a temporary file and rename over the target, so readers never see a partial snapshot
+    public static void write(Path path, QTableSnapshot snapshot) throws IOException {
+        int payload = HEADER_BYTES + snapshot.qValues.length * 8 + snapshot.visits.length * 4 +
+            (snapshot.linearWeights == null ? 0 : snapshot.linearWeights.length * 4);
+        ByteBuffer buffer = ByteBuffer.allocate(payload + 4);
+        buffer.putInt(MAGIC).putInt(VERSION)
+              .putInt(snapshot.states).putInt(snapshot.actions).putInt(snapshot.linearDimension)
+              .putLong(snapshot.updates).putLong(snapshot.savedAt);
+        buffer.asDoubleBuffer().put(snapshot.qValues);
+        buffer.position(buffer.position() + snapshot.qValues.length * 8);
+        buffer.asIntBuffer().put(snapshot.visits);
+        buffer.position(buffer.position() + snapshot.visits.length * 4);
+        if (snapshot.linearWeights != null) {
+            buffer.asFloatBuffer().put(snapshot.linearWeights);
+            buffer.position(buffer.position() + snapshot.linearWeights.length * 4);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, payload);
+        buffer.putInt((int) crc.getValue());
+        buffer.flip();
+
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        Path tempPath = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) channel.write(buffer);
+            channel.force(true);
+        }
+        Files.move(tempPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    // Map the file read-only and copy the arrays out in bulk
+    public static QTableSnapshot read(Path path) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES + 4 || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Not a Q-table snapshot: " + path);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a Q-table snapshot: " + path);
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported Q-table snapshot version " + buffer.getInt(4) + ": " + path);
+        }
+        int states = buffer.getInt(8);
+        int actions = buffer.getInt(12);
+        int linearDimension = buffer.getInt(16);
+        long payload = HEADER_BYTES + (long) states * actions * 8 + states * 4L + (long) actions * linearDimension * 4;
+        if (states < 0 || actions < 0 || linearDimension < 0 || payload + 4 != buffer.limit()) {
+            throw new IOException("Truncated Q-table snapshot: " + path);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().limit((int) payload));
+        if ((int) crc.getValue() != buffer.getInt((int) payload)) {
+            throw new IOException("Corrupt Q-table snapshot (checksum mismatch): " + path);
+        }
+
+        long updates = buffer.getLong(20);
+        long savedAt = buffer.getLong(28);
+        double[] qValues = new double[states * actions];
+        int[] visits = new int[states];
+        float[] linearWeights = linearDimension == 0 ? null : new float[actions * linearDimension];
+
+        buffer.position(HEADER_BYTES);
+        buffer.asDoubleBuffer().get(qValues);
+        buffer.position(buffer.position() + qValues.length * 8);
+        buffer.asIntBuffer().get(visits);
+        buffer.position(buffer.position() + visits.length * 4);
+        if (linearWeights != null) {
+            buffer.asFloatBuffer().get(linearWeights);
+        }
+        return new QTableSnapshot(states, actions, qValues, visits, linearDimension, linearWeights, updates, savedAt);
+    }
+}
@@ -0,0 +1,155 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.*;
+
+// URL frontier ordered by the learned value of each URL's state.
+// Scores are refreshed lazily: advanceEpoch() marks every score stale, and stale
+// entries are re-scored in batches as they reach the head instead of re-heapifying.
+public class QValueFrontier {
+    private static final int RESCORE_BATCH = 32;
+
+    // Value estimate for a queued URL, read from the live Q-table
+    public interface Scorer {
+        double score(UrlRecord url, int state);
+    }
+
+    private final Scorer scorer;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+
+    // Guarded by lock
+    private final PriorityQueue<Entry> heap = new PriorityQueue<>();
+    private final Set<String> seen = new HashSet<>(); // every URL ever offered
+    private final List<Entry> stale = new ArrayList<>(RESCORE_BATCH);
+    private long epoch = 0;
+    private long sequence = 0;
+    private long rescored = 0;
+
+    public QValueFrontier(Scorer scorer) {
+        this.scorer = scorer;
+    }
+
+    // Queue a URL unless it has been offered before; only new URLs are scored
+    public boolean offer(UrlRecord url, int state) {
+        lock.lock();
+        try {
+            if (!seen.add(url.url)) return false;
+            heap.add(new Entry(url, state, scorer.score(url, state), epoch, sequence++));
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Queue a URL already scored by the caller, e.g. as part of a batch
+    public boolean offer(UrlRecord url, int state, double score) {
+        lock.lock();
+        try {
+            if (!seen.add(url.url)) return false;
+            heap.add(new Entry(url, state, score, epoch, sequence++));
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Take the highest-valued URL, waiting up to timeout for one to arrive
+    public UrlRecord poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long remaining = unit.toNanos(timeout);
+        lock.lock();
+        try {
+            while (heap.isEmpty()) {
+                if (remaining <= 0) return null;
+                remaining = notEmpty.awaitNanos(remaining);
+            }
+            refreshHead();
+            return heap.poll().url;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Re-score stale entries off the top until the head was scored in the current epoch
+    private void refreshHead() {
+        while (heap.peek().epoch != epoch) {
+            while (stale.size() < RESCORE_BATCH && !heap.isEmpty() && heap.peek().epoch != epoch) {
+                stale.add(heap.poll());
+            }
+            for (Entry entry : stale) {
+                entry.score = scorer.score(entry.url, entry.state);
+                entry.epoch = epoch;
+                heap.add(entry);
+            }
+            rescored += stale.size();
+            stale.clear();
+        }
+    }
+
+    // Called when the Q-table has drifted enough that queued scores should be refreshed
+    public void advanceEpoch() {
+        lock.lock();
+        try {
+            epoch++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Drop every queued and seen URL, e.g. to start a new episode; scoring state is kept
+    public void clear() {
+        lock.lock();
+        try {
+            heap.clear();
+            seen.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return heap.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public long rescoredCount() {
+        lock.lock();
+        try {
+            return rescored;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static class Entry implements Comparable<Entry> {
+        final UrlRecord url;
+        final int state;
+        final long sequence;
+        double score;
+        long epoch;
+
+        Entry(UrlRecord url, int state, double score, long epoch, long sequence) {
+            this.url = url;
+            this.state = state;
+            this.score = score;
+            this.epoch = epoch;
+            this.sequence = sequence;
+        }
+
+        // Highest score first; equal scores in arrival order
+        @Override
+        public int compareTo(Entry other) {
+            int byScore = Double.compare(other.score, score);
+            return byScore != 0 ? byScore : Long.compare(sequence, other.sequence);
+        }
+    }
+}
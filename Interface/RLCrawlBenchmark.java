@@ -0,0 +1,230 @@
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+public class RLCrawlBenchmark {
+    // Benchmark parameters
+    private static final int PAGES = 3000;
+    private static final int[] WORKER_COUNTS = {1, 2, 4, 8};
+    private static final long SEED = 42;
+    private static final int LINKS_PER_PAGE = 64;
+    private static final int WARM_PAGES = 300;
+    private static final int OFFLINE_EPOCHS = 200;
+    private static final int SIMULATED_HOSTS = 5000;
+    private static final int EPISODES = 10;
+    private static final int EPISODE_SEEDS = 64;
+    private static final int EPISODE_STEPS = 20_000; // for steps/s
+    private static final int CURVE_EPISODE_STEPS = 500; // short, so the curve resolves early learning
+
+    // Pages come from a generated web, so runs measure learning rather than the network
+    private static final SimulatedWeb WEB = new SimulatedWeb(SEED, SIMULATED_HOSTS, 2);
+
+    static RLWebCrawler newCrawler(int workers, long seed) {
+        RLWebCrawler crawler = new RLWebCrawler(workers, seed);
+        crawler.setPageSource(WEB);
+        return crawler;
+    }
+
+    public static void main(String[] args) {
+        // Long headless runs for training speed; short episodes from a fresh crawler for how reward
+        // improves as the policy learns
+        System.out.println("simulated web: " + WEB.hostCount() + " hosts, " + EPISODES + " episodes x " +
+            EPISODE_STEPS + " steps (curve: " + CURVE_EPISODE_STEPS + " steps)");
+        System.out.println("workers    steps/s  reward/page per episode");
+        for (int workers : new int[] {1, Runtime.getRuntime().availableProcessors()}) {
+            double rate = runEpisodes(newCrawler(workers, SEED), new double[EPISODES], EPISODE_STEPS);
+            double[] curve = new double[EPISODES];
+            runEpisodes(newCrawler(workers, SEED), curve, CURVE_EPISODE_STEPS);
+            System.out.printf("%7d  %9.0f %s%n", workers, rate, formatCurve(curve));
+            if (Runtime.getRuntime().availableProcessors() == 1) break;
+        }
+        
+        // Same run publishing to an event ring drained at a view's frame rate
+        RLWebCrawler viewed = newCrawler(1, SEED);
+        CrawlEventRing ring = viewed.enableEvents(4096);
+        ScheduledExecutorService renderer = Executors.newSingleThreadScheduledExecutor();
+        renderer.scheduleAtFixedRate(() -> ring.drain((action, kind, reward) -> { }),
+            33, 33, TimeUnit.MILLISECONDS);
+        double viewedRate = runEpisodes(viewed, new double[EPISODES], EPISODE_STEPS);
+        renderer.shutdown();
+        System.out.printf("1+view   %9.0f  (%d events dropped while the renderer lagged)%n",
+            viewedRate, ring.droppedCount());
+        System.out.println();
+
+        System.out.println("workers  pages/s  reward/page  states  agreement-with-1");
+        int[] baseline = null;
+        for (int workers : WORKER_COUNTS) {
+            RLWebCrawler crawler = newCrawler(workers, SEED);
+            long start = System.nanoTime();
+            crawler.crawl(PAGES);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            int[] policy = crawler.greedyPolicy();
+            if (baseline == null) baseline = policy;
+
+            int learned = 0, shared = 0, agree = 0;
+            for (int state = 0; state < policy.length; state++) {
+                if (policy[state] >= 0) learned++;
+                if (policy[state] >= 0 && baseline[state] >= 0) {
+                    shared++;
+                    if (policy[state] == baseline[state]) agree++;
+                }
+            }
+
+            System.out.printf("%7d  %7.0f  %11.3f  %6d  %15.1f%%%n", workers, crawler.pagesCrawled() / seconds,
+                crawler.meanReward(), learned, shared == 0 ? 0.0 : 100.0 * agree / shared);
+        }
+        
+        // Same page budget, fetched in discovery order vs by learned value
+        System.out.println();
+        System.out.println("frontier  reward/page");
+        for (boolean valueOrdered : new boolean[] {false, true}) {
+            RLWebCrawler crawler = newCrawler(1, SEED);
+            crawler.setValueOrdered(valueOrdered);
+            crawler.crawl(PAGES);
+            System.out.printf("%-8s  %11.3f%n", valueOrdered ? "value" : "fifo", crawler.meanReward());
+        }
+        
+        // Tabular vs hashed linear Q-function on the same budget
+        System.out.println();
+        System.out.println("q-function  reward/page");
+        for (boolean linear : new boolean[] {false, true}) {
+            RLWebCrawler crawler = newCrawler(1, SEED);
+            if (linear) crawler.enableLinearApproximation();
+            crawler.crawl(PAGES);
+            System.out.printf("%-10s  %11.3f%n", linear ? "linear" : "table", crawler.meanReward());
+        }
+        
+        // First pages of a fresh crawler, from an empty table vs a snapshot of a full run
+        System.out.println();
+        System.out.println("start  reward/page (first " + WARM_PAGES + ")");
+        try {
+            Path snapshot = Files.createTempFile("rl-benchmark", ".qsnap");
+            Files.delete(snapshot);
+            RLWebCrawler trainer = newCrawler(1, SEED);
+            trainer.enableSnapshots(snapshot, 60_000);
+            trainer.crawl(PAGES);
+            
+            for (boolean warm : new boolean[] {false, true}) {
+                RLWebCrawler crawler = newCrawler(1, SEED + 1);
+                if (warm) crawler.enableSnapshots(snapshot, 60_000);
+                crawler.crawl(WARM_PAGES);
+                System.out.printf("%-5s  %11.3f%n", warm ? "warm" : "cold", crawler.meanReward());
+            }
+            Files.deleteIfExists(snapshot);
+        } catch (IOException e) {
+            System.err.println("Error creating snapshot file: " + e.getMessage());
+        }
+        
+        // Replay a crawl's experience log offline, then warm-start from the trained policy
+        System.out.println();
+        try {
+            Path log = Files.createTempFile("rl-benchmark", ".xlog");
+            Path policy = Files.createTempFile("rl-benchmark", ".qsnap");
+            Files.delete(log);
+            RLWebCrawler logger = newCrawler(4, SEED);
+            logger.enableExperienceLog(log);
+            logger.crawl(PAGES);
+            
+            try (ExperienceLog.Reader reader = new ExperienceLog.Reader(log)) {
+                OfflineTrainer trainer = new OfflineTrainer(reader.states, reader.actions,
+                    RLWebCrawler.LEARNING_RATE, RLWebCrawler.DISCOUNT_FACTOR);
+                int threads = Runtime.getRuntime().availableProcessors();
+                long start = System.nanoTime();
+                double[] errors = trainer.train(List.of(reader), OFFLINE_EPOCHS, threads, 256, SEED);
+                double seconds = (System.nanoTime() - start) / 1e9;
+                System.out.printf("offline: %d transitions x %d epochs on %d threads, %.0f transitions/s, " +
+                    "|TD error| %.3f -> %.3f%n", reader.size(), OFFLINE_EPOCHS, threads,
+                    reader.size() * OFFLINE_EPOCHS / seconds, errors[0], errors[errors.length - 1]);
+                QTableSnapshot.write(policy, trainer.toSnapshot());
+            }
+            
+            RLWebCrawler crawler = newCrawler(1, SEED + 1);
+            crawler.enableSnapshots(policy, 60_000);
+            crawler.crawl(WARM_PAGES);
+            System.out.printf("offline-trained start  reward/page (first %d) %.3f%n", WARM_PAGES, crawler.meanReward());
+            Files.deleteIfExists(log);
+            Files.deleteIfExists(policy);
+        } catch (IOException | InterruptedException e) {
+            System.err.println("Error in offline training run: " + e.getMessage());
+        }
+        
+        // Link scoring throughput on one core, per kernel
+        System.out.println();
+        System.out.println("kernel               links/s (score)  links/s (hash+score)");
+        List<String> links = candidateLinks(LINKS_PER_PAGE * 64);
+        LinearQFunction.Kernel[] kernels = {new LinearQFunction.ScalarKernel(), LinearQFunction.defaultKernel()};
+        for (LinearQFunction.Kernel kernel : kernels) {
+            LinearQFunction q = new LinearQFunction(5, 1 << 18, 0.1, 32, kernel);
+            System.out.printf("%-19s  %15.0f  %20.0f%n", q.kernelName(),
+                scoringRate(q, links, false), scoringRate(q, links, true));
+        }
+    }
+    
+    // Crawl one episode per curve slot with the learned values kept, each from the home pages of
+    // the same random ordinary sites: the good pages never run out, and the crawler has to learn
+    // to find them rather than starting on them. Returns steps/s overall.
+    private static double runEpisodes(RLWebCrawler crawler, double[] curve, int episodeSteps) {
+        Random random = new Random(SEED);
+        List<String> seeds = new ArrayList<>();
+        for (int i = 0; i < EPISODE_SEEDS; i++) {
+            seeds.add(WEB.url(WEB.knownHostCount() + random.nextInt(WEB.hostCount() - WEB.knownHostCount()), 0));
+        }
+        
+        long steps = 0;
+        long start = System.nanoTime();
+        for (int episode = 0; episode < curve.length; episode++) {
+            crawler.resetEpisode(seeds);
+            crawler.crawl(episodeSteps);
+            steps += crawler.pagesCrawled();
+            curve[episode] = crawler.meanReward();
+        }
+        return steps / ((System.nanoTime() - start) / 1e9);
+    }
+    
+    private static String formatCurve(double[] curve) {
+        StringBuilder text = new StringBuilder();
+        for (double reward : curve) text.append(String.format(" %5.2f", reward));
+        return text.toString();
+    }
+    
+    // Links as a page would offer them: mostly on-site, a few off-site
+    private static List<String> candidateLinks(int count) {
+        Random random = new Random(SEED);
+        List<String> links = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            links.add(WEB.url(random.nextInt(WEB.hostCount()), random.nextInt(1000)));
+        }
+        return links;
+    }
+    
+    // Links scored per second, in page-sized batches, optionally re-hashing features each time
+    private static double scoringRate(LinearQFunction q, List<String> links, boolean hash) {
+        List<LinearQFunction.FeatureBatch> pages = new ArrayList<>();
+        for (int start = 0; start < links.size(); start += LINKS_PER_PAGE) {
+            LinearQFunction.FeatureBatch batch = new LinearQFunction.FeatureBatch();
+            for (String link : links.subList(start, start + LINKS_PER_PAGE)) q.addFeatures(batch, link);
+            pages.add(batch);
+        }
+        float[] out = new float[LINKS_PER_PAGE * q.actions()];
+        
+        long scored = 0;
+        long start = System.nanoTime();
+        long deadline = start + 1_000_000_000L;
+        while (System.nanoTime() < deadline) {
+            for (int p = 0; p < pages.size(); p++) {
+                LinearQFunction.FeatureBatch batch = pages.get(p);
+                if (hash) {
+                    batch.clear();
+                    for (String link : links.subList(p * LINKS_PER_PAGE, (p + 1) * LINKS_PER_PAGE)) {
+                        q.addFeatures(batch, link);
+                    }
+                }
+                q.score(batch, out);
+                scored += batch.rows();
+            }
+        }
+        return scored / ((System.nanoTime() - start) / 1e9);
+    }
+}
@@ -1,41 +1,92 @@
 import java.io.*;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.net.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
-import java.util.regex.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.locks.ReentrantLock;
-import javax.swing.*;
-import java.awt.*;
-import java.awt.event.*;
-import java.awt.image.BufferedImage;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
 
-public class RLWebCrawler extends JPanel {
+// Crawler that learns which links to follow; CrawlerView draws it, or it runs headless
+public class RLWebCrawler {
     // RL Parameters
-    private static final double LEARNING_RATE = 0.1;
-    private static final double DISCOUNT_FACTOR = 0.9;
+    static final double LEARNING_RATE = 0.1;
+    static final double DISCOUNT_FACTOR = 0.9;
     private static final double EXPLORATION_RATE = 0.3;
-    private static final int STATE_VECTOR_SIZE = 10;
-    private static final int ACTION_SPACE_SIZE = 5;
+    static final int ACTION_SPACE_SIZE = 5;
     
-    // Q-Table for reinforcement learning
-    private Map<String, double[]> qTable = new ConcurrentHashMap<>();
-    private Random random = new Random();
+    // Crawl parameters
+    private static final int MAX_PAGES = 1000; // Limit to 1000 pages for demo
+    private static final int DEFAULT_WORKERS = 4;
+    private static final long DEFAULT_SEED = 42;
+    private static final int RESCORE_INTERVAL = 50; // Q updates between frontier rescoring epochs
+    private static final double FRONTIER_BONUS = 20.0; // optimism for rarely visited states
     
-    // Minecraft visualization
-    private BufferedImage minecraftView;
-    private int playerX = 0, playerY = 0;
-    private final int BLOCK_SIZE = 32;
-    private final int VIEW_SIZE = 15; // 15x15 grid
+    // Learned state is snapshotted periodically and reloaded on the next launch
+    private static final String DEFAULT_SNAPSHOT_FILE = "rl-crawler.qsnap";
+    private static final String DEFAULT_EXPERIENCE_LOG = "rl-crawler.xlog";
+    private static final long SNAPSHOT_PERIOD_MILLIS = 30 * 1000;
+    
+    // State features and their value ranges; a state packs them into one int
+    private static final int DOMAIN_VALUES = 2;   // valuable domain or not
+    private static final int DEPTH_VALUES = 10;   // path depth, capped at 9
+    private static final int LENGTH_VALUES = 10;  // URL length / 20, capped at 9
+    private static final int KEYWORD_VALUES = 2;  // wiki/documentation in URL
+    private static final int FILE_TYPE_VALUES = 2; // document file
+    private static final int STATE_COUNT = 
+        DOMAIN_VALUES * DEPTH_VALUES * LENGTH_VALUES * KEYWORD_VALUES * FILE_TYPE_VALUES;
+    
+    // Q-Table for reinforcement learning: row per packed state, one column per action.
+    // Updates CAS individual cells, so workers never block each other.
+    private final double[] qTable = new double[STATE_COUNT * ACTION_SPACE_SIZE];
+    private static final VarHandle Q_VALUE = MethodHandles.arrayElementVarHandle(double[].class);
+    
+    // Linear Q-function over hashed URL features; null while the tabular qTable is in use
+    private volatile LinearQFunction linearQ;
+    private final ThreadLocal<LinearScratch> linearScratch = ThreadLocal.withInitial(LinearScratch::new);
+    
+    // Snapshot writer; null until enableSnapshots
+    private Path snapshotFile;
+    private ScheduledExecutorService snapshotWriter;
+    private final Object snapshotLock = new Object();
+    private long lastSnapshotUpdates = -1; // guarded by snapshotLock
+    
+    // Transitions for offline training; null unless enableExperienceLog
+    private ExperienceLog experienceLog;
+    
+    // Crawled pages for a view to render; null when headless
+    private volatile CrawlEventRing events;
     
     // Web crawler components
     private final Set<String> visitedUrls = ConcurrentHashMap.newKeySet();
-    private final BlockingQueue<String> urlQueue = new LinkedBlockingQueue<>();
+    // Frontier ordered by the learned value of each URL's state, refreshed every RESCORE_INTERVAL updates
+    private final QValueFrontier urlQueue = new QValueFrontier(this::frontierScore);
+    private final AtomicInteger qUpdates = new AtomicInteger(0);
+    private final AtomicIntegerArray stateVisits = new AtomicIntegerArray(STATE_COUNT);
+    private volatile boolean valueOrdered = true;
     private final AtomicInteger pageCount = new AtomicInteger(0);
-    private final ReentrantLock qTableLock = new ReentrantLock();
     
-    private static final Pattern LINK_PATTERN = Pattern.compile(
-        "<a\\s+(?:[^>]*?\\s+)?href=([\"'])(.*?)\\1", Pattern.CASE_INSENSITIVE);
+    // Parallel crawling: every worker learns into the shared qTable (Hogwild-style)
+    private final int workers;
+    private final long seed;
+    private final AtomicInteger busyWorkers = new AtomicInteger(0);
+    private final LongAdder totalReward = new LongAdder();
+    
+    // Single-pass page analysis: outlinks plus content-quality keyword hits
+    private static final String[] QUALITY_KEYWORDS = {"research", "study"};
+    private final PageAnalyzer pageAnalyzer = new PageAnalyzer(QUALITY_KEYWORDS);
+    
+    // Pages come from the live web unless a simulator is plugged in
+    private volatile PageSource pageSource = this::fetchAndAnalyze;
+    
+    // Where each crawl starts
+    private volatile List<String> seedUrls = List.of(
+        "https://en.wikipedia.org/wiki/Main_Page", "https://github.com", "https://stackoverflow.com"
+    );
     
     // Domain knowledge for RL
     private Set<String> valuableDomains = new HashSet<>(Arrays.asList(
@@ -50,336 +101,474 @@ public class RLWebCrawler extends JPanel {
     private static final int ACTION_BALANCED_APPROACH = 4;
     
     public RLWebCrawler() {
-        setPreferredSize(new Dimension(VIEW_SIZE * BLOCK_SIZE, VIEW_SIZE * BLOCK_SIZE));
-        minecraftView = new BufferedImage(VIEW_SIZE * BLOCK_SIZE, VIEW_SIZE * BLOCK_SIZE, 
-                                         BufferedImage.TYPE_INT_RGB);
-        initializeMinecraftWorld();
-        
-        // Start the crawler in a separate thread
-        new Thread(this::startCrawling).start();
-        
-        // Start the visualization timer
-        new Timer(100, e -> repaint()).start();
-    }
-    
-    private void initializeMinecraftWorld() {
-        Graphics2D g = minecraftView.createGraphics();
-        
-        // Draw basic terrain
-        for (int x = 0; x < VIEW_SIZE; x++) {
-            for (int y = 0; y < VIEW_SIZE; y++) {
-                if (y > VIEW_SIZE / 2) {
-                    // Stone layer
-                    g.setColor(new Color(100, 100, 100));
-                } else if (y == VIEW_SIZE / 2) {
-                    // Grass layer
-                    g.setColor(new Color(0, 150, 0));
-                } else {
-                    // Sky
-                    g.setColor(new Color(135, 206, 235));
-                }
-                g.fillRect(x * BLOCK_SIZE, y * BLOCK_SIZE, BLOCK_SIZE, BLOCK_SIZE);
-                
-                // Grid lines
-                g.setColor(Color.BLACK);
-                g.drawRect(x * BLOCK_SIZE, y * BLOCK_SIZE, BLOCK_SIZE, BLOCK_SIZE);
-            }
+        this(Paths.get(DEFAULT_SNAPSHOT_FILE), Paths.get(DEFAULT_EXPERIENCE_LOG));
+    }
+    
+    // Warm-start from the snapshot file if present, and keep it up to date while crawling;
+    // every transition is also appended to the experience log for offline training
+    public RLWebCrawler(Path snapshotFile, Path experienceLogFile) {
+        this(DEFAULT_WORKERS, DEFAULT_SEED);
+        enableSnapshots(snapshotFile, SNAPSHOT_PERIOD_MILLIS);
+        enableExperienceLog(experienceLogFile);
+    }
+    
+    // Crawler that has not started yet; worker i draws from a Random seeded by (seed, i)
+    RLWebCrawler(int workers, long seed) {
+        this.workers = workers;
+        this.seed = seed;
+    }
+    
+    // Crawl MAX_PAGES pages in the background
+    public Thread start() {
+        Thread thread = new Thread(this::startCrawling, "rl-crawler");
+        thread.start();
+        return thread;
+    }
+    
+    private void startCrawling() {
+        crawl(MAX_PAGES);
+    }
+    
+    // Crawl until maxPages pages are processed, with all workers sharing the frontier and qTable
+    void crawl(int maxPages) {
+        for (String seedUrl : seedUrls) enqueue(UrlRecord.parse(seedUrl));
+        
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        for (int i = 0; i < workers; i++) {
+            int workerId = i;
+            executor.execute(() -> crawlWorker(workerId, maxPages));
         }
+        executor.shutdown();
         
-        // Add some blocks to represent web pages
-        for (int i = 0; i < 10; i++) {
-            int x = random.nextInt(VIEW_SIZE);
-            int y = random.nextInt(VIEW_SIZE / 2 - 2);
-            g.setColor(new Color(200, 100 + random.nextInt(100), 50));
-            g.fillRect(x * BLOCK_SIZE, y * BLOCK_SIZE, BLOCK_SIZE, BLOCK_SIZE);
-            g.setColor(Color.BLACK);
-            g.drawRect(x * BLOCK_SIZE, y * BLOCK_SIZE, BLOCK_SIZE, BLOCK_SIZE);
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
         }
         
-        g.dispose();
+        if (snapshotFile != null) {
+            snapshotWriter.shutdown();
+            saveSnapshot();
+        }
+        if (experienceLog != null) {
+            experienceLog.flush();
+        }
     }
     
-    @Override
-    protected void paintComponent(Graphics g) {
-        super.paintComponent(g);
-        g.drawImage(minecraftView, 0, 0, this);
+    // Forget the crawl so far but keep what was learned, so the next crawl is a new episode
+    // starting from seedUrls. Call between crawls, not during one.
+    void resetEpisode(List<String> seedUrls) {
+        visitedUrls.clear();
+        urlQueue.clear();
+        pageCount.set(0);
+        totalReward.reset();
+        this.seedUrls = seedUrls;
+    }
+    
+    // Append every learned transition to a log that OfflineTrainer can replay
+    void enableExperienceLog(Path file) {
+        try {
+            experienceLog = new ExperienceLog(file, STATE_COUNT, ACTION_SPACE_SIZE);
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Error opening experience log " + file + ": " + e.getMessage());
+        }
+    }
+    
+    // Load learned state from file if it exists, then rewrite the file every periodMillis
+    void enableSnapshots(Path file, long periodMillis) {
+        snapshotFile = file;
+        if (Files.exists(file)) {
+            try {
+                QTableSnapshot snapshot = QTableSnapshot.read(file);
+                restoreSnapshot(snapshot);
+                System.out.println("Warm start from " + file + ": " + snapshot.updates + " updates");
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("Ignoring Q-table snapshot " + file + ": " + e.getMessage());
+            }
+        }
         
-        // Draw player
-        g.setColor(Color.RED);
-        g.fillRect(playerX * BLOCK_SIZE, playerY * BLOCK_SIZE, BLOCK_SIZE, BLOCK_SIZE);
+        // Workers keep learning while the writer copies the table, so the crawl never pauses
+        snapshotWriter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "qtable-snapshot");
+            t.setDaemon(true);
+            return t;
+        });
+        snapshotWriter.scheduleWithFixedDelay(this::saveSnapshot, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+    
+    // Write the current learned state, unless nothing was learned since the last write
+    void saveSnapshot() {
+        synchronized (snapshotLock) {
+            long updates = qUpdates.get();
+            if (updates == lastSnapshotUpdates) return;
+            
+            int[] visits = new int[STATE_COUNT];
+            for (int i = 0; i < STATE_COUNT; i++) visits[i] = stateVisits.get(i);
+            LinearQFunction linear = linearQ;
+            QTableSnapshot snapshot = new QTableSnapshot(STATE_COUNT, ACTION_SPACE_SIZE, qTable.clone(), visits,
+                linear == null ? 0 : linear.dimension(), linear == null ? null : linear.copyWeights(),
+                updates, System.currentTimeMillis());
+            try {
+                QTableSnapshot.write(snapshotFile, snapshot);
+                lastSnapshotUpdates = updates;
+            } catch (IOException e) {
+                System.err.println("Error writing Q-table snapshot " + snapshotFile + ": " + e.getMessage());
+            }
+        }
+    }
+    
+    private void restoreSnapshot(QTableSnapshot snapshot) {
+        if (snapshot.states != STATE_COUNT || snapshot.actions != ACTION_SPACE_SIZE) {
+            throw new IllegalArgumentException("snapshot has " + snapshot.states + " states x " + snapshot.actions +
+                " actions, expected " + STATE_COUNT + " x " + ACTION_SPACE_SIZE);
+        }
+        System.arraycopy(snapshot.qValues, 0, qTable, 0, qTable.length);
+        for (int i = 0; i < STATE_COUNT; i++) stateVisits.set(i, snapshot.visits[i]);
+        qUpdates.set((int) Math.min(snapshot.updates, Integer.MAX_VALUE));
+        synchronized (snapshotLock) {
+            lastSnapshotUpdates = qUpdates.get();
+        }
         
-        // Draw status information
-        g.setColor(Color.WHITE);
-        g.fillRect(0, 0, 200, 40);
-        g.setColor(Color.BLACK);
-        g.drawString("Pages Crawled: " + pageCount.get(), 10, 15);
-        g.drawString("URLs in Queue: " + urlQueue.size(), 10, 30);
+        // Linear weights from a linear-mode run switch this crawler to linear mode too
+        if (snapshot.linearWeights != null) {
+            linearQ = new LinearQFunction(ACTION_SPACE_SIZE, snapshot.linearDimension, LEARNING_RATE);
+            linearQ.loadWeights(snapshot.linearWeights);
+        }
     }
     
-    private void startCrawling() {
-        // Start with some seed URLs
-        urlQueue.add("https://en.wikipedia.org/wiki/Main_Page");
-        urlQueue.add("https://github.com");
-        urlQueue.add("https://stackoverflow.com");
+    private void crawlWorker(int workerId, int maxPages) {
+        // Per-worker stream so exploration is reproducible for a given seed
+        Random workerRandom = new Random(seed * 31 + workerId);
         
-        while (pageCount.get() < 1000) { // Limit to 1000 pages for demo
+        // This worker's last step, learned from once the state it led to is known
+        Transition previous = null;
+        
+        while (pageCount.get() < maxPages) {
             try {
-                String url = urlQueue.poll(1, TimeUnit.SECONDS);
-                if (url == null) continue;
-                
-                // Choose action based on RL policy
-                int action = chooseAction(url);
-                
-                // Process the URL with the chosen action
-                processUrl(url, action);
+                UrlRecord url = urlQueue.poll(1, TimeUnit.SECONDS);
+                if (url == null) {
+                    // Frontier exhausted and nobody is adding to it
+                    if (busyWorkers.get() == 0 && urlQueue.isEmpty()) break;
+                    continue;
+                }
                 
-                // Update Minecraft visualization
-                updateMinecraftView(url, action);
+                busyWorkers.incrementAndGet();
+                try {
+                    // Choose action based on RL policy
+                    int state = extractState(url);
+                    int action = chooseAction(url, state, workerRandom);
+                    
+                    // Process the URL with the chosen action
+                    Transition step = processUrl(url, state, action, workerRandom);
+                    if (step != null) {
+                        if (previous != null) updateQTable(previous, step);
+                        previous = step;
+                    }
+                } finally {
+                    busyWorkers.decrementAndGet();
+                }
                 
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
                 break;
             }
         }
+        
+        // End of this worker's trajectory
+        if (previous != null) updateQTable(previous, null);
     }
     
-    private int chooseAction(String url) {
-        String state = extractState(url);
-        double[] actionValues = qTable.getOrDefault(state, new double[ACTION_SPACE_SIZE]);
-        
+    private int chooseAction(UrlRecord url, int state, Random workerRandom) {
         // Exploration vs exploitation
-        if (random.nextDouble() < EXPLORATION_RATE) {
-            return random.nextInt(ACTION_SPACE_SIZE);
+        if (workerRandom.nextDouble() < EXPLORATION_RATE) {
+            return workerRandom.nextInt(ACTION_SPACE_SIZE);
+        } else if (linearQ != null) {
+            return argMax(linearValues(url), 0);
         } else {
-            return argMax(actionValues);
+            return argMax(qTable, state * ACTION_SPACE_SIZE);
         }
     }
     
-    private String extractState(String url) {
-        try {
-            URL parsedUrl = new URL(url);
-            String domain = parsedUrl.getHost();
-            
-            // Create a state representation based on URL characteristics
-            StringBuilder state = new StringBuilder();
-            
-            // Domain quality (simplified)
-            state.append(valuableDomains.contains(domain) ? "1" : "0");
-            
-            // URL depth (number of path segments)
-            String path = parsedUrl.getPath();
-            int depth = path.split("/").length - 1;
-            state.append(Math.min(depth, 9)); // Cap at 9
-            
-            // URL length category
-            int length = url.length();
-            state.append(Math.min(length / 20, 9)); // Capped at 9
-            
-            // Contains keywords
-            String lowerUrl = url.toLowerCase();
-            if (lowerUrl.contains("wiki") || lowerUrl.contains("documentation")) state.append("1");
-            else state.append("0");
-            
-            // File type
-            if (url.endsWith(".pdf") || url.endsWith(".doc")) state.append("1");
-            else state.append("0");
-            
-            // Pad with zeros if needed
-            while (state.length() < STATE_VECTOR_SIZE) {
-                state.append("0");
-            }
-            
-            return state.toString();
-        } catch (MalformedURLException e) {
-            return "0000000000"; // Default state for malformed URLs
+    // Pack the URL's features into a state index in [0, STATE_COUNT)
+    private int extractState(UrlRecord url) {
+        if (url.isMalformed()) return 0; // Default state for malformed URLs
+        
+        // Domain quality (simplified)
+        int valuable = isValuable(url) ? 1 : 0;
+        
+        // URL depth (number of path segments)
+        int depth = Math.min(url.depth, DEPTH_VALUES - 1);
+        
+        // URL length category
+        int length = Math.min(url.url.length() / 20, LENGTH_VALUES - 1);
+        
+        // Contains keywords
+        int keyword = containsIgnoreCase(url.url, "wiki") || containsIgnoreCase(url.url, "documentation") ? 1 : 0;
+        
+        // File type
+        int fileType = url.url.endsWith(".pdf") || url.url.endsWith(".doc") ? 1 : 0;
+        
+        return packState(valuable, depth, length, keyword, fileType);
+    }
+    
+    // By registrable domain, so subdomains such as en.wikipedia.org count as wikipedia.org
+    private boolean isValuable(UrlRecord url) {
+        return url.domain != null && valuableDomains.contains(url.domain);
+    }
+    
+    private static int packState(int valuable, int depth, int length, int keyword, int fileType) {
+        return (((valuable * DEPTH_VALUES + depth) * LENGTH_VALUES + length) 
+                * KEYWORD_VALUES + keyword) * FILE_TYPE_VALUES + fileType;
+    }
+    
+    // needle must be lowercase letters first; (c | 0x20) then matches its first char in either case
+    private static boolean containsIgnoreCase(String text, String needle) {
+        char first = needle.charAt(0);
+        for (int i = 0; i <= text.length() - needle.length(); i++) {
+            if ((text.charAt(i) | 0x20) == first && text.regionMatches(true, i, needle, 0, needle.length())) return true;
         }
+        return false;
     }
     
-    private void processUrl(String url, int action) {
-        if (visitedUrls.contains(url)) return;
-        visitedUrls.add(url);
+    // Fetch and learn from one URL; null if it was already visited or could not be fetched
+    private Transition processUrl(UrlRecord url, int state, int action, Random workerRandom) {
+        if (!visitedUrls.add(url.url)) return null;
         
-        String htmlContent = fetchPage(url);
-        if (htmlContent == null) return;
+        PageAnalyzer.PageAnalysis page = pageSource.fetch(url.url);
+        if (page == null) return null;
         
-        int reward = calculateReward(url, htmlContent, action);
-        Set<String> discoveredUrls = extractLinks(htmlContent, url);
+        int reward = calculateReward(url, page, action);
         
-        // Apply action strategy to discovered URLs
-        applyActionStrategy(discoveredUrls, action);
+        // Tell the view, if any; a full ring drops the event rather than slowing the crawl
+        CrawlEventRing ring = events;
+        if (ring != null) {
+            int kind = page.host == null ? CrawlEventRing.PAGE_MALFORMED
+                : isValuable(url) ? CrawlEventRing.PAGE_VALUABLE : CrawlEventRing.PAGE_OTHER;
+            ring.publish(action, kind, reward);
+        }
         
-        // Update Q-table
-        updateQTable(url, action, reward, discoveredUrls.size());
+        // Apply action strategy to discovered URLs
+        List<UrlRecord> discoveredUrls = applyActionStrategy(page, action, workerRandom);
         
+        totalReward.add(reward);
         pageCount.incrementAndGet();
         
         // Add discovered URLs to queue based on strategy
-        for (String discoveredUrl : discoveredUrls) {
-            if (!visitedUrls.contains(discoveredUrl)) {
-                urlQueue.offer(discoveredUrl);
+        if (linearQ != null && valueOrdered) {
+            enqueueScored(discoveredUrls);
+        } else {
+            for (UrlRecord discoveredUrl : discoveredUrls) {
+                if (!visitedUrls.contains(discoveredUrl.url)) {
+                    enqueue(discoveredUrl);
+                }
             }
         }
+        
+        // The Q-table is updated once the worker's next state is known
+        return new Transition(url, state, action, reward);
+    }
+    
+    // Score a page's new links with one batched kernel call, then queue them
+    private void enqueueScored(List<UrlRecord> discoveredUrls) {
+        LinearScratch scratch = linearScratch.get();
+        List<UrlRecord> fresh = scratch.urls;
+        fresh.clear();
+        scratch.links.clear();
+        for (UrlRecord discoveredUrl : discoveredUrls) {
+            if (!visitedUrls.contains(discoveredUrl.url)) {
+                fresh.add(discoveredUrl);
+                linearQ.addFeatures(scratch.links, discoveredUrl.url, extractState(discoveredUrl));
+            }
+        }
+        
+        float[] values = scratch.values(fresh.size() * ACTION_SPACE_SIZE);
+        linearQ.score(scratch.links, values);
+        for (int i = 0; i < fresh.size(); i++) {
+            UrlRecord discoveredUrl = fresh.get(i);
+            int state = extractState(discoveredUrl);
+            urlQueue.offer(discoveredUrl, state, maxValue(values, i * ACTION_SPACE_SIZE) + explorationBonus(state));
+        }
     }
     
-    private int calculateReward(String url, String content, int action) {
+    private int calculateReward(UrlRecord url, PageAnalyzer.PageAnalysis page, int action) {
         int reward = 0;
         
-        try {
-            URL parsedUrl = new URL(url);
-            String domain = parsedUrl.getHost();
-            
-            // Reward for valuable domains
-            if (valuableDomains.contains(domain)) reward += 10;
-            
-            // Reward for content quality (simplified)
-            if (content.length() > 1000) reward += 5;
-            if (content.contains("research") || content.contains("study")) reward += 3;
-            
-            // Reward for discovering many links
-            Set<String> links = extractLinks(content, url);
-            reward += Math.min(links.size() / 5, 5);
-            
-            // Penalty for low-quality content
-            if (content.length() < 200) reward -= 2;
-            
-        } catch (MalformedURLException e) {
-            reward -= 5;
+        if (page.host == null) {
+            return -5;
         }
         
+        // Reward for valuable domains
+        if (isValuable(url)) reward += 10;
+        
+        // Reward for content quality (simplified)
+        if (page.length > 1000) reward += 5;
+        if (page.totalKeywordHits() > 0) reward += 3;
+        
+        // Reward for discovering many links, and for hub pages that reach several sites
+        reward += Math.min(page.links.size() / 5, 5);
+        reward += Math.min(page.distinctHosts / 3, 2);
+        
+        // Penalty for low-quality content
+        if (page.length < 200) reward -= 2;
+        
         return reward;
     }
     
-    private void applyActionStrategy(Set<String> urls, int action) {
-        List<String> urlList = new ArrayList<>(urls);
+    // Select which of the page's outlinks to follow, in page order
+    private List<UrlRecord> applyActionStrategy(PageAnalyzer.PageAnalysis page, int action, Random workerRandom) {
+        List<UrlRecord> urlList = new ArrayList<>(page.links.values());
+        List<UrlRecord> urls = new ArrayList<>();
         
         switch (action) {
             case ACTION_CRAWL_DEEPER:
-                // Prioritize URLs from the same domain
-                urls.clear();
-                for (String u : urlList) {
-                    try {
-                        if (new URL(u).getHost().equals(new URL(urlList.get(0)).getHost())) {
-                            urls.add(u);
+                // Stay on this page's site; a page with no same-host links follows its first link's site
+                if (urlList.isEmpty()) break;
+                if (page.sameHostLinks > 0) {
+                    for (UrlRecord link : urlList) {
+                        if (page.host.equals(link.host)) {
+                            urls.add(link);
+                            if (urls.size() == page.sameHostLinks) break;
                         }
-                    } catch (MalformedURLException e) {
-                        // Skip malformed URLs
+                    }
+                    break;
+                }
+                int firstHost = urlList.get(0).hostId;
+                for (UrlRecord link : urlList) {
+                    if (link.hostId == firstHost) {
+                        urls.add(link);
                     }
                 }
                 break;
                 
             case ACTION_BROADEN_SCOPE:
-                // Prioritize URLs from new domains
-                Set<String> domains = new HashSet<>();
-                urls.clear();
-                for (String u : urlList) {
-                    try {
-                        String domain = new URL(u).getHost();
-                        if (!domains.contains(domain)) {
-                            urls.add(u);
-                            domains.add(domain);
-                        }
-                    } catch (MalformedURLException e) {
-                        // Skip malformed URLs
+                // Prioritize URLs from new domains: the first link to each host, until every host is in
+                Set<Integer> hosts = new HashSet<>(page.distinctHosts * 2);
+                for (UrlRecord link : urlList) {
+                    if (hosts.add(link.hostId)) {
+                        urls.add(link);
+                        if (urls.size() == page.distinctHosts) break;
                     }
                 }
                 break;
                 
             case ACTION_FOCUS_DOMAIN:
                 // Prioritize URLs from valuable domains
-                urls.clear();
-                for (String u : urlList) {
-                    try {
-                        String domain = new URL(u).getHost();
-                        if (valuableDomains.contains(domain)) {
-                            urls.add(u);
-                        }
-                    } catch (MalformedURLException e) {
-                        // Skip malformed URLs
+                for (UrlRecord link : urlList) {
+                    if (isValuable(link)) {
+                        urls.add(link);
                     }
                 }
                 break;
                 
             case ACTION_PRIORITIZE_NEW:
                 // No filtering - keep all URLs
+                urls = urlList;
                 break;
                 
             case ACTION_BALANCED_APPROACH:
                 // Mix of strategies - keep a balanced set
                 if (urlList.size() > 20) {
                     // If too many URLs, sample a diverse set
-                    Collections.shuffle(urlList);
-                    urls.clear();
-                    for (int i = 0; i < Math.min(20, urlList.size()); i++) {
-                        urls.add(urlList.get(i));
-                    }
+                    Collections.shuffle(urlList, workerRandom);
+                    urls = urlList.subList(0, 20);
+                } else {
+                    urls = urlList;
                 }
                 break;
         }
+        return urls;
     }
     
-    private void updateQTable(String url, int action, int reward, int discoveredUrls) {
-        String state = extractState(url);
-        String nextState = state; // Simplified - in reality would be based on next URL
+    // Learn from a step given the step that followed it (null at the end of a trajectory)
+    private void updateQTable(Transition step, Transition next) {
+        int state = step.state;
+        int action = step.action;
+        int reward = step.reward;
         
-        qTableLock.lock();
-        try {
-            double[] actionValues = qTable.getOrDefault(state, new double[ACTION_SPACE_SIZE]);
-            double[] nextActionValues = qTable.getOrDefault(nextState, new double[ACTION_SPACE_SIZE]);
-            
-            // Q-learning update
-            double oldValue = actionValues[action];
-            double nextMax = Arrays.stream(nextActionValues).max().orElse(0);
-            
-            double newValue = oldValue + LEARNING_RATE * 
-                (reward + DISCOUNT_FACTOR * nextMax - oldValue);
-            
-            actionValues[action] = newValue;
-            qTable.put(state, actionValues);
-            
-        } finally {
-            qTableLock.unlock();
+        if (experienceLog != null) {
+            experienceLog.append(state, action, reward, next == null ? ExperienceLog.TERMINAL : next.state);
         }
-    }
-    
-    private void updateMinecraftView(String url, int action) {
-        // Update player position based on crawling activity
-        playerX = (playerX + 1) % VIEW_SIZE;
-        playerY = (playerY + (action % 2 == 0 ? 1 : -1)) % VIEW_SIZE;
-        if (playerY < 0) playerY = VIEW_SIZE - 1;
         
-        // Add a new block to represent the crawled page
-        Graphics2D g = minecraftView.createGraphics();
-        
-        // Determine block color based on action and URL quality
-        Color blockColor;
-        try {
-            URL parsedUrl = new URL(url);
-            String domain = parsedUrl.getHost();
-            
-            if (valuableDomains.contains(domain)) {
-                blockColor = new Color(0, 100 + action * 30, 200); // Blue-green shades
-            } else {
-                blockColor = new Color(150 + action * 20, 100, 50); // Red-orange shades
-            }
-        } catch (MalformedURLException e) {
-            blockColor = Color.GRAY;
+        if (linearQ != null) {
+            // Same TD target, as one example of the approximator's next mini-batch
+            double nextMax = next == null ? 0.0 : maxValue(linearValues(next.url), 0);
+            linearValues(step.url);
+            linearQ.update(linearScratch.get().url, 0, action, reward + DISCOUNT_FACTOR * nextMax);
+            recordUpdate(state);
+            return;
         }
         
-        // Place the block at a random position in the upper part of the world
-        int blockX = random.nextInt(VIEW_SIZE);
-        int blockY = random.nextInt(VIEW_SIZE / 2 - 2);
-        
-        g.setColor(blockColor);
-        g.fillRect(blockX * BLOCK_SIZE, blockY * BLOCK_SIZE, BLOCK_SIZE, BLOCK_SIZE);
-        g.setColor(Color.BLACK);
-        g.drawRect(blockX * BLOCK_SIZE, blockY * BLOCK_SIZE, BLOCK_SIZE, BLOCK_SIZE);
-        
-        g.dispose();
-        
-        repaint();
+        // Q-learning update, retried if another worker changed the cell meanwhile
+        double nextMax = next == null ? 0.0 : maxValue(qTable, next.state * ACTION_SPACE_SIZE);
+        int cell = state * ACTION_SPACE_SIZE + action;
+        double oldValue, newValue;
+        do {
+            oldValue = (double) Q_VALUE.getVolatile(qTable, cell);
+            newValue = oldValue + LEARNING_RATE * 
+                (reward + DISCOUNT_FACTOR * nextMax - oldValue);
+        } while (!Q_VALUE.compareAndSet(qTable, cell, oldValue, newValue));
+        recordUpdate(state);
+    }
+    
+    private void recordUpdate(int state) {
+        stateVisits.incrementAndGet(state);
+        if (qUpdates.incrementAndGet() % RESCORE_INTERVAL == 0) {
+            urlQueue.advanceEpoch();
+        }
+    }
+    
+    private void enqueue(UrlRecord url) {
+        urlQueue.offer(url, extractState(url));
+    }
+    
+    // Frontier priority: the best action value for the URL's state (constant when FIFO)
+    private double frontierScore(UrlRecord url, int state) {
+        if (!valueOrdered) return 0.0;
+        double value = linearQ != null ? maxValue(linearValues(url), 0) : maxValue(qTable, state * ACTION_SPACE_SIZE);
+        return value + explorationBonus(state);
+    }
+    
+    private double explorationBonus(int state) {
+        return FRONTIER_BONUS / Math.sqrt(1 + stateVisits.get(state));
+    }
+    
+    // Approximate Q-values of one URL; valid until this thread's next call
+    private float[] linearValues(UrlRecord url) {
+        LinearScratch scratch = linearScratch.get();
+        scratch.url.clear();
+        linearQ.addFeatures(scratch.url, url.url, extractState(url));
+        float[] values = scratch.values(ACTION_SPACE_SIZE);
+        linearQ.score(scratch.url, values);
+        return values;
+    }
+    
+    // Generalize across URLs with a hashed linear Q-function instead of the state table
+    void enableLinearApproximation() {
+        linearQ = new LinearQFunction(ACTION_SPACE_SIZE, LEARNING_RATE);
+    }
+    
+    String linearKernelName() {
+        return linearQ == null ? null : linearQ.kernelName();
+    }
+    
+    // Fetch in discovery order instead, e.g. as a benchmark baseline
+    void setValueOrdered(boolean valueOrdered) {
+        this.valueOrdered = valueOrdered;
+    }
+    
+    // One pass over the page feeds both the reward and the link strategy
+    private PageAnalyzer.PageAnalysis fetchAndAnalyze(String url) {
+        String htmlContent = fetchPage(url);
+        return htmlContent == null ? null : pageAnalyzer.analyze(htmlContent, url);
+    }
+    
+    // Replace the live web, e.g. with a SimulatedWeb for training
+    void setPageSource(PageSource pageSource) {
+        this.pageSource = pageSource;
     }
     
-    private String fetchPage(String urlString) {
+    protected String fetchPage(String urlString) {
         try {
             URL url = new URL(urlString);
             HttpURLConnection connection = (HttpURLConnection) url.openConnection();
@@ -410,72 +599,129 @@ public class RLWebCrawler extends JPanel {
         }
     }
     
-    private Set<String> extractLinks(String htmlContent, String baseUrl) {
-        Set<String> links = new HashSet<>();
-        Matcher matcher = LINK_PATTERN.matcher(htmlContent);
-        
-        try {
-            URL base = new URL(baseUrl);
-            
-            while (matcher.find()) {
-                String link = matcher.group(2);
-                
-                if (link.isEmpty() || link.startsWith("javascript:")) {
-                    continue;
-                }
-                
-                URL absoluteUrl = new URL(base, link);
-                String normalizedUrl = normalizeUrl(absoluteUrl.toString());
-                
-                if (normalizedUrl.startsWith("http://") || normalizedUrl.startsWith("https://")) {
-                    links.add(normalizedUrl);
-                }
+    // Best action in the table row starting at offset
+    private static int argMax(double[] values, int offset) {
+        int maxIndex = 0;
+        for (int i = 1; i < ACTION_SPACE_SIZE; i++) {
+            if (values[offset + i] > values[offset + maxIndex]) {
+                maxIndex = i;
             }
-        } catch (MalformedURLException e) {
-            // Skip malformed URLs
         }
-        
-        return links;
+        return maxIndex;
     }
     
-    private String normalizeUrl(String urlString) {
-        try {
-            URL url = new URL(urlString);
-            String normalized = new URL(
-                url.getProtocol(), 
-                url.getHost(), 
-                url.getPort(), 
-                url.getFile()
-            ).toString();
-            
-            normalized = normalized.replaceAll("(?i)[?&](utm_[^&]+|fbclid|gclid)=[^&]*", "");
-            normalized = normalized.replaceAll("([?&])&+", "$1");
-            normalized = normalized.replaceAll("\\?$", "");
-            
-            return normalized;
-        } catch (MalformedURLException e) {
-            return urlString;
-        }
+    private static double maxValue(double[] values, int offset) {
+        return values[offset + argMax(values, offset)];
     }
-    
-    private int argMax(double[] values) {
+
+    private static int argMax(float[] values, int offset) {
         int maxIndex = 0;
-        for (int i = 1; i < values.length; i++) {
-            if (values[i] > values[maxIndex]) {
+        for (int i = 1; i < ACTION_SPACE_SIZE; i++) {
+            if (values[offset + i] > values[offset + maxIndex]) {
                 maxIndex = i;
             }
         }
         return maxIndex;
     }
     
+    private static float maxValue(float[] values, int offset) {
+        return values[offset + argMax(values, offset)];
+    }
+    
+    // Publish crawled pages to a ring for a view to drain
+    CrawlEventRing enableEvents(int capacity) {
+        CrawlEventRing ring = new CrawlEventRing(capacity);
+        events = ring;
+        return ring;
+    }
+    
+    // Statistics for views and benchmarks
+    int pagesCrawled() {
+        return pageCount.get();
+    }
+    
+    int queuedUrlCount() {
+        return urlQueue.size();
+    }
+    
+    double meanReward() {
+        int pages = pageCount.get();
+        return pages == 0 ? 0.0 : totalReward.doubleValue() / pages;
+    }
+    
+    // Greedy action per state (-1 for states never updated)
+    int[] greedyPolicy() {
+        int[] policy = new int[STATE_COUNT];
+        for (int state = 0; state < STATE_COUNT; state++) {
+            int offset = state * ACTION_SPACE_SIZE;
+            boolean visited = false;
+            for (int a = 0; a < ACTION_SPACE_SIZE; a++) {
+                if (qTable[offset + a] != 0.0) visited = true;
+            }
+            policy[state] = visited ? argMax(qTable, offset) : -1;
+        }
+        return policy;
+    }
+    
+    // java RLWebCrawler [--headless] [snapshot_file] [experience_log]
     public static void main(String[] args) {
-        SwingUtilities.invokeLater(() -> {
-            JFrame frame = new JFrame("RL Web Crawler with Minecraft Visualization");
-            frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-            frame.getContentPane().add(new RLWebCrawler());
-            frame.pack();
-            frame.setLocationRelativeTo(null);
-            frame.setVisible(true);
+        boolean headless = false;
+        List<String> files = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.equals("--headless")) {
+                headless = true;
+            } else {
+                files.add(arg);
+            }
+        }
+        Path snapshotFile = Paths.get(files.size() > 0 ? files.get(0) : DEFAULT_SNAPSHOT_FILE);
+        Path experienceLogFile = Paths.get(files.size() > 1 ? files.get(1) : DEFAULT_EXPERIENCE_LOG);
+        RLWebCrawler crawler = new RLWebCrawler(snapshotFile, experienceLogFile);
+        
+        if (!headless) {
+            CrawlerView.open(crawler);
+            crawler.start();
+            return;
+        }
+        
+        // No AWT at all: progress goes to stdout
+        ScheduledExecutorService progress = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "crawl-progress");
+            t.setDaemon(true);
+            return t;
         });
+        progress.scheduleAtFixedRate(() -> System.out.println("Pages crawled: " + crawler.pagesCrawled() +
+            ", URLs in queue: " + crawler.queuedUrlCount()), 5, 5, TimeUnit.SECONDS);
+        crawler.crawl(MAX_PAGES);
+        progress.shutdown();
+        System.out.printf("Crawled %d pages, mean reward %.2f%n", crawler.pagesCrawled(), crawler.meanReward());
+    }
+    
+    // One fetched page: its state, the action taken there and the reward it earned
+    private static class Transition {
+        final UrlRecord url;
+        final int state;
+        final int action;
+        final int reward;
+        
+        Transition(UrlRecord url, int state, int action, int reward) {
+            this.url = url;
+            this.state = state;
+            this.action = action;
+            this.reward = reward;
+        }
+    }
+    
+    // Per-thread buffers for linear scoring, so scoring allocates nothing per URL
+    private static class LinearScratch {
+        final LinearQFunction.FeatureBatch url = new LinearQFunction.FeatureBatch();
+        final LinearQFunction.FeatureBatch links = new LinearQFunction.FeatureBatch();
+        final List<UrlRecord> urls = new ArrayList<>();
+        private float[] values = new float[256];
+        
+        float[] values(int size) {
+            if (values.length < size) values = new float[Math.max(size, values.length * 2)];
+            return values;
+        }
     }
-}
\ No newline at end of file
+}
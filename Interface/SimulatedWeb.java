@@ -0,0 +1,159 @@
+import java.util.*;
+
+// Generated web for training without network: hosts with a quality that drives page length,
+// keyword hits and link counts, and a link graph with mostly on-site, popularity-skewed links.
+// Pages are derived from a hash of (seed, host, page), so the graph costs no memory and the
+// same URL always yields the same page.
+public class SimulatedWeb implements PageSource {
+    // Always present: the crawler's seeds and valuable domains
+    private static final String[] KNOWN_HOSTS = {
+        "en.wikipedia.org", "wikipedia.org", "github.com", "stackoverflow.com", "arxiv.org"
+    };
+    private static final String[] SEGMENTS = {
+        "wiki", "docs", "documentation", "blog", "news", "tag", "article", "archive", "about", "2024"
+    };
+    private static final String[] TLDS = {"com", "org", "net", "io"};
+    private static final double SAME_HOST_LINKS = 0.75;
+    private static final double PDF_PAGES = 0.03;
+    private static final int MAX_LINKS = 40;
+    private static final int KNOWN_HOST_RANK = 100; // popularity rank of the first known host
+
+    private final long seed;
+    private final int keywordCount;
+    private final String[] hosts;
+    private final UrlRecord[] homePages;   // parsed once, so links reuse the host, domain and id
+    private final Map<String, Integer> hostIds = new HashMap<>();
+    private final double[] quality;        // in [0, 1]
+    private final int[] pagesPerHost;
+    private final double[] popularityCdf;  // Zipf over hosts, for off-site link targets
+
+    public SimulatedWeb(long seed, int hostCount, int keywordCount) {
+        this.seed = seed;
+        this.keywordCount = keywordCount;
+        int total = Math.max(hostCount, KNOWN_HOSTS.length);
+        hosts = new String[total];
+        homePages = new UrlRecord[total];
+        quality = new double[total];
+        pagesPerHost = new int[total];
+        popularityCdf = new double[total];
+
+        Random random = new Random(seed);
+        double cumulative = 0;
+        for (int i = 0; i < total; i++) {
+            if (i < KNOWN_HOSTS.length) {
+                hosts[i] = KNOWN_HOSTS[i];
+                quality[i] = 0.8 + 0.15 * random.nextDouble();
+            } else {
+                String prefix = random.nextInt(3) == 0 ? "blog." : "www.";
+                hosts[i] = prefix + "site" + i + "." + TLDS[random.nextInt(TLDS.length)];
+                double u = random.nextDouble();
+                quality[i] = u * u; // most sites are poor
+            }
+            hostIds.put(hosts[i], i);
+            homePages[i] = UrlRecord.parse(url(i, 0));
+            pagesPerHost[i] = 10 + (int) (quality[i] * 50_000 * random.nextDouble());
+            // Known hosts are only moderately popular, so a crawl has to learn to find and stay on them
+            int rank = i < KNOWN_HOSTS.length ? KNOWN_HOST_RANK + i : i - KNOWN_HOSTS.length;
+            cumulative += 1.0 / (rank + 1);
+            popularityCdf[i] = cumulative;
+        }
+        for (int i = 0; i < total; i++) popularityCdf[i] /= cumulative;
+    }
+
+    public int hostCount() {
+        return hosts.length;
+    }
+
+    // Hosts 0 until this are the always-present known hosts; the rest are generated
+    public int knownHostCount() {
+        return KNOWN_HOSTS.length;
+    }
+
+    @Override
+    public PageAnalyzer.PageAnalysis fetch(String url) {
+        // https://<host>/<segments>/<page>[.pdf]; a URL without a page number is the home page
+        int hostStart = url.indexOf("://");
+        if (hostStart < 0) return null;
+        hostStart += 3;
+        int hostEnd = url.indexOf('/', hostStart);
+        if (hostEnd < 0) hostEnd = url.length();
+        Integer hostId = hostIds.get(url.substring(hostStart, hostEnd));
+        if (hostId == null) return null;
+        int page = pageNumber(url, hostEnd);
+        if (page >= pagesPerHost[hostId]) return null;
+
+        long h = hash(hostId, page);
+        double q = quality[hostId];
+
+        int length = (int) ((200 + q * 3000) * (0.3 + 1.4 * unit(h, 1)));
+
+        int[] keywordHits = new int[keywordCount];
+        for (int k = 0; k < keywordCount; k++) {
+            if (unit(h, 2 + k) < q * 0.5) keywordHits[k] = 1 + (int) (unit(h, 10 + k) * 4);
+        }
+
+        int linkCount = (int) (q * MAX_LINKS * unit(h, 20)) + (unit(h, 21) < 0.1 ? 0 : 2);
+        Map<String, UrlRecord> links = new LinkedHashMap<>();
+        for (int i = 0; i < linkCount; i++) {
+            long r = mix(h + 0x9E3779B97F4A7C15L * (i + 1));
+            int target = unit(r, 0) < SAME_HOST_LINKS ? hostId : popularHost(unit(r, 1));
+            double u = unit(r, 2);
+            int targetPage = (int) (pagesPerHost[target] * u * u); // low-numbered pages are linked more
+            String link = url(target, targetPage);
+            // The host is known, so only the path needs scanning
+            int pathStart = "https://".length() + hosts[target].length();
+            links.putIfAbsent(link, homePages[target].onSameHost(link, UrlRecord.pathDepth(link, pathStart, link.length())));
+        }
+
+        return new PageAnalyzer.PageAnalysis(hosts[hostId], length, keywordHits, links);
+    }
+
+    // The URL of a page, the same however the page is reached
+    String url(int hostId, int page) {
+        StringBuilder url = new StringBuilder(64).append("https://").append(hosts[hostId]);
+        if (page == 0) return url.append('/').toString();
+
+        long h = hash(hostId, page);
+        int depth = (int) (unit(h, 30) * 4);
+        for (int d = 0; d < depth; d++) {
+            url.append('/').append(SEGMENTS[(int) (unit(h, 31 + d) * SEGMENTS.length)]);
+        }
+        url.append('/').append(page);
+        if (unit(h, 40) < PDF_PAGES) url.append(".pdf");
+        return url.toString();
+    }
+
+    private static int pageNumber(String url, int pathStart) {
+        int end = url.endsWith(".pdf") ? url.length() - 4 : url.length();
+        int start = url.lastIndexOf('/', end - 1) + 1;
+        if (start <= pathStart || start >= end) return 0;
+        int page = 0;
+        for (int i = start; i < end; i++) {
+            char c = url.charAt(i);
+            if (c < '0' || c > '9' || page > Integer.MAX_VALUE / 10 - 1) return 0;
+            page = page * 10 + (c - '0');
+        }
+        return page;
+    }
+
+    private int popularHost(double u) {
+        int index = Arrays.binarySearch(popularityCdf, u);
+        return Math.min(index < 0 ? -index - 1 : index, hosts.length - 1);
+    }
+
+    private long hash(int hostId, int page) {
+        return mix(seed ^ mix(((long) hostId << 32) | page));
+    }
+
+    // Uniform double in [0, 1) for the given salt of a hash
+    private static double unit(long hash, int salt) {
+        return (mix(hash + salt * 0xBF58476D1CE4E5B9L) >>> 11) * 0x1.0p-53;
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,109 @@
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// A URL parsed once, when it is discovered, so the policy loop never parses it again.
+// Hosts are lower-cased and interned to small ids, so per-link host checks compare ints.
+public final class UrlRecord {
+    // Every host seen by any crawler in this JVM
+    private static final Map<String, Integer> HOST_IDS = new ConcurrentHashMap<>();
+    private static final AtomicInteger NEXT_HOST_ID = new AtomicInteger();
+
+    public final String url;
+    public final String host;   // null if the URL was malformed
+    public final String domain; // registrable domain, e.g. wikipedia.org for en.wikipedia.org
+    public final int depth;     // non-empty path segments; 0 for the root
+    public final int hostId;    // -1 if the URL was malformed
+
+    // From parts the caller already has, e.g. a resolved java.net.URL
+    UrlRecord(String url, String host, int depth) {
+        this.url = url;
+        if (host == null || host.isEmpty()) {
+            this.host = null;
+            this.domain = null;
+            this.hostId = -1;
+        } else {
+            this.host = host.toLowerCase(Locale.ROOT);
+            this.domain = registrableDomain(this.host);
+            this.hostId = HOST_IDS.computeIfAbsent(this.host, h -> NEXT_HOST_ID.getAndIncrement());
+        }
+        this.depth = depth;
+    }
+
+    private UrlRecord(UrlRecord site, String url, int depth) {
+        this.url = url;
+        this.host = site.host;
+        this.domain = site.domain;
+        this.hostId = site.hostId;
+        this.depth = depth;
+    }
+
+    // Another URL on this record's host, sharing its parsed host, domain and id
+    UrlRecord onSameHost(String url, int depth) {
+        return new UrlRecord(this, url, depth);
+    }
+
+    // Parse scheme://host[:port][/path][?query][#fragment] by hand, without java.net.URL
+    public static UrlRecord parse(String url) {
+        int schemeEnd = url.indexOf("://");
+        if (schemeEnd <= 0) return new UrlRecord(url, null, 0);
+        for (int i = 0; i < schemeEnd; i++) {
+            char c = url.charAt(i);
+            if (!Character.isLetterOrDigit(c) && c != '+' && c != '-' && c != '.') return new UrlRecord(url, null, 0);
+        }
+
+        int hostStart = schemeEnd + 3;
+        int hostEnd = hostStart;
+        while (hostEnd < url.length() && "/:?#".indexOf(url.charAt(hostEnd)) < 0) hostEnd++;
+        int pathStart = url.indexOf('/', hostEnd);
+        int pathEnd = url.length();
+        for (int i = hostEnd; i < url.length(); i++) {
+            char c = url.charAt(i);
+            if (c == '?' || c == '#') {
+                pathEnd = i;
+                break;
+            }
+        }
+        int depth = pathStart < 0 || pathStart >= pathEnd ? 0 : pathDepth(url, pathStart, pathEnd);
+        return new UrlRecord(url, url.substring(hostStart, hostEnd), depth);
+    }
+
+    // Number of non-empty path segments in text[start, end), so "/" and "" are both 0
+    static int pathDepth(String text, int start, int end) {
+        int segments = 0;
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) != '/' && (i == start || text.charAt(i - 1) == '/')) segments++;
+        }
+        return segments;
+    }
+
+    static int pathDepth(String path) {
+        return pathDepth(path, 0, path.length());
+    }
+
+    // Second-level labels that sit under a country code as a public suffix (example.co.uk, example.com.au).
+    // Other second levels, as in www.web.de, are the registrable domain themselves.
+    private static final Set<String> COUNTRY_SECOND_LEVELS = Set.of("ac", "co", "com", "edu", "gov", "net", "org");
+
+    // Last two labels, or three under a known country-code suffix; IP addresses are their own domain
+    private static String registrableDomain(String host) {
+        int last = host.lastIndexOf('.');
+        if (last <= 0 || Character.isDigit(host.charAt(host.length() - 1)) || host.indexOf(':') >= 0) return host;
+        int second = host.lastIndexOf('.', last - 1);
+        if (second < 0) return host;
+        if (host.length() - last - 1 == 2 && COUNTRY_SECOND_LEVELS.contains(host.substring(second + 1, last))) {
+            int third = host.lastIndexOf('.', second - 1);
+            return third < 0 ? host : host.substring(third + 1);
+        }
+        return host.substring(second + 1);
+    }
+
+    public boolean isMalformed() {
+        return host == null;
+    }
+
+    @Override
+    public String toString() {
+        return url;
+    }
+}
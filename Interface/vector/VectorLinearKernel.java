@@ -0,0 +1,33 @@
+import jdk.incubator.vector.*;
+
+// Gather-sum dot products with the Vector API. Compiled on its own, after the classes it
+// extends, so the crawler builds without the incubator module:
+//   javac --add-modules jdk.incubator.vector -cp <classes> -d <classes> vector/*.java
+// Loaded reflectively by LinearQFunction when run with --add-modules jdk.incubator.vector;
+// without the module, or if this class was not built, the scalar kernel runs.
+public class VectorLinearKernel implements LinearQFunction.Kernel {
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+
+    @Override
+    public void score(float[] weights, int dimension, int actions, LinearQFunction.FeatureBatch batch, float[] out) {
+        int[] indices = batch.indices;
+        int lanes = SPECIES.length();
+        for (int row = 0; row < batch.rows(); row++) {
+            int from = batch.rowStart(row);
+            int to = batch.rowEnd(row);
+            int vectorEnd = from + (to - from) / lanes * lanes;
+            for (int action = 0; action < actions; action++) {
+                int base = action * dimension;
+                FloatVector acc = FloatVector.zero(SPECIES);
+                for (int k = from; k < vectorEnd; k += lanes) {
+                    acc = acc.add(FloatVector.fromArray(SPECIES, weights, base, indices, k));
+                }
+                float sum = acc.reduceLanes(VectorOperators.ADD);
+                for (int k = vectorEnd; k < to; k++) {
+                    sum += weights[base + indices[k]];
+                }
+                out[row * actions + action] = sum;
+            }
+        }
+    }
+}
@@ -0,0 +1,371 @@
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.*;
+
+public class CrawlJobManager implements Closeable {
+    // Scheduling parameters
+    private static final int DEFAULT_FETCH_THREADS = 16;
+    private static final int MAX_IN_FLIGHT_PER_JOB = 2; // keeps one slow site from holding every slot
+    private static final long STRIDE_BASE = 1L << 20;
+
+    public enum JobState { RUNNING, PAUSED, CANCELLED, COMPLETED }
+
+    // Shared by every job
+    private final CrawlResources resources = new CrawlResources();
+    private final ExecutorService fetchers;
+
+    // Job table and scheduler state, guarded by lock
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final Map<Integer, CrawlJob> jobs = new LinkedHashMap<>();
+    private final AtomicInteger nextJobId = new AtomicInteger(1);
+    private long virtualTime = 0; // pass of the most recently scheduled job
+    private long nextReadyAt = 0; // earliest time a job skipped by pickNextJob can go
+    private boolean shutdown = false;
+
+    public CrawlJobManager() {
+        this(DEFAULT_FETCH_THREADS);
+    }
+
+    public CrawlJobManager(int fetchThreads) {
+        fetchers = Executors.newFixedThreadPool(fetchThreads, r -> {
+            Thread t = new Thread(r, "crawl-fetcher");
+            t.setDaemon(true);
+            return t;
+        });
+        for (int i = 0; i < fetchThreads; i++) {
+            fetchers.execute(this::fetchLoop);
+        }
+    }
+
+    // Submit a crawl; weight sets its share of fetch slots relative to other jobs
+    public CrawlJob submit(String name, String startUrl, int maxPages, int weight) {
+        if (weight <= 0) {
+            throw new IllegalArgumentException("Job weight must be positive: " + weight);
+        }
+
+        WebCrawler crawler = new WebCrawler(resources);
+        crawler.seed(startUrl, maxPages);
+
+        lock.lock();
+        try {
+            if (shutdown) {
+                throw new IllegalStateException("Job manager is shut down");
+            }
+            CrawlJob job = new CrawlJob(nextJobId.getAndIncrement(), name, weight, maxPages, crawler);
+            job.pass = virtualTime;
+            jobs.put(job.id, job);
+            changed.signalAll();
+            return job;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean pause(int jobId) {
+        return transition(jobId, JobState.RUNNING, JobState.PAUSED);
+    }
+
+    public boolean resume(int jobId) {
+        lock.lock();
+        try {
+            CrawlJob job = jobs.get(jobId);
+            if (job == null || job.state != JobState.PAUSED) return false;
+            // Don't let a paused job bank credit and then monopolize the pool
+            job.pass = Math.max(job.pass, virtualTime);
+            job.state = JobState.RUNNING;
+            changed.signalAll();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Stop scheduling a job; fetches already in flight are allowed to finish
+    public boolean cancel(int jobId) {
+        lock.lock();
+        try {
+            CrawlJob job = jobs.get(jobId);
+            if (job == null || job.state == JobState.COMPLETED || job.state == JobState.CANCELLED) return false;
+            job.state = JobState.CANCELLED;
+            job.finishedAt = System.currentTimeMillis();
+            changed.signalAll();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean transition(int jobId, JobState from, JobState to) {
+        lock.lock();
+        try {
+            CrawlJob job = jobs.get(jobId);
+            if (job == null || job.state != from) return false;
+            job.state = to;
+            changed.signalAll();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public CrawlJob getJob(int jobId) {
+        lock.lock();
+        try {
+            return jobs.get(jobId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public List<JobStats> getStats() {
+        lock.lock();
+        try {
+            List<JobStats> stats = new ArrayList<>();
+            for (CrawlJob job : jobs.values()) {
+                stats.add(job.statsLocked());
+            }
+            return stats;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public CrawlResources getResources() {
+        return resources;
+    }
+
+    // Wait until no job is running or paused; returns false on timeout
+    public boolean awaitCompletion(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        lock.lock();
+        try {
+            while (hasActiveJobs()) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) return false;
+                changed.awaitNanos(remaining);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean hasActiveJobs() {
+        for (CrawlJob job : jobs.values()) {
+            if (job.state == JobState.RUNNING || job.state == JobState.PAUSED || job.inFlight > 0) return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            shutdown = true;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        fetchers.shutdownNow();
+    }
+
+    // Each fetcher repeatedly takes one URL from the job chosen by the scheduler
+    private void fetchLoop() {
+        while (true) {
+            CrawlJob job;
+            String url;
+            long slot;
+
+            lock.lock();
+            try {
+                while ((job = pickNextJob()) == null) {
+                    if (shutdown) return;
+                    long wait = nextReadyAt > 0 ? nextReadyAt - System.currentTimeMillis() : 1000;
+                    changed.await(Math.max(1, Math.min(wait, 1000)), TimeUnit.MILLISECONDS);
+                }
+                if (shutdown) return;
+                url = job.crawler.pollQueuedUrl();
+                slot = job.crawler.reserveSlot(url);
+                job.inFlight++;
+                virtualTime = job.pass;
+                job.pass += STRIDE_BASE / job.weight;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                job.crawler.processQueuedUrl(url, slot);
+            } catch (Exception e) {
+                System.err.println("Error in job " + job.name + ": " + e.getMessage());
+            } finally {
+                lock.lock();
+                try {
+                    job.inFlight--;
+                    job.fetches++;
+                    updateCompletion(job);
+                    changed.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    // Stride scheduling: the runnable job with the lowest pass goes next. A job whose next
+    // domain is still in its crawl delay is passed over rather than given a fetcher to sleep
+    // in; it keeps its low pass, so it goes first once ready.
+    private CrawlJob pickNextJob() {
+        CrawlJob best = null;
+        long now = System.currentTimeMillis();
+        nextReadyAt = 0;
+        for (CrawlJob job : jobs.values()) {
+            if (job.state != JobState.RUNNING) continue;
+            updateCompletion(job);
+            if (job.state != JobState.RUNNING) continue;
+
+            boolean hasWork = job.crawler.queuedUrlCount() > 0;
+            boolean underBudget = job.crawler.pagesCrawled() + job.inFlight < job.maxPages;
+            if (!hasWork || !underBudget || job.inFlight >= MAX_IN_FLIGHT_PER_JOB) continue;
+
+            long readyAt = job.crawler.nextQueuedReadyAt();
+            if (readyAt > now) {
+                if (nextReadyAt == 0 || readyAt < nextReadyAt) nextReadyAt = readyAt;
+                continue;
+            }
+
+            if (best == null || job.pass < best.pass) {
+                best = job;
+            }
+        }
+        return best;
+    }
+
+    // A job is done when its budget is spent, or its queue is empty with nothing in flight
+    private void updateCompletion(CrawlJob job) {
+        if (job.state != JobState.RUNNING || job.inFlight > 0) return;
+        if (job.crawler.pagesCrawled() >= job.maxPages || job.crawler.queuedUrlCount() == 0) {
+            job.state = JobState.COMPLETED;
+            job.finishedAt = System.currentTimeMillis();
+        }
+    }
+
+    // One crawl inside the shared pool
+    public class CrawlJob {
+        public final int id;
+        public final String name;
+        public final int weight;
+        public final int maxPages;
+        final WebCrawler crawler;
+        final long startedAt = System.currentTimeMillis();
+
+        // Guarded by the manager lock
+        JobState state = JobState.RUNNING;
+        long pass;
+        int inFlight;
+        long fetches;
+        long finishedAt;
+
+        CrawlJob(int id, String name, int weight, int maxPages, WebCrawler crawler) {
+            this.id = id;
+            this.name = name;
+            this.weight = weight;
+            this.maxPages = maxPages;
+            this.crawler = crawler;
+        }
+
+        // The job's crawler, e.g. to enable indexing before pages arrive
+        public WebCrawler getCrawler() {
+            return crawler;
+        }
+
+        public JobStats getStats() {
+            lock.lock();
+            try {
+                return statsLocked();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        JobStats statsLocked() {
+            long end = finishedAt > 0 ? finishedAt : System.currentTimeMillis();
+            return new JobStats(id, name, state, weight, maxPages, crawler.pagesCrawled(),
+                crawler.urlsDiscovered(), crawler.queuedUrlCount(), inFlight, fetches, end - startedAt);
+        }
+    }
+
+    // Point-in-time statistics for a job
+    public static class JobStats {
+        public final int id;
+        public final String name;
+        public final JobState state;
+        public final int weight;
+        public final int maxPages;
+        public final int pagesCrawled;
+        public final int urlsDiscovered;
+        public final int urlsQueued;
+        public final int inFlight;
+        public final long fetchSlotsUsed;
+        public final long elapsedMillis;
+
+        JobStats(int id, String name, JobState state, int weight, int maxPages, int pagesCrawled,
+                 int urlsDiscovered, int urlsQueued, int inFlight, long fetchSlotsUsed, long elapsedMillis) {
+            this.id = id;
+            this.name = name;
+            this.state = state;
+            this.weight = weight;
+            this.maxPages = maxPages;
+            this.pagesCrawled = pagesCrawled;
+            this.urlsDiscovered = urlsDiscovered;
+            this.urlsQueued = urlsQueued;
+            this.inFlight = inFlight;
+            this.fetchSlotsUsed = fetchSlotsUsed;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("#%d %-24s %-9s w=%d pages=%d/%d discovered=%d queued=%d slots=%d %.1fs",
+                id, name, state, weight, pagesCrawled, maxPages, urlsDiscovered, urlsQueued,
+                fetchSlotsUsed, elapsedMillis / 1000.0);
+        }
+    }
+
+    // Run several crawls in one process: java CrawlJobManager <max_pages> <url>[=weight] ...
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length < 2) {
+            System.out.println("Usage: java CrawlJobManager <max_pages_per_job> <url>[=weight] ...");
+            System.exit(1);
+        }
+
+        int maxPages = Integer.parseInt(args[0]);
+        try (CrawlJobManager manager = new CrawlJobManager()) {
+            for (int i = 1; i < args.length; i++) {
+                String spec = args[i];
+                int weight = 1;
+                if (spec.matches(".*=\\d+")) {
+                    int eq = spec.lastIndexOf('=');
+                    weight = Integer.parseInt(spec.substring(eq + 1));
+                    spec = spec.substring(0, eq);
+                }
+                manager.submit(spec, spec, maxPages, weight);
+            }
+
+            while (!manager.awaitCompletion(5, TimeUnit.SECONDS)) {
+                System.out.println("--- Jobs ---");
+                manager.getStats().forEach(System.out::println);
+            }
+
+            System.out.println("\nAll jobs finished");
+            manager.getStats().forEach(System.out::println);
+            System.out.println("Shared DNS entries: " + manager.getResources().cachedHostCount() +
+                              ", robots.txt entries: " + manager.getResources().cachedRobotsCount());
+        }
+    }
+}
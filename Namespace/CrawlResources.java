@@ -0,0 +1,68 @@
+import java.net.*;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+
+public class CrawlResources {
+    // DNS cache lifetimes
+    private static final long DNS_TTL_MILLIS = 10 * 60 * 1000;
+    private static final long DNS_NEGATIVE_TTL_MILLIS = 60 * 1000;
+    private static final int CONNECT_TIMEOUT = 5000;
+
+    // Pooled HTTP connections, reused by every crawler holding these resources
+    final HttpClient httpClient;
+
+    // robots.txt cache and per-domain politeness, so concurrent crawls of a site stay polite together
+    final Set<String> visitedRobotsDomains = ConcurrentHashMap.newKeySet();
+    final Map<String, List<WebCrawler.RobotsRule>> robotsRules = new ConcurrentHashMap<>();
+    final Map<String, Long> lastRequestTime = new ConcurrentHashMap<>();
+
+    // Host -> expiry of the last lookup; resolvable hosts also sit in the JVM's address cache
+    private final Map<String, DnsEntry> dnsCache = new ConcurrentHashMap<>();
+
+    public CrawlResources() {
+        httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofMillis(CONNECT_TIMEOUT))
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+    }
+
+    // Resolve a host once per TTL; failed lookups are remembered so dead hosts cost nothing
+    boolean isResolvable(String host) {
+        long now = System.currentTimeMillis();
+        DnsEntry entry = dnsCache.get(host);
+        if (entry != null && entry.expiresAt > now) {
+            return entry.resolvable;
+        }
+
+        boolean resolvable;
+        try {
+            InetAddress.getAllByName(host);
+            resolvable = true;
+        } catch (UnknownHostException e) {
+            resolvable = false;
+        }
+        dnsCache.put(host, new DnsEntry(resolvable,
+            now + (resolvable ? DNS_TTL_MILLIS : DNS_NEGATIVE_TTL_MILLIS)));
+        return resolvable;
+    }
+
+    public int cachedHostCount() {
+        return dnsCache.size();
+    }
+
+    public int cachedRobotsCount() {
+        return visitedRobotsDomains.size();
+    }
+
+    private static class DnsEntry {
+        final boolean resolvable;
+        final long expiresAt;
+
+        DnsEntry(boolean resolvable, long expiresAt) {
+            this.resolvable = resolvable;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,628 @@
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+public class LinkGraph implements Closeable {
+    // Graph parameters
+    private static final int GRAPH_MAGIC = 0x4C475246; // "LGRF"
+    private static final int PARALLEL_THRESHOLD = 4096; // nodes per fork/join leaf task
+    private static final int SCRATCH_CHUNK_INTS = 1 << 27; // 512 MB per mapped scratch chunk
+    private static final String URLS_FILE = "urls.txt";
+    private static final String EDGES_FILE = "edges.log";
+
+    private final Path graphDir;
+
+    // Dense URL ids (id is the position in urlsById)
+    private final Map<String, Integer> urlIds = new ConcurrentHashMap<>();
+    private final List<String> urlsById = new ArrayList<>();
+    private final BufferedWriter urlsWriter;
+
+    // Append-only edge log: varint source, varint count, gap-encoded sorted targets
+    private final DataOutputStream edgesOut;
+    private final CountingOutputStream edgesCounter;
+    private final long edgesStart; // log bytes when opened
+    private long recordedEdges = 0;
+
+    // Open (or create) a link graph recorder in the given directory
+    public LinkGraph(Path graphDir) throws IOException {
+        this.graphDir = graphDir;
+        Files.createDirectories(graphDir);
+
+        // A crash can leave a partial last URL, which the next append would run into
+        Path urlsPath = graphDir.resolve(URLS_FILE);
+        if (Files.exists(urlsPath)) {
+            truncateAfterLastNewline(urlsPath);
+            try (BufferedReader reader = Files.newBufferedReader(urlsPath, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    urlIds.put(line, urlsById.size());
+                    urlsById.add(line);
+                }
+            }
+        }
+        urlsWriter = Files.newBufferedWriter(urlsPath, StandardCharsets.UTF_8,
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+
+        // Drop a partial record left by a crash, and records naming URLs the table lost, so
+        // appends stay aligned and every record refers to known ids
+        Path edgesPath = graphDir.resolve(EDGES_FILE);
+        edgesStart = Files.exists(edgesPath) ? completeRecordBytes(edgesPath, urlsById.size()) : 0;
+        if (Files.exists(edgesPath)) {
+            try (FileChannel channel = FileChannel.open(edgesPath, StandardOpenOption.WRITE)) {
+                channel.truncate(edgesStart);
+            }
+        }
+        edgesCounter = new CountingOutputStream(new BufferedOutputStream(Files.newOutputStream(
+            edgesPath, StandardOpenOption.CREATE, StandardOpenOption.APPEND)));
+        edgesOut = new DataOutputStream(edgesCounter);
+    }
+
+    private static void truncateAfterLastNewline(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long end = channel.size();
+            ByteBuffer one = ByteBuffer.allocate(1);
+            while (end > 0) {
+                one.clear();
+                channel.read(one, end - 1);
+                if (one.get(0) == '\n') break;
+                end--;
+            }
+            channel.truncate(end);
+        }
+    }
+
+    // Length of the log's leading run of whole records whose ids are all below nodes
+    private static long completeRecordBytes(Path path, int nodes) throws IOException {
+        long complete = 0;
+        try (CountingInputStream counter = new CountingInputStream(openLog(path));
+             DataInputStream in = new DataInputStream(counter)) {
+            while (true) {
+                int source = readVarInt(in);
+                int count = readVarInt(in);
+                boolean known = source < nodes;
+                int target = 0;
+                for (int i = 0; i < count; i++) {
+                    target += readVarInt(in);
+                    known &= target < nodes;
+                }
+                if (!known) break;
+                complete = counter.count;
+            }
+        } catch (EOFException e) {
+            // Partial record at the end
+        }
+        return complete;
+    }
+
+    // Dense integer id for a URL, assigned on first sight
+    public int idFor(String url) {
+        Integer id = urlIds.get(url);
+        if (id != null) return id;
+
+        synchronized (this) {
+            id = urlIds.get(url);
+            if (id != null) return id;
+
+            id = urlsById.size();
+            urlsById.add(url);
+            try {
+                urlsWriter.write(url);
+                urlsWriter.newLine();
+            } catch (IOException e) {
+                System.err.println("Error writing URL table: " + e.getMessage());
+            }
+            urlIds.put(url, id);
+            return id;
+        }
+    }
+
+    // URL for a dense id
+    public synchronized String urlFor(int id) {
+        return urlsById.get(id);
+    }
+
+    public synchronized int nodeCount() {
+        return urlsById.size();
+    }
+
+    // Record the full outlink set of a crawled page
+    public void recordLinks(String sourceUrl, Collection<String> targetUrls) {
+        int source = idFor(sourceUrl);
+        int[] targets = new int[targetUrls.size()];
+        int count = 0;
+        for (String target : targetUrls) {
+            targets[count++] = idFor(target);
+        }
+        Arrays.sort(targets, 0, count);
+        count = dedupeSorted(targets, count);
+
+        synchronized (edgesOut) {
+            try {
+                writeVarInt(edgesOut, source);
+                writeVarInt(edgesOut, count);
+                int previous = 0;
+                for (int i = 0; i < count; i++) {
+                    writeVarInt(edgesOut, targets[i] - previous);
+                    previous = targets[i];
+                }
+                recordedEdges += count;
+            } catch (IOException e) {
+                System.err.println("Error writing link graph: " + e.getMessage());
+            }
+        }
+    }
+
+    public long recordedEdgeCount() {
+        synchronized (edgesOut) {
+            return recordedEdges;
+        }
+    }
+
+    // Flush the logs and build forward and reverse CSR files from them
+    public CsrGraph buildCsr() throws IOException {
+        // Ids are assigned before the records naming them are written, so with the log's length
+        // taken first, every record in it refers to ids below nodes. Pages recorded later are
+        // left for the next build.
+        int nodes;
+        long logBytes;
+        synchronized (edgesOut) {
+            edgesOut.flush();
+            logBytes = edgesStart + edgesCounter.count;
+            synchronized (this) {
+                urlsWriter.flush();
+                nodes = urlsById.size();
+            }
+        }
+
+        Path edgesPath = graphDir.resolve(EDGES_FILE);
+        Path scratchPath = graphDir.resolve("scratch.tmp");
+
+        // Pass 1: out-degree per source (a page recorded twice keeps the union of its links)
+        long[] slots = new long[nodes + 1];
+        long totalEdges = 0;
+        try (CountingInputStream counter = new CountingInputStream(openLog(edgesPath));
+             DataInputStream in = new DataInputStream(counter)) {
+            while (counter.count < logBytes) {
+                int source = readVarInt(in);
+                int count = readVarInt(in);
+                for (int i = 0; i < count; i++) readVarInt(in);
+                slots[source + 1] += count;
+                totalEdges += count;
+            }
+        }
+        for (int i = 0; i < nodes; i++) slots[i + 1] += slots[i];
+
+        // Pass 2: scatter targets into a memory-mapped scratch area grouped by source
+        try (IntScratch scratch = new IntScratch(scratchPath, totalEdges)) {
+            long[] fill = Arrays.copyOf(slots, nodes);
+            try (CountingInputStream counter = new CountingInputStream(openLog(edgesPath));
+                 DataInputStream in = new DataInputStream(counter)) {
+                while (counter.count < logBytes) {
+                    int source = readVarInt(in);
+                    int count = readVarInt(in);
+                    int target = 0;
+                    for (int i = 0; i < count; i++) {
+                        target += readVarInt(in);
+                        scratch.set(fill[source]++, target);
+                    }
+                }
+            }
+            writeAdjacency(graphDir.resolve("forward"), scratch, slots, nodes);
+        }
+
+        // Reverse graph from the forward one, so in-links never have to sit in heap
+        Adjacency forward = CsrGraph.open(graphDir.resolve("forward"));
+        long[] reverseSlots = new long[nodes + 1];
+        int[] neighbors = new int[16];
+        for (int node = 0; node < nodes; node++) {
+            neighbors = forward.neighbors(node, neighbors);
+            for (int i = 0; i < forward.degree(node); i++) reverseSlots[neighbors[i] + 1]++;
+        }
+        for (int i = 0; i < nodes; i++) reverseSlots[i + 1] += reverseSlots[i];
+
+        try (IntScratch scratch = new IntScratch(scratchPath, reverseSlots[nodes])) {
+            long[] fill = Arrays.copyOf(reverseSlots, nodes);
+            for (int node = 0; node < nodes; node++) {
+                neighbors = forward.neighbors(node, neighbors);
+                for (int i = 0; i < forward.degree(node); i++) {
+                    scratch.set(fill[neighbors[i]]++, node);
+                }
+            }
+            writeAdjacency(graphDir.resolve("reverse"), scratch, reverseSlots, nodes);
+        }
+        Files.deleteIfExists(scratchPath);
+
+        return new CsrGraph(forward, CsrGraph.open(graphDir.resolve("reverse")));
+    }
+
+    // Sort, dedupe and gap-encode each node's slice; offsets go to <base>.off, bytes to <base>.adj
+    private static void writeAdjacency(Path base, IntScratch scratch, long[] slots, int nodes) throws IOException {
+        Path adjPath = base.resolveSibling(base.getFileName() + ".adj");
+        Path offPath = base.resolveSibling(base.getFileName() + ".off");
+        int[] slice = new int[16];
+
+        try (CountingOutputStream adj = new CountingOutputStream(new BufferedOutputStream(Files.newOutputStream(adjPath)));
+             DataOutputStream off = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(offPath)))) {
+            off.writeInt(GRAPH_MAGIC);
+            off.writeInt(nodes);
+            for (int node = 0; node < nodes; node++) {
+                int length = (int) (slots[node + 1] - slots[node]);
+                if (slice.length < length) slice = new int[Math.max(length, slice.length * 2)];
+                for (int i = 0; i < length; i++) slice[i] = scratch.get(slots[node] + i);
+                Arrays.sort(slice, 0, length);
+                length = dedupeSorted(slice, length);
+
+                off.writeLong(adj.count);
+                off.writeInt(length);
+                int previous = 0;
+                for (int i = 0; i < length; i++) {
+                    writeVarInt(adj, slice[i] - previous);
+                    previous = slice[i];
+                }
+            }
+            off.writeLong(adj.count);
+        }
+    }
+
+    private static DataInputStream openLog(Path path) throws IOException {
+        return new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16));
+    }
+
+    private static int dedupeSorted(int[] values, int length) {
+        if (length == 0) return 0;
+        int unique = 1;
+        for (int i = 1; i < length; i++) {
+            if (values[i] != values[unique - 1]) values[unique++] = values[i];
+        }
+        return unique;
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            urlsWriter.close();
+        }
+        synchronized (edgesOut) {
+            edgesOut.close();
+        }
+    }
+
+    // Varint encoding helpers
+    private static void writeVarInt(OutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private static int readVarInt(ByteBuffer buffer) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    // Output stream that tracks how many bytes were written
+    private static class CountingOutputStream extends FilterOutputStream {
+        long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+    }
+
+    // Input stream that tracks how many bytes were read
+    private static class CountingInputStream extends FilterInputStream {
+        long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b >= 0) count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = in.read(buffer, offset, length);
+            if (n > 0) count += n;
+            return n;
+        }
+    }
+
+    // Large int array backed by a memory-mapped temporary file
+    private static class IntScratch implements Closeable {
+        private final FileChannel channel;
+        private final MappedByteBuffer[] chunks;
+
+        IntScratch(Path path, long length) throws IOException {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+            int chunkCount = (int) ((length + SCRATCH_CHUNK_INTS - 1) / SCRATCH_CHUNK_INTS);
+            chunks = new MappedByteBuffer[chunkCount];
+            for (int i = 0; i < chunkCount; i++) {
+                long ints = Math.min(SCRATCH_CHUNK_INTS, length - (long) i * SCRATCH_CHUNK_INTS);
+                chunks[i] = channel.map(FileChannel.MapMode.READ_WRITE, (long) i * SCRATCH_CHUNK_INTS * 4, ints * 4);
+            }
+        }
+
+        void set(long index, int value) {
+            chunks[(int) (index / SCRATCH_CHUNK_INTS)].putInt((int) (index % SCRATCH_CHUNK_INTS) * 4, value);
+        }
+
+        int get(long index) {
+            return chunks[(int) (index / SCRATCH_CHUNK_INTS)].getInt((int) (index % SCRATCH_CHUNK_INTS) * 4);
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    // One direction of a compressed sparse row graph, adjacency read through a mapping
+    static class Adjacency {
+        final int nodes;
+        final long[] offsets;
+        final int[] degrees;
+        final MappedByteBuffer bytes;
+
+        private Adjacency(int nodes, long[] offsets, int[] degrees, MappedByteBuffer bytes) {
+            this.nodes = nodes;
+            this.offsets = offsets;
+            this.degrees = degrees;
+            this.bytes = bytes;
+        }
+
+        int degree(int node) {
+            return degrees[node];
+        }
+
+        // Decode a node's neighbors into the given array (grown if needed)
+        int[] neighbors(int node, int[] into) {
+            int degree = degrees[node];
+            if (into.length < degree) into = new int[Math.max(degree, into.length * 2)];
+            ByteBuffer view = bytes.duplicate();
+            view.position((int) offsets[node]);
+            int value = 0;
+            for (int i = 0; i < degree; i++) {
+                value += readVarInt(view);
+                into[i] = value;
+            }
+            return into;
+        }
+    }
+
+    // Forward and reverse adjacency of the crawled link graph
+    public static class CsrGraph {
+        public final Adjacency out;
+        public final Adjacency in;
+
+        CsrGraph(Adjacency out, Adjacency in) {
+            this.out = out;
+            this.in = in;
+        }
+
+        public int nodeCount() {
+            return out.nodes;
+        }
+
+        public long edgeCount() {
+            return Arrays.stream(out.degrees).asLongStream().sum();
+        }
+
+        static Adjacency open(Path base) throws IOException {
+            Path adjPath = base.resolveSibling(base.getFileName() + ".adj");
+            Path offPath = base.resolveSibling(base.getFileName() + ".off");
+
+            long[] offsets;
+            int[] degrees;
+            try (DataInputStream off = openLog(offPath)) {
+                if (off.readInt() != GRAPH_MAGIC) {
+                    throw new IOException("Not a link graph offset file: " + offPath);
+                }
+                int nodes = off.readInt();
+                offsets = new long[nodes + 1];
+                degrees = new int[nodes];
+                for (int node = 0; node < nodes; node++) {
+                    offsets[node] = off.readLong();
+                    degrees[node] = off.readInt();
+                }
+                offsets[nodes] = off.readLong();
+            }
+
+            try (FileChannel channel = FileChannel.open(adjPath, StandardOpenOption.READ)) {
+                if (channel.size() > Integer.MAX_VALUE) {
+                    throw new IOException("Adjacency file too large to map: " + adjPath);
+                }
+                return new Adjacency(degrees.length, offsets, degrees,
+                    channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            }
+        }
+    }
+
+    // Parallel PageRank over in-links (pull style, so no write contention)
+    public static double[] pageRank(CsrGraph graph, double damping, int maxIterations, double tolerance) {
+        int n = graph.nodeCount();
+        if (n == 0) return new double[0];
+
+        double[] rank = new double[n];
+        double[] next = new double[n];
+        Arrays.fill(rank, 1.0 / n);
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+
+        for (int iteration = 0; iteration < maxIterations; iteration++) {
+            // Rank held by pages without outlinks is spread over every page
+            final double[] current = rank;
+            double dangling = pool.invoke(new RangeSum(0, n, node ->
+                graph.out.degree(node) == 0 ? current[node] : 0.0));
+            double base = (1.0 - damping) / n + damping * dangling / n;
+
+            final double[] target = next;
+            double delta = pool.invoke(new RangeSum(0, n, (node, scratch) -> {
+                int degree = graph.in.degree(node);
+                int[] sources = graph.in.neighbors(node, scratch[0]);
+                scratch[0] = sources;
+                double sum = 0.0;
+                for (int i = 0; i < degree; i++) {
+                    sum += current[sources[i]] / graph.out.degree(sources[i]);
+                }
+                target[node] = base + damping * sum;
+                return Math.abs(target[node] - current[node]);
+            }));
+
+            next = rank;
+            rank = target;
+            if (delta < tolerance) break;
+        }
+        return rank;
+    }
+
+    // Parallel HITS; returns {authority, hub}
+    public static double[][] hits(CsrGraph graph, int maxIterations, double tolerance) {
+        int n = graph.nodeCount();
+        double[] authority = new double[n];
+        double[] hub = new double[n];
+        Arrays.fill(authority, 1.0);
+        Arrays.fill(hub, 1.0);
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+
+        for (int iteration = 0; iteration < maxIterations && n > 0; iteration++) {
+            final double[] oldAuthority = authority.clone();
+            final double[] newAuthority = authority;
+            final double[] newHub = hub;
+
+            // Authority: sum of hub scores of pages linking in
+            double authNorm = Math.sqrt(pool.invoke(new RangeSum(0, n, (node, scratch) -> {
+                int degree = graph.in.degree(node);
+                int[] sources = graph.in.neighbors(node, scratch[0]);
+                scratch[0] = sources;
+                double sum = 0.0;
+                for (int i = 0; i < degree; i++) sum += newHub[sources[i]];
+                newAuthority[node] = sum;
+                return sum * sum;
+            })));
+            if (authNorm > 0) pool.invoke(new RangeSum(0, n, node -> { newAuthority[node] /= authNorm; return 0.0; }));
+
+            // Hub: sum of authority scores of pages linked to
+            double hubNorm = Math.sqrt(pool.invoke(new RangeSum(0, n, (node, scratch) -> {
+                int degree = graph.out.degree(node);
+                int[] targets = graph.out.neighbors(node, scratch[0]);
+                scratch[0] = targets;
+                double sum = 0.0;
+                for (int i = 0; i < degree; i++) sum += newAuthority[targets[i]];
+                newHub[node] = sum;
+                return sum * sum;
+            })));
+            if (hubNorm > 0) pool.invoke(new RangeSum(0, n, node -> { newHub[node] /= hubNorm; return 0.0; }));
+
+            double delta = pool.invoke(new RangeSum(0, n, node -> Math.abs(newAuthority[node] - oldAuthority[node])));
+            if (delta < tolerance) break;
+        }
+        return new double[][] {authority, hub};
+    }
+
+    // Per-node work that returns a value to be summed
+    interface NodeFunction {
+        double apply(int node);
+    }
+
+    // Per-node work that may reuse a neighbor buffer owned by its leaf task
+    interface BufferedNodeFunction {
+        double apply(int node, int[][] scratch);
+    }
+
+    // Fork/join sum of a per-node function over a node range
+    // Never serialized; ForkJoinTask is Serializable only by inheritance
+    private static class RangeSum extends RecursiveTask<Double> {
+        private static final long serialVersionUID = 1L;
+        private final int from, to;
+        private final BufferedNodeFunction function;
+
+        RangeSum(int from, int to, NodeFunction function) {
+            this(from, to, (node, scratch) -> function.apply(node));
+        }
+
+        RangeSum(int from, int to, BufferedNodeFunction function) {
+            this.from = from;
+            this.to = to;
+            this.function = function;
+        }
+
+        @Override
+        protected Double compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                int[][] scratch = {new int[16]};
+                double sum = 0.0;
+                for (int node = from; node < to; node++) {
+                    sum += function.apply(node, scratch);
+                }
+                return sum;
+            }
+            int mid = (from + to) >>> 1;
+            RangeSum left = new RangeSum(from, mid, function);
+            left.fork();
+            double right = new RangeSum(mid, to, function).compute();
+            return left.join() + right;
+        }
+    }
+
+    // Build the CSR files for a recorded graph and print the top pages by PageRank
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: java LinkGraph <graph_dir> [top_n]");
+            System.exit(1);
+        }
+        int top = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        try (LinkGraph recorder = new LinkGraph(Paths.get(args[0]))) {
+            long start = System.currentTimeMillis();
+            CsrGraph graph = recorder.buildCsr();
+            System.out.println("Built CSR graph: " + graph.nodeCount() + " nodes, " +
+                              graph.edgeCount() + " edges in " + (System.currentTimeMillis() - start) + " ms");
+
+            start = System.currentTimeMillis();
+            double[] rank = pageRank(graph, 0.85, 50, 1e-6);
+            System.out.println("PageRank computed in " + (System.currentTimeMillis() - start) + " ms");
+
+            Integer[] order = new Integer[rank.length];
+            for (int i = 0; i < order.length; i++) order[i] = i;
+            Arrays.sort(order, (a, b) -> Double.compare(rank[b], rank[a]));
+            for (int i = 0; i < Math.min(top, order.length); i++) {
+                System.out.printf("%.6f  %s%n", rank[order[i]], recorder.urlFor(order[i]));
+            }
+        }
+    }
+}
@@ -0,0 +1,706 @@
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+public class PageIndexer implements Closeable {
+    // Index parameters
+    private static final int SEGMENT_MAGIC = 0x50494458; // "PIDX"
+    private static final int FLUSH_THRESHOLD = 500; // documents buffered before writing a segment
+    private static final int MERGE_FACTOR = 4; // segments of the same level merged together
+    private static final long MAX_SEGMENT_BYTES = Integer.MAX_VALUE / 2; // keep segments mappable
+    private static final int TITLE_BOOST = 3;
+    private static final int MIN_TOKEN_LENGTH = 2;
+    private static final int MAX_TOKEN_LENGTH = 32;
+    private static final String DOCS_FILE = "docs.tsv";
+
+    private final Path indexDir;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ExecutorService background = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "page-indexer");
+        t.setDaemon(true);
+        return t;
+    });
+    private final AtomicInteger segmentSequence = new AtomicInteger(0);
+
+    // Document table (docId is the position in these lists); docs.tsv holds docId, url, title
+    private final List<String> docUrls = new ArrayList<>();
+    private final List<String> docTitles = new ArrayList<>();
+    private final BufferedWriter docsWriter;
+
+    // Postings not yet on disk, and the segments that are
+    private BufferedSegment active;
+    private final List<BufferedSegment> flushing = new ArrayList<>();
+    private volatile List<DiskSegment> segments = new ArrayList<>();
+
+    // Open (or create) an index in the given directory
+    public PageIndexer(Path indexDir) throws IOException {
+        this.indexDir = indexDir;
+        Files.createDirectories(indexDir);
+
+        // Reload the document table from a previous run. A crash can leave a partial last line,
+        // which the next append would run into; each line names its id, so a bad line cannot
+        // shift the ids after it.
+        Path docsPath = indexDir.resolve(DOCS_FILE);
+        if (Files.exists(docsPath)) {
+            truncateAfterLastNewline(docsPath);
+            try (BufferedReader reader = Files.newBufferedReader(docsPath, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] fields = line.split("\t", 3);
+                    int docId;
+                    try {
+                        docId = fields.length == 3 ? Integer.parseInt(fields[0]) : -1;
+                    } catch (NumberFormatException e) {
+                        docId = -1;
+                    }
+                    if (docId < docUrls.size()) {
+                        System.err.println("Skipping bad document table line in " + docsPath);
+                        continue;
+                    }
+                    while (docUrls.size() < docId) {
+                        docUrls.add("");
+                        docTitles.add("");
+                    }
+                    docUrls.add(fields[1]);
+                    docTitles.add(fields[2]);
+                }
+            }
+        }
+        docsWriter = Files.newBufferedWriter(docsPath, StandardCharsets.UTF_8,
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+
+        // Reopen existing segments in document order. A crash during a merge can leave the
+        // merged segment next to its inputs; those are covered by its document range.
+        List<DiskSegment> existing = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(indexDir, "seg-*.idx")) {
+            for (Path path : stream) {
+                existing.add(new DiskSegment(path));
+            }
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(indexDir, "seg-*.idx.tmp")) {
+            for (Path path : stream) {
+                Files.delete(path);
+            }
+        }
+        List<DiskSegment> covered = new ArrayList<>();
+        for (DiskSegment segment : existing) {
+            for (DiskSegment other : existing) {
+                if (other.level > segment.level && other.firstDocId <= segment.firstDocId
+                        && segment.lastDocId <= other.lastDocId) {
+                    covered.add(segment);
+                    break;
+                }
+            }
+        }
+        for (DiskSegment segment : covered) {
+            existing.remove(segment);
+            Files.delete(segment.path);
+        }
+        existing.sort(Comparator.comparingInt(s -> s.sequence));
+        for (DiskSegment segment : existing) {
+            segmentSequence.set(Math.max(segmentSequence.get(), segment.sequence + 1));
+        }
+        segments = existing;
+        active = new BufferedSegment();
+    }
+
+    // Tokenize a crawled page and add it to the index; returns its document id
+    public int addDocument(String url, String title, String htmlContent) {
+        Map<String, Integer> termFreqs = new HashMap<>();
+        tokenize(title, termFreqs, TITLE_BOOST);
+        tokenizeHtml(htmlContent, termFreqs);
+
+        lock.writeLock().lock();
+        try {
+            int docId = docUrls.size();
+            docUrls.add(url);
+            docTitles.add(title);
+            try {
+                docsWriter.write(Integer.toString(docId));
+                docsWriter.write('\t');
+                docsWriter.write(field(url));
+                docsWriter.write('\t');
+                docsWriter.write(field(title));
+                docsWriter.newLine();
+            } catch (IOException e) {
+                System.err.println("Error writing document table: " + e.getMessage());
+            }
+
+            active.add(docId, termFreqs);
+            if (active.docCount >= FLUSH_THRESHOLD) {
+                freezeActive();
+            }
+            return docId;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Write everything buffered so far to a segment and wait for it
+    public void flush() {
+        Future<?> pending;
+        lock.writeLock().lock();
+        try {
+            pending = active.docCount > 0 ? freezeActive() : background.submit(() -> {});
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            pending.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.err.println("Error flushing index: " + e.getCause().getMessage());
+        }
+    }
+
+    // Must be called with the write lock held
+    private Future<?> freezeActive() {
+        BufferedSegment frozen = active;
+        flushing.add(frozen);
+        active = new BufferedSegment();
+        return background.submit(() -> writeSegment(frozen));
+    }
+
+    // Search the index; pages become visible as soon as they are added
+    public List<SearchResult> search(String query, int limit) {
+        Map<String, Integer> queryTerms = new LinkedHashMap<>();
+        tokenize(query, queryTerms, 1);
+        if (queryTerms.isEmpty() || limit <= 0) return Collections.emptyList();
+
+        // Take a consistent view of every part of the index
+        List<IndexPart> parts = new ArrayList<>();
+        int docCount;
+        lock.readLock().lock();
+        try {
+            parts.addAll(segments);
+            parts.addAll(flushing);
+            parts.add(active.snapshot(queryTerms.keySet()));
+            docCount = docUrls.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // Score documents with tf-idf summed over the query terms
+        Map<Integer, Double> scores = new HashMap<>();
+        for (String term : queryTerms.keySet()) {
+            int docFreq = 0;
+            for (IndexPart part : parts) {
+                docFreq += part.docFreq(term);
+            }
+            if (docFreq == 0) continue;
+
+            double idf = Math.log(1.0 + (double) docCount / docFreq);
+            for (IndexPart part : parts) {
+                part.forEachPosting(term, (docId, tf) ->
+                    scores.merge(docId, (1.0 + Math.log(tf)) * idf, Double::sum));
+            }
+        }
+
+        // Keep the top results
+        PriorityQueue<Map.Entry<Integer, Double>> top = new PriorityQueue<>(Map.Entry.comparingByValue());
+        for (Map.Entry<Integer, Double> entry : scores.entrySet()) {
+            top.offer(entry);
+            if (top.size() > limit) top.poll();
+        }
+
+        List<SearchResult> results = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            while (!top.isEmpty()) {
+                Map.Entry<Integer, Double> entry = top.poll();
+                int docId = entry.getKey();
+                results.add(new SearchResult(docId, docUrls.get(docId), docTitles.get(docId), entry.getValue()));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        Collections.reverse(results);
+        return results;
+    }
+
+    // Number of documents in the index
+    public int documentCount() {
+        lock.readLock().lock();
+        try {
+            return docUrls.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Number of segment files currently on disk
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        background.shutdown();
+        try {
+            background.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        lock.writeLock().lock();
+        try {
+            docsWriter.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Write a frozen buffer to disk, publish it, then merge if needed (background thread)
+    private void writeSegment(BufferedSegment frozen) {
+        try {
+            lock.writeLock().lock();
+            try {
+                docsWriter.flush();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            List<String> terms = new ArrayList<>(frozen.postings.keySet());
+            Collections.sort(terms);
+            SegmentWriter writer = new SegmentWriter(nextSegmentPath(0), frozen.firstDocId,
+                frozen.firstDocId + frozen.docCount - 1);
+            for (String term : terms) {
+                IntList postings = frozen.postings.get(term);
+                writer.startTerm(term);
+                for (int i = 0; i < postings.size; i += 2) {
+                    writer.addPosting(postings.data[i], postings.data[i + 1]);
+                }
+            }
+            DiskSegment segment = new DiskSegment(writer.finish());
+
+            lock.writeLock().lock();
+            try {
+                List<DiskSegment> updated = new ArrayList<>(segments);
+                updated.add(segment);
+                segments = updated;
+                flushing.remove(frozen);
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            mergeSegments();
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("Error writing index segment: " + e.getMessage());
+        }
+    }
+
+    // Merge the newest segments while MERGE_FACTOR of them share a level
+    private void mergeSegments() throws IOException {
+        while (true) {
+            List<DiskSegment> current = segments;
+            int n = current.size();
+            if (n < MERGE_FACTOR) return;
+
+            List<DiskSegment> tail = current.subList(n - MERGE_FACTOR, n);
+            int level = tail.get(0).level;
+            long totalBytes = 0;
+            for (DiskSegment segment : tail) {
+                if (segment.level != level) return;
+                totalBytes += segment.sizeInBytes();
+            }
+            if (totalBytes > MAX_SEGMENT_BYTES) return;
+
+            // Segments cover consecutive document ranges, so postings simply concatenate
+            TreeSet<String> terms = new TreeSet<>();
+            for (DiskSegment segment : tail) {
+                terms.addAll(segment.dictionary.keySet());
+            }
+            SegmentWriter writer = new SegmentWriter(nextSegmentPath(level + 1), tail.get(0).firstDocId,
+                tail.get(MERGE_FACTOR - 1).lastDocId);
+            for (String term : terms) {
+                writer.startTerm(term);
+                for (DiskSegment segment : tail) {
+                    segment.forEachPosting(term, writer::addPosting);
+                }
+            }
+            DiskSegment merged = new DiskSegment(writer.finish());
+
+            lock.writeLock().lock();
+            try {
+                List<DiskSegment> updated = new ArrayList<>(segments.subList(0, n - MERGE_FACTOR));
+                updated.add(merged);
+                updated.addAll(segments.subList(n, segments.size()));
+                segments = updated;
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            // Searches still holding the old mappings can keep reading them. Until the inputs
+            // are gone, a reopen drops them as covered by the merged segment.
+            for (DiskSegment segment : tail) {
+                Files.deleteIfExists(segment.path);
+            }
+        }
+    }
+
+    // A document table field on one line, without the separator
+    private static String field(String text) {
+        return text == null ? "" : text.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+    }
+
+    private static void truncateAfterLastNewline(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long end = channel.size();
+            ByteBuffer one = ByteBuffer.allocate(1);
+            while (end > 0) {
+                one.clear();
+                channel.read(one, end - 1);
+                if (one.get(0) == '\n') break;
+                end--;
+            }
+            channel.truncate(end);
+        }
+    }
+
+    private Path nextSegmentPath(int level) {
+        return indexDir.resolve(String.format("seg-%08d-L%d.idx", segmentSequence.getAndIncrement(), level));
+    }
+
+    // Tokenize plain text into lowercase terms
+    private static void tokenize(String text, Map<String, Integer> termFreqs, int weight) {
+        if (text == null) return;
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                token.append(Character.toLowerCase(c));
+            } else if (token.length() > 0) {
+                addToken(token, termFreqs, weight);
+            }
+        }
+    }
+
+    // Tokenize the visible text of an HTML page in one pass, skipping tags, scripts and entities
+    private static void tokenizeHtml(String html, Map<String, Integer> termFreqs) {
+        if (html == null) return;
+        StringBuilder token = new StringBuilder();
+        int length = html.length();
+        int i = 0;
+
+        while (i < length) {
+            char c = html.charAt(i);
+            if (c == '<') {
+                if (token.length() > 0) addToken(token, termFreqs, 1);
+                int end = html.indexOf('>', i);
+                if (end < 0) break;
+
+                // Skip the contents of script and style elements entirely
+                String closeTag = null;
+                if (html.regionMatches(true, i, "<script", 0, 7)) closeTag = "</script";
+                else if (html.regionMatches(true, i, "<style", 0, 6)) closeTag = "</style";
+                if (closeTag != null) {
+                    int close = indexOfIgnoreCase(html, closeTag, end);
+                    if (close < 0) break;
+                    end = html.indexOf('>', close);
+                    if (end < 0) break;
+                }
+                i = end + 1;
+            } else if (c == '&') {
+                // Treat entities as separators
+                if (token.length() > 0) addToken(token, termFreqs, 1);
+                int semicolon = html.indexOf(';', i);
+                i = semicolon > 0 && semicolon - i <= 10 ? semicolon + 1 : i + 1;
+            } else {
+                if (Character.isLetterOrDigit(c)) {
+                    token.append(Character.toLowerCase(c));
+                } else if (token.length() > 0) {
+                    addToken(token, termFreqs, 1);
+                }
+                i++;
+            }
+        }
+        if (token.length() > 0) addToken(token, termFreqs, 1);
+    }
+
+    private static void addToken(StringBuilder token, Map<String, Integer> termFreqs, int weight) {
+        if (token.length() >= MIN_TOKEN_LENGTH && token.length() <= MAX_TOKEN_LENGTH) {
+            termFreqs.merge(token.toString(), weight, Integer::sum);
+        }
+        token.setLength(0);
+    }
+
+    private static int indexOfIgnoreCase(String text, String needle, int from) {
+        for (int i = from; i <= text.length() - needle.length(); i++) {
+            if (text.regionMatches(true, i, needle, 0, needle.length())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Varint encoding helpers
+    private static void writeVarInt(OutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int readVarInt(ByteBuffer buffer) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    // Callback for walking a postings list
+    interface PostingConsumer {
+        void accept(int docId, int termFreq) throws IOException;
+    }
+
+    // Common view over in-memory and on-disk postings
+    interface IndexPart {
+        int docFreq(String term);
+        void forEachPosting(String term, PostingConsumer consumer);
+    }
+
+    // Growable int array holding (docId, termFreq) pairs
+    private static class IntList {
+        int[] data = new int[4];
+        int size;
+
+        void add(int a, int b) {
+            if (size + 2 > data.length) {
+                data = Arrays.copyOf(data, data.length * 2);
+            }
+            data[size++] = a;
+            data[size++] = b;
+        }
+    }
+
+    // Postings held in memory until the next flush
+    private static class BufferedSegment implements IndexPart {
+        final Map<String, IntList> postings;
+        int firstDocId = -1; // documents are added with consecutive ids
+        int docCount;
+
+        BufferedSegment() {
+            this(new HashMap<>(), 0);
+        }
+
+        private BufferedSegment(Map<String, IntList> postings, int docCount) {
+            this.postings = postings;
+            this.docCount = docCount;
+        }
+
+        void add(int docId, Map<String, Integer> termFreqs) {
+            for (Map.Entry<String, Integer> entry : termFreqs.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), k -> new IntList()).add(docId, entry.getValue());
+            }
+            if (docCount++ == 0) firstDocId = docId;
+        }
+
+        // Copy the postings a query needs (called with the read lock held)
+        BufferedSegment snapshot(Set<String> terms) {
+            Map<String, IntList> copy = new HashMap<>();
+            for (String term : terms) {
+                IntList source = postings.get(term);
+                if (source == null) continue;
+                IntList list = new IntList();
+                list.data = Arrays.copyOf(source.data, source.size);
+                list.size = source.size;
+                copy.put(term, list);
+            }
+            return new BufferedSegment(copy, docCount);
+        }
+
+        @Override
+        public int docFreq(String term) {
+            IntList list = postings.get(term);
+            return list == null ? 0 : list.size / 2;
+        }
+
+        @Override
+        public void forEachPosting(String term, PostingConsumer consumer) {
+            IntList list = postings.get(term);
+            if (list == null) return;
+            try {
+                for (int i = 0; i < list.size; i += 2) {
+                    consumer.accept(list.data[i], list.data[i + 1]);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    // Writes a segment: delta/varint postings, then the term dictionary, then a footer with
+    // the range of document ids the segment covers
+    private static class SegmentWriter {
+        private final Path path;
+        private final Path tempPath;
+        private final DataOutputStream out;
+        private final List<String> terms = new ArrayList<>();
+        private final IntList termInfo = new IntList(); // (postings offset, docFreq) per term
+        private final int firstDocId;
+        private final int lastDocId;
+        private int previousDocId;
+
+        SegmentWriter(Path path, int firstDocId, int lastDocId) throws IOException {
+            this.path = path;
+            this.firstDocId = firstDocId;
+            this.lastDocId = lastDocId;
+            this.tempPath = path.resolveSibling(path.getFileName() + ".tmp");
+            this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempPath)));
+        }
+
+        void startTerm(String term) {
+            terms.add(term);
+            termInfo.add(out.size(), 0);
+            previousDocId = 0;
+        }
+
+        void addPosting(int docId, int termFreq) throws IOException {
+            writeVarInt(out, docId - previousDocId);
+            writeVarInt(out, termFreq);
+            previousDocId = docId;
+            termInfo.data[termInfo.size - 1]++;
+        }
+
+        Path finish() throws IOException {
+            int dictionaryOffset = out.size();
+            for (int i = 0; i < terms.size(); i++) {
+                byte[] bytes = terms.get(i).getBytes(StandardCharsets.UTF_8);
+                writeVarInt(out, bytes.length);
+                out.write(bytes);
+                out.writeInt(termInfo.data[i * 2]);
+                writeVarInt(out, termInfo.data[i * 2 + 1]);
+            }
+            out.writeInt(dictionaryOffset);
+            out.writeInt(terms.size());
+            out.writeInt(firstDocId);
+            out.writeInt(lastDocId);
+            out.writeInt(SEGMENT_MAGIC);
+            out.close();
+
+            // On disk before it is named, so a merge never deletes inputs for a lost segment
+            try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            return Files.move(tempPath, path, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    // Read-only, memory-mapped segment
+    private static class DiskSegment implements IndexPart {
+        final Path path;
+        final int sequence;
+        final int level;
+        final int firstDocId;
+        final int lastDocId;
+        final MappedByteBuffer buffer;
+        final Map<String, int[]> dictionary = new HashMap<>(); // term -> {offset, docFreq}
+
+        DiskSegment(Path path) throws IOException {
+            this.path = path;
+            String name = path.getFileName().toString(); // seg-<sequence>-L<level>.idx
+            this.sequence = Integer.parseInt(name.substring(4, name.indexOf("-L")));
+            this.level = Integer.parseInt(name.substring(name.indexOf("-L") + 2, name.length() - 4));
+
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+
+            int footer = buffer.limit() - 20;
+            if (footer < 0 || buffer.getInt(footer + 16) != SEGMENT_MAGIC) {
+                throw new IOException("Not an index segment: " + path);
+            }
+            int dictionaryOffset = buffer.getInt(footer);
+            int termCount = buffer.getInt(footer + 4);
+            this.firstDocId = buffer.getInt(footer + 8);
+            this.lastDocId = buffer.getInt(footer + 12);
+
+            ByteBuffer dict = buffer.duplicate();
+            dict.position(dictionaryOffset);
+            for (int i = 0; i < termCount; i++) {
+                byte[] bytes = new byte[readVarInt(dict)];
+                dict.get(bytes);
+                int offset = dict.getInt();
+                int docFreq = readVarInt(dict);
+                dictionary.put(new String(bytes, StandardCharsets.UTF_8), new int[] {offset, docFreq});
+            }
+        }
+
+        long sizeInBytes() {
+            return buffer.capacity();
+        }
+
+        @Override
+        public int docFreq(String term) {
+            int[] info = dictionary.get(term);
+            return info == null ? 0 : info[1];
+        }
+
+        @Override
+        public void forEachPosting(String term, PostingConsumer consumer) {
+            int[] info = dictionary.get(term);
+            if (info == null) return;
+
+            ByteBuffer postings = buffer.duplicate();
+            postings.position(info[0]);
+            int docId = 0;
+            try {
+                for (int i = 0; i < info[1]; i++) {
+                    docId += readVarInt(postings);
+                    consumer.accept(docId, readVarInt(postings));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    // A single search hit
+    public static class SearchResult {
+        public final int docId;
+        public final String url;
+        public final String title;
+        public final double score;
+
+        SearchResult(int docId, String url, String title, double score) {
+            this.docId = docId;
+            this.url = url;
+            this.title = title;
+            this.score = score;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.3f  %s  %s", score, url, title);
+        }
+    }
+
+    // Query an existing index from the command line
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: java PageIndexer <index_dir> <query...>");
+            System.exit(1);
+        }
+
+        try (PageIndexer indexer = new PageIndexer(Paths.get(args[0]))) {
+            String query = String.join(" ", Arrays.copyOfRange(args, 1, args.length));
+            System.out.println("Documents: " + indexer.documentCount() + ", segments: " + indexer.segmentCount());
+            for (SearchResult result : indexer.search(query, 10)) {
+                System.out.println(result);
+            }
+        }
+    }
+}
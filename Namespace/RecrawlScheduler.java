@@ -0,0 +1,286 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+public class RecrawlScheduler implements Closeable {
+    // Change-rate model parameters
+    private static final long MIN_INTERVAL = 10 * 60 * 1000L; // never revisit sooner than 10 minutes
+    private static final long MAX_INTERVAL = 30 * 24 * 3600 * 1000L; // nor later than 30 days
+    private static final double DEFAULT_RATE = 1.0 / (24 * 3600 * 1000.0); // one change a day until we know better
+    private static final double MIN_THRESHOLD = 0.05;
+    private static final double MAX_THRESHOLD = 0.95;
+
+    // On-disk queue parameters
+    private static final long BUCKET_MILLIS = 60 * 1000L;
+    private static final int MAX_PENDING_WRITES = 1000;
+    private static final String HISTORY_FILE = "history.log";
+
+    private final Map<String, PageHistory> pages = new HashMap<>();
+    private final BufferedWriter historyWriter;
+    private final TimeBucketQueue queue;
+
+    // Revisit once the change probability reaches this; adapted to the fetch budget
+    private double threshold = 0.5;
+
+    // Freshness statistics
+    private long fetches = 0;
+    private long changesDetected = 0;
+
+    public RecrawlScheduler(Path stateDir) throws IOException {
+        Files.createDirectories(stateDir);
+        queue = new TimeBucketQueue(stateDir.resolve("queue"));
+
+        // Rebuild per-URL change statistics from the history log
+        Path historyPath = stateDir.resolve(HISTORY_FILE);
+        if (Files.exists(historyPath)) {
+            try (BufferedReader reader = Files.newBufferedReader(historyPath, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] fields = line.split("\t");
+                    if (fields.length != 3) continue;
+                    observe(fields[0], Long.parseUnsignedLong(fields[2], 16), Long.parseLong(fields[1]), 0);
+                }
+            }
+        }
+        historyWriter = Files.newBufferedWriter(historyPath, StandardCharsets.UTF_8,
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+
+        // Pages missing from the queue are rescheduled from the history: all of them when the
+        // queue was lost, or those a crash caught between being polled and being pushed back
+        Set<String> queued = queue.queuedUrls();
+        for (Map.Entry<String, PageHistory> entry : pages.entrySet()) {
+            if (!queued.contains(entry.getKey())) {
+                queue.push(entry.getValue().nextDue(threshold), entry.getKey());
+            }
+        }
+    }
+
+    // Record a fetch of a page; returns true if its content changed since the last fetch.
+    // lastModHint (0 if unknown) seeds the change rate of pages seen for the first time.
+    public synchronized boolean recordFetch(String url, long contentHash, long fetchTime, long lastModHint) {
+        try {
+            historyWriter.write(url + "\t" + fetchTime + "\t" + Long.toHexString(contentHash));
+            historyWriter.newLine();
+        } catch (IOException e) {
+            System.err.println("Error writing recrawl history: " + e.getMessage());
+        }
+
+        boolean changed = observe(url, contentHash, fetchTime, lastModHint);
+        fetches++;
+        if (changed) changesDetected++;
+        queue.push(pages.get(url).nextDue(threshold), url);
+        return changed;
+    }
+
+    // Record a refetch that did not get the page (blocked, interrupted or failed); it stays
+    // scheduled, retried after a backoff that doubles with each failure in a row
+    public synchronized void recordFailure(String url, long now) {
+        PageHistory history = pages.get(url);
+        if (history == null) return;
+        int doublings = Math.min(history.failures++, 20);
+        queue.push(now + Math.min(MAX_INTERVAL, MIN_INTERVAL << doublings), url);
+    }
+
+    private boolean observe(String url, long contentHash, long fetchTime, long lastModHint) {
+        PageHistory history = pages.get(url);
+        if (history == null) {
+            history = new PageHistory(contentHash, fetchTime);
+            if (lastModHint > 0 && lastModHint < fetchTime) {
+                // A page last modified long ago probably changes rarely
+                history.priorRate = 1.0 / Math.max(MIN_INTERVAL, fetchTime - lastModHint);
+            }
+            pages.put(url, history);
+            return false;
+        }
+        return history.update(contentHash, fetchTime);
+    }
+
+    // Pick up to budget due URLs, the ones most likely to have changed first
+    public synchronized List<String> nextBatch(long now, int budget) {
+        List<String> due = queue.pollDue(now);
+
+        // A URL may have been queued more than once; keep one copy
+        LinkedHashSet<String> unique = new LinkedHashSet<>(due);
+        List<String> candidates = new ArrayList<>();
+        for (String url : unique) {
+            if (pages.containsKey(url)) candidates.add(url);
+        }
+        candidates.sort(Comparator.comparingDouble((String url) -> pages.get(url).changeProbability(now)).reversed());
+
+        List<String> batch = new ArrayList<>(candidates.subList(0, Math.min(budget, candidates.size())));
+        for (String url : candidates.subList(batch.size(), candidates.size())) {
+            queue.push(now + BUCKET_MILLIS, url);
+        }
+
+        // Too much due work: wait for a higher change probability; too little: revisit sooner
+        if (candidates.size() > budget) {
+            threshold = Math.min(MAX_THRESHOLD, threshold * 1.1);
+        } else if (candidates.size() < budget / 2) {
+            threshold = Math.max(MIN_THRESHOLD, threshold / 1.1);
+        }
+        return batch;
+    }
+
+    // Estimated changes per day for a URL (NaN if never fetched)
+    public synchronized double changesPerDay(String url) {
+        PageHistory history = pages.get(url);
+        return history == null ? Double.NaN : history.rate() * 24 * 3600 * 1000.0;
+    }
+
+    public synchronized int trackedPageCount() {
+        return pages.size();
+    }
+
+    public synchronized long fetchCount() {
+        return fetches;
+    }
+
+    public synchronized long changeCount() {
+        return changesDetected;
+    }
+
+    public synchronized double currentThreshold() {
+        return threshold;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        historyWriter.close();
+        queue.flush();
+    }
+
+    // 64-bit FNV-1a hash of page content
+    public static long contentHash(String content) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < content.length(); i++) {
+            hash ^= content.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    // Change history summary for one URL
+    private static class PageHistory {
+        long lastHash;
+        long lastFetch;
+        int intervals; // fetches after the first
+        int changes; // intervals in which the content changed
+        long totalInterval;
+        double priorRate = DEFAULT_RATE;
+        int failures; // refetches in a row that failed, not persisted
+
+        PageHistory(long hash, long fetchTime) {
+            this.lastHash = hash;
+            this.lastFetch = fetchTime;
+        }
+
+        boolean update(long hash, long fetchTime) {
+            boolean changed = hash != lastHash;
+            failures = 0;
+            intervals++;
+            totalInterval += Math.max(0, fetchTime - lastFetch);
+            if (changed) changes++;
+            lastHash = hash;
+            lastFetch = fetchTime;
+            return changed;
+        }
+
+        // Poisson change rate per millisecond, using the bias-reduced estimator
+        // -ln((n - X + 0.5) / (n + 0.5)) / I for n visits at mean interval I with X detected changes
+        double rate() {
+            if (intervals == 0 || totalInterval == 0) return priorRate;
+            double meanInterval = (double) totalInterval / intervals;
+            double estimate = -Math.log((intervals - changes + 0.5) / (intervals + 0.5)) / meanInterval;
+            return Math.max(1.0 / MAX_INTERVAL, Math.min(1.0 / MIN_INTERVAL, estimate));
+        }
+
+        double changeProbability(long now) {
+            return 1.0 - Math.exp(-rate() * Math.max(0, now - lastFetch));
+        }
+
+        // Time at which the change probability reaches the threshold
+        long nextDue(double threshold) {
+            long interval = (long) (-Math.log(1.0 - threshold) / rate());
+            return lastFetch + Math.max(MIN_INTERVAL, Math.min(MAX_INTERVAL, interval));
+        }
+    }
+
+    // Time-ordered queue kept on disk as one append-only file per minute of due time
+    private static class TimeBucketQueue {
+        private final Path dir;
+        private final TreeSet<Long> buckets = new TreeSet<>();
+        private final Map<Long, List<String>> pendingWrites = new HashMap<>();
+        private int pendingCount = 0;
+
+        TimeBucketQueue(Path dir) throws IOException {
+            this.dir = dir;
+            Files.createDirectories(dir);
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "due-*.q")) {
+                for (Path path : stream) {
+                    String name = path.getFileName().toString();
+                    buckets.add(Long.parseLong(name.substring(4, name.length() - 2)));
+                }
+            }
+        }
+
+        // Every URL in a bucket file
+        Set<String> queuedUrls() throws IOException {
+            Set<String> urls = new HashSet<>();
+            for (long bucket : buckets) {
+                Path path = bucketPath(bucket);
+                if (Files.exists(path)) urls.addAll(Files.readAllLines(path, StandardCharsets.UTF_8));
+            }
+            return urls;
+        }
+
+        void push(long dueTime, String url) {
+            long bucket = dueTime / BUCKET_MILLIS;
+            buckets.add(bucket);
+            pendingWrites.computeIfAbsent(bucket, b -> new ArrayList<>()).add(url);
+            if (++pendingCount >= MAX_PENDING_WRITES) {
+                flush();
+            }
+        }
+
+        // Remove and return every URL due at or before now, oldest bucket first
+        List<String> pollDue(long now) {
+            flush();
+            List<String> due = new ArrayList<>();
+            long lastDue = now / BUCKET_MILLIS;
+            while (!buckets.isEmpty() && buckets.first() <= lastDue) {
+                long bucket = buckets.pollFirst();
+                Path path = bucketPath(bucket);
+                try {
+                    if (Files.exists(path)) {
+                        due.addAll(Files.readAllLines(path, StandardCharsets.UTF_8));
+                        Files.delete(path);
+                    }
+                } catch (IOException e) {
+                    System.err.println("Error reading recrawl queue bucket " + path + ": " + e.getMessage());
+                }
+            }
+            return due;
+        }
+
+        void flush() {
+            for (Map.Entry<Long, List<String>> entry : pendingWrites.entrySet()) {
+                try (BufferedWriter writer = Files.newBufferedWriter(bucketPath(entry.getKey()),
+                        StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                    for (String url : entry.getValue()) {
+                        writer.write(url);
+                        writer.newLine();
+                    }
+                } catch (IOException e) {
+                    System.err.println("Error writing recrawl queue: " + e.getMessage());
+                }
+            }
+            pendingWrites.clear();
+            pendingCount = 0;
+        }
+
+        private Path bucketPath(long bucket) {
+            return dir.resolve("due-" + bucket + ".q");
+        }
+    }
+}
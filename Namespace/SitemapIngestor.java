@@ -0,0 +1,180 @@
+import java.io.*;
+import java.net.*;
+import java.time.*;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+import javax.xml.stream.*;
+
+public class SitemapIngestor {
+    // Ingestion limits
+    private static final int MAX_INDEX_DEPTH = 3; // sitemap index -> sitemap -> ... nesting
+    private static final int MAX_SITEMAPS_PER_ROOT = 1000;
+    private static final int CONNECT_TIMEOUT = 5000;
+    private static final int READ_TIMEOUT = 30000;
+
+    private final String userAgent;
+    private final XMLInputFactory xmlFactory;
+
+    // Receives each <url> entry; return false to stop ingesting
+    public interface SitemapSink {
+        boolean accept(String url, long lastModified);
+    }
+
+    public SitemapIngestor(String userAgent) {
+        this.userAgent = userAgent;
+        this.xmlFactory = XMLInputFactory.newInstance();
+        // Sitemaps never need DTDs; refusing them also blocks external entity tricks
+        xmlFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        xmlFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        xmlFactory.setProperty(XMLInputFactory.IS_COALESCING, true);
+    }
+
+    // Ingest a sitemap or sitemap index, following nested indexes; returns the number of URLs delivered
+    public long ingest(String rootSitemapUrl, SitemapSink sink) {
+        Deque<String[]> pending = new ArrayDeque<>(); // {url, depth}
+        Set<String> seen = new HashSet<>();
+        pending.add(new String[] {rootSitemapUrl, "0"});
+        seen.add(rootSitemapUrl);
+        long[] delivered = {0};
+
+        while (!pending.isEmpty() && seen.size() <= MAX_SITEMAPS_PER_ROOT) {
+            String[] next = pending.poll();
+            int depth = Integer.parseInt(next[1]);
+            List<String> children = new ArrayList<>();
+
+            if (!ingestOne(next[0], sink, children, delivered)) {
+                break; // sink asked us to stop
+            }
+
+            if (depth < MAX_INDEX_DEPTH) {
+                for (String child : children) {
+                    if (seen.add(child)) {
+                        pending.add(new String[] {child, String.valueOf(depth + 1)});
+                    }
+                }
+            }
+        }
+        return delivered[0];
+    }
+
+    // Stream one sitemap document; nested sitemap locations are collected into children.
+    // Returns false if the sink asked to stop.
+    private boolean ingestOne(String sitemapUrl, SitemapSink sink, List<String> children, long[] delivered) {
+        HttpURLConnection connection = null;
+        XMLStreamReader reader = null;
+
+        if (!isHttp(sitemapUrl)) {
+            System.err.println("Skipping non-HTTP sitemap: " + sitemapUrl);
+            return true;
+        }
+
+        try {
+            URL url = new URL(sitemapUrl);
+            connection = (HttpURLConnection) url.openConnection();
+            connection.setRequestMethod("GET");
+            connection.setRequestProperty("User-Agent", userAgent);
+            connection.setConnectTimeout(CONNECT_TIMEOUT);
+            connection.setReadTimeout(READ_TIMEOUT);
+
+            int responseCode = connection.getResponseCode();
+            if (responseCode != HttpURLConnection.HTTP_OK) {
+                System.err.println("HTTP " + responseCode + " for sitemap: " + sitemapUrl);
+                return true;
+            }
+
+            reader = xmlFactory.createXMLStreamReader(openBody(connection.getInputStream()));
+
+            // Only the current entry is ever held in memory
+            boolean inUrl = false, inSitemap = false;
+            String loc = null, lastMod = null;
+            StringBuilder text = new StringBuilder();
+
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    String name = reader.getLocalName();
+                    text.setLength(0);
+                    if (name.equals("url")) {
+                        inUrl = true;
+                        loc = lastMod = null;
+                    } else if (name.equals("sitemap")) {
+                        inSitemap = true;
+                        loc = lastMod = null;
+                    }
+                } else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA) {
+                    if (text.length() < 4096) text.append(reader.getText());
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    String name = reader.getLocalName();
+                    if (name.equals("loc")) {
+                        loc = text.toString().trim();
+                    } else if (name.equals("lastmod")) {
+                        lastMod = text.toString().trim();
+                    } else if (name.equals("url") && inUrl) {
+                        inUrl = false;
+                        if (isHttp(loc)) {
+                            delivered[0]++;
+                            if (!sink.accept(loc, parseLastMod(lastMod))) {
+                                return false;
+                            }
+                        }
+                    } else if (name.equals("sitemap") && inSitemap) {
+                        inSitemap = false;
+                        if (isHttp(loc)) children.add(loc);
+                    }
+                    text.setLength(0);
+                }
+            }
+        } catch (IOException | XMLStreamException e) {
+            System.err.println("Error reading sitemap " + sitemapUrl + ": " + e.getMessage());
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException e) {
+                    // Nothing left to read
+                }
+            }
+            if (connection != null) {
+                connection.disconnect();
+            }
+        }
+        return true;
+    }
+
+    // Only http and https locations are fetched or delivered; anything else would not open as an HttpURLConnection
+    private static boolean isHttp(String loc) {
+        return loc != null && (loc.startsWith("http://") || loc.startsWith("https://"));
+    }
+
+    // Transparently gunzip bodies that start with the gzip magic number (.xml.gz files)
+    private static InputStream openBody(InputStream raw) throws IOException {
+        PushbackInputStream in = new PushbackInputStream(new BufferedInputStream(raw, 1 << 16), 2);
+        int b1 = in.read();
+        int b2 = in.read();
+        if (b2 >= 0) in.unread(b2);
+        if (b1 >= 0) in.unread(b1);
+        if (b1 == 0x1f && b2 == 0x8b) {
+            return new GZIPInputStream(in, 1 << 16);
+        }
+        return in;
+    }
+
+    // Parse a W3C datetime lastmod value to epoch millis (0 if absent or invalid)
+    static long parseLastMod(String value) {
+        if (value == null || value.isEmpty()) return 0;
+        try {
+            if (value.length() <= 10) {
+                return LocalDate.parse(value).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+            }
+            return OffsetDateTime.parse(value).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            try {
+                // Some sites omit the offset
+                return LocalDateTime.parse(value).toInstant(ZoneOffset.UTC).toEpochMilli();
+            } catch (DateTimeParseException ignored) {
+                return 0;
+            }
+        }
+    }
+}
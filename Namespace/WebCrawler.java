@@ -1,5 +1,8 @@
 import java.io.*;
 import java.net.*;
+import java.net.http.*;
+import java.nio.file.*;
+import java.time.Duration;
 import java.util.*;
 import java.util.regex.*;
 import java.util.concurrent.*;
@@ -11,13 +14,40 @@ public class WebCrawler {
     private static final int NUM_THREADS = 5;
     private static final int CRAWL_DELAY = 1000; // milliseconds between requests to same domain
     private static final String USER_AGENT = "SimpleWebCrawler/1.0";
+    private static final int RECRAWL_BUDGET = 100; // fetches per recrawl period
+    private static final long RECRAWL_PERIOD = 60 * 1000; // milliseconds
+    private static final long SITEMAP_WAIT = 200; // milliseconds between checks for sitemap budget room
+    
+    // Connection pool, DNS cache, robots cache and politeness timers (shareable between crawlers)
+    private final CrawlResources resources;
     
     // Data structures for tracking visited URLs and domains
     private final Set<String> visitedUrls = ConcurrentHashMap.newKeySet();
-    private final Map<String, Long> lastRequestTime = new ConcurrentHashMap<>();
+    private final Map<String, Long> lastRequestTime;
     private final BlockingQueue<String> urlQueue = new LinkedBlockingQueue<>();
+    private final Set<String> queuedUrls = ConcurrentHashMap.newKeySet(); // in urlQueue, so each is queued once
     private final AtomicInteger pageCount = new AtomicInteger(0);
     
+    // Optional indexing stage (null when indexing is disabled)
+    private volatile PageIndexer indexer;
+    
+    // Optional link-graph recorder (null when disabled)
+    private volatile LinkGraph linkGraph;
+    
+    // Optional sitemap ingestion, seeding the queue from robots.txt Sitemap: entries
+    private volatile boolean sitemapIngestion = false;
+    private volatile int crawlPageLimit = MAX_PAGES;
+    private final Set<String> sitemapDomains = ConcurrentHashMap.newKeySet();
+    private final Map<String, Long> lastModHints = new ConcurrentHashMap<>();
+    private final Set<String> sitemapQueued = ConcurrentHashMap.newKeySet(); // sitemap URLs still in urlQueue
+    private ExecutorService sitemapExecutor;
+    
+    // Optional change tracking for continuous recrawl (null when disabled)
+    private volatile RecrawlScheduler recrawlScheduler;
+    
+    // Worker used when a CrawlJobManager drives this crawler
+    private CrawlerWorker jobWorker;
+    
     // Pattern for matching URLs in HTML
     private static final Pattern LINK_PATTERN = Pattern.compile(
         "<a\\s+(?:[^>]*?\\s+)?href=([\"'])(.*?)\\1", 
@@ -29,10 +59,39 @@ public class WebCrawler {
         "(?i)(Allow|Disallow):\\s*(.*)"
     );
     
+    // Crawler with its own fetch resources
+    public WebCrawler() {
+        this(new CrawlResources());
+    }
+    
+    // Crawler that shares fetch resources with other crawlers in the same process
+    public WebCrawler(CrawlResources resources) {
+        this.resources = resources;
+        this.lastRequestTime = resources.lastRequestTime;
+        this.visitedRobotsDomains = resources.visitedRobotsDomains;
+        this.robotsRules = resources.robotsRules;
+    }
+    
     // Main method to start the crawler
     public static void main(String[] args) {
+        // Flags may appear anywhere; the remaining arguments are positional
+        boolean sitemaps = false;
+        String recrawlDir = null;
+        List<String> positional = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.equals("--sitemaps")) {
+                sitemaps = true;
+            } else if (arg.startsWith("--recrawl=")) {
+                recrawlDir = arg.substring(10);
+            } else {
+                positional.add(arg);
+            }
+        }
+        args = positional.toArray(new String[0]);
+        
         if (args.length < 1) {
-            System.out.println("Usage: java WebCrawler <starting_url> [max_pages]");
+            System.out.println("Usage: java WebCrawler [--sitemaps] [--recrawl=<state_dir>] " + 
+                              "<starting_url> [max_pages] [index_dir|-] [graph_dir]");
             System.exit(1);
         }
         
@@ -48,7 +107,174 @@ public class WebCrawler {
         }
         
         WebCrawler crawler = new WebCrawler();
+        crawler.setSitemapIngestion(sitemaps);
+        
+        if (args.length > 2 && !args[2].equals("-")) {
+            try {
+                crawler.enableIndexing(Paths.get(args[2]));
+            } catch (IOException e) {
+                System.out.println("Could not open index directory, indexing disabled: " + e.getMessage());
+            }
+        }
+        
+        if (args.length > 3) {
+            try {
+                crawler.enableLinkGraph(Paths.get(args[3]));
+            } catch (IOException e) {
+                System.out.println("Could not open graph directory, link recording disabled: " + e.getMessage());
+            }
+        }
+        
+        if (recrawlDir != null) {
+            try {
+                crawler.enableRecrawl(Paths.get(recrawlDir));
+            } catch (IOException e) {
+                System.out.println("Could not open recrawl state, recrawl disabled: " + e.getMessage());
+            }
+        }
+        
         crawler.crawl(startUrl, maxPages);
+        
+        if (crawler.getIndexer() != null) {
+            try {
+                crawler.getIndexer().close();
+            } catch (IOException e) {
+                System.err.println("Error closing index: " + e.getMessage());
+            }
+        }
+        
+        if (crawler.getLinkGraph() != null) {
+            try {
+                crawler.getLinkGraph().close();
+            } catch (IOException e) {
+                System.err.println("Error closing link graph: " + e.getMessage());
+            }
+        }
+        
+        // Keep the crawled set fresh until the process is stopped
+        RecrawlScheduler scheduler = crawler.recrawlScheduler;
+        if (scheduler != null) {
+            // Stop the recrawl loop first, so it requeues the batch it took off the queue
+            Thread recrawlThread = Thread.currentThread();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                recrawlThread.interrupt();
+                try {
+                    recrawlThread.join(5000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                try {
+                    scheduler.close();
+                } catch (IOException e) {
+                    System.err.println("Error closing recrawl state: " + e.getMessage());
+                }
+            }));
+            crawler.recrawl(RECRAWL_BUDGET, RECRAWL_PERIOD);
+        }
+    }
+    
+    // Tokenize and index pages while they are crawled
+    public void enableIndexing(Path indexDir) throws IOException {
+        indexer = new PageIndexer(indexDir);
+    }
+    
+    // Index being built by this crawler, queryable during the crawl
+    public PageIndexer getIndexer() {
+        return indexer;
+    }
+    
+    // Record every page's outlinks for later link analysis (see LinkGraph.buildCsr)
+    public void enableLinkGraph(Path graphDir) throws IOException {
+        linkGraph = new LinkGraph(graphDir);
+    }
+    
+    public LinkGraph getLinkGraph() {
+        return linkGraph;
+    }
+    
+    // Seed the queue from each site's sitemaps as its robots.txt is read
+    public void setSitemapIngestion(boolean enabled) {
+        sitemapIngestion = enabled;
+    }
+    
+    // Track each fetched page's content hash so it can be revisited by change rate
+    public void enableRecrawl(Path stateDir) throws IOException {
+        recrawlScheduler = new RecrawlScheduler(stateDir);
+    }
+    
+    // Continuous recrawl: each period, refetch the budgeted URLs most likely to have changed
+    public void recrawl(int budgetPerPeriod, long periodMillis) {
+        RecrawlScheduler scheduler = recrawlScheduler;
+        if (scheduler == null) {
+            throw new IllegalStateException("Recrawl mode needs enableRecrawl() first");
+        }
+        
+        System.out.println("\nRecrawling " + scheduler.trackedPageCount() + " pages, " + 
+                          budgetPerPeriod + " fetches every " + periodMillis / 1000 + "s");
+        ExecutorService executor = Executors.newFixedThreadPool(NUM_THREADS);
+        Map<Future<Boolean>, String> results = new LinkedHashMap<>();
+        
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                long periodStart = System.currentTimeMillis();
+                List<String> batch = scheduler.nextBatch(periodStart, budgetPerPeriod);
+                
+                results.clear();
+                for (String url : batch) {
+                    results.put(executor.submit(() -> refetchUrl(url)), url);
+                }
+                // A failed refetch has already been rescheduled; the rest of the batch still counts
+                int changed = 0;
+                for (Future<Boolean> result : results.keySet()) {
+                    try {
+                        if (result.get()) changed++;
+                    } catch (ExecutionException e) {
+                        System.err.println("Error in recrawl: " + e.getCause().getMessage());
+                    }
+                }
+                
+                if (!batch.isEmpty()) {
+                    System.out.printf("Recrawl: %d fetched, %d changed (%d/%d overall, threshold %.2f)%n",
+                        batch.size(), changed, scheduler.changeCount(), scheduler.fetchCount(), 
+                        scheduler.currentThreshold());
+                }
+                
+                long remaining = periodMillis - (System.currentTimeMillis() - periodStart);
+                if (remaining > 0) {
+                    Thread.sleep(remaining);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            // Refetches that never started are off the queue too
+            for (Runnable task : executor.shutdownNow()) {
+                String url = results.get(task);
+                if (url != null) scheduler.recordFailure(url, System.currentTimeMillis());
+            }
+        }
+    }
+    
+    // Refetch a known page and record whether it changed; a URL that could not be fetched is
+    // rescheduled with backoff, since nextBatch took it off the queue
+    private boolean refetchUrl(String urlString) {
+        String htmlContent = null;
+        try {
+            if (isAllowedByRobots(urlString) && awaitCrawlDelay(getDomain(urlString))) {
+                htmlContent = fetchPage(urlString);
+            }
+        } finally {
+            if (htmlContent == null) recrawlScheduler.recordFailure(urlString, System.currentTimeMillis());
+        }
+        if (htmlContent == null) return false;
+        
+        return recrawlScheduler.recordFetch(urlString, RecrawlScheduler.contentHash(htmlContent), 
+                                            System.currentTimeMillis(), getLastModHint(urlString));
+    }
+    
+    // Last-modified time a sitemap gave for a URL (0 if none), usable as a priority hint
+    public long getLastModHint(String url) {
+        return lastModHints.getOrDefault(url, 0L);
     }
     
     // Main crawl method
@@ -56,7 +282,16 @@ public class WebCrawler {
         System.out.println("Starting crawler from: " + startUrl);
         System.out.println("Maximum pages to crawl: " + maxPages);
         
-        urlQueue.add(startUrl);
+        enqueue(startUrl);
+        crawlPageLimit = maxPages;
+        
+        if (sitemapIngestion) {
+            sitemapExecutor = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "sitemap-ingestor");
+                t.setDaemon(true);
+                return t;
+            });
+        }
         
         // Create thread pool for concurrent crawling
         ExecutorService executor = Executors.newFixedThreadPool(NUM_THREADS);
@@ -79,9 +314,66 @@ public class WebCrawler {
             Thread.currentThread().interrupt();
         }
         
+        if (sitemapExecutor != null) {
+            sitemapExecutor.shutdownNow();
+        }
+        
         System.out.println("\nCrawling completed!");
         System.out.println("Total pages crawled: " + pageCount.get());
         System.out.println("Total URLs discovered: " + visitedUrls.size());
+        
+        if (indexer != null) {
+            indexer.flush();
+            System.out.println("Total pages indexed: " + indexer.documentCount() + 
+                              " in " + indexer.segmentCount() + " segments");
+        }
+        
+        if (linkGraph != null) {
+            System.out.println("Link graph: " + linkGraph.nodeCount() + " URLs, " + 
+                              linkGraph.recordedEdgeCount() + " edges");
+        }
+    }
+    
+    // Entry points for CrawlJobManager, which drives many crawlers from one shared fetcher pool
+    void seed(String startUrl, int maxPages) {
+        crawlPageLimit = maxPages;
+        jobWorker = new CrawlerWorker(maxPages);
+        enqueue(startUrl);
+    }
+    
+    // slot is the request time reserved by reserveSlot
+    void processQueuedUrl(String url, long slot) {
+        jobWorker.processUrl(url, slot);
+    }
+    
+    String pollQueuedUrl() {
+        return dequeued(urlQueue.poll());
+    }
+    
+    // Reserve the URL's domain for a fetch now, so the next nextQueuedReadyAt sees it busy;
+    // 0 if the URL was already crawled and needs no request
+    long reserveSlot(String url) {
+        return visitedUrls.contains(url) ? 0 : reserveRequestSlot(getDomain(url));
+    }
+    
+    int queuedUrlCount() {
+        return urlQueue.size();
+    }
+    
+    // Time at which the next queued URL's domain may be fetched (0 if nothing is queued)
+    long nextQueuedReadyAt() {
+        String url = urlQueue.peek();
+        if (url == null) return 0;
+        Long last = lastRequestTime.get(getDomain(url));
+        return last == null ? 0 : last + CRAWL_DELAY;
+    }
+    
+    int pagesCrawled() {
+        return pageCount.get();
+    }
+    
+    int urlsDiscovered() {
+        return visitedUrls.size();
     }
     
     // Worker class for concurrent crawling
@@ -96,7 +388,7 @@ public class WebCrawler {
         public void run() {
             while (pageCount.get() < maxPages) {
                 try {
-                    String url = urlQueue.poll(1, TimeUnit.SECONDS);
+                    String url = dequeued(urlQueue.poll(1, TimeUnit.SECONDS));
                     if (url == null) {
                         // No URLs in queue, check if we're done
                         if (pageCount.get() >= maxPages) break;
@@ -104,7 +396,7 @@ public class WebCrawler {
                     }
                     
                     // Process the URL
-                    processUrl(url);
+                    processUrl(url, -1);
                     
                 } catch (InterruptedException e) {
                     Thread.currentThread().interrupt();
@@ -116,7 +408,8 @@ public class WebCrawler {
             }
         }
         
-        private void processUrl(String urlString) {
+        // slot is a request time already reserved for the URL's domain, or -1 to reserve one
+        private void processUrl(String urlString, long slot) {
             // Check if we've reached the page limit
             if (pageCount.get() >= maxPages) return;
             
@@ -132,22 +425,7 @@ public class WebCrawler {
             
             // Respect crawl delay for the domain
             String domain = getDomain(urlString);
-            long currentTime = System.currentTimeMillis();
-            Long lastTime = lastRequestTime.get(domain);
-            
-            if (lastTime != null) {
-                long timeSinceLastRequest = currentTime - lastTime;
-                if (timeSinceLastRequest < CRAWL_DELAY) {
-                    try {
-                        Thread.sleep(CRAWL_DELAY - timeSinceLastRequest);
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                        return;
-                    }
-                }
-            }
-            
-            lastRequestTime.put(domain, System.currentTimeMillis());
+            if (!sleepUntil(slot >= 0 ? slot : reserveRequestSlot(domain))) return;
             
             // Fetch the page content
             String htmlContent = fetchPage(urlString);
@@ -160,59 +438,100 @@ public class WebCrawler {
             visitedUrls.add(urlString);
             int count = pageCount.incrementAndGet();
             
+            // First observation of the page for the recrawl scheduler
+            RecrawlScheduler scheduler = recrawlScheduler;
+            if (scheduler != null) {
+                scheduler.recordFetch(urlString, RecrawlScheduler.contentHash(htmlContent), 
+                                      System.currentTimeMillis(), getLastModHint(urlString));
+            }
+            
             // Extract and print page title
             String title = extractTitle(htmlContent);
             System.out.println(count + ". [" + domain + "] " + 
                               (title.isEmpty() ? urlString : title));
             
+            // Index the page while its content is in hand
+            PageIndexer pageIndexer = indexer;
+            if (pageIndexer != null) {
+                pageIndexer.addDocument(urlString, title, htmlContent);
+            }
+            
             // Extract and queue new URLs
             Set<String> discoveredUrls = extractLinks(htmlContent, urlString);
+            
+            // Keep the edges before the URLs are queued
+            LinkGraph graph = linkGraph;
+            if (graph != null) {
+                graph.recordLinks(urlString, discoveredUrls);
+            }
+            
             for (String discoveredUrl : discoveredUrls) {
-                if (!visitedUrls.contains(discoveredUrl) && pageCount.get() < maxPages) {
-                    urlQueue.offer(discoveredUrl);
+                if (pageCount.get() < maxPages) {
+                    enqueue(discoveredUrl);
                 }
             }
         }
     }
     
-    // Fetch the content of a web page
+    // Reserve the domain's next request slot and sleep until it; false if interrupted
+    private boolean awaitCrawlDelay(String domain) {
+        return sleepUntil(reserveRequestSlot(domain));
+    }
+    
+    // Time of the domain's next request, claimed in one atomic update so concurrent fetchers
+    // of a domain queue up one delay apart instead of all seeing it idle
+    private long reserveRequestSlot(String domain) {
+        long now = System.currentTimeMillis();
+        return lastRequestTime.merge(domain, now, (last, time) -> Math.max(time, last + CRAWL_DELAY));
+    }
+    
+    // False if interrupted
+    private static boolean sleepUntil(long time) {
+        long wait = time - System.currentTimeMillis();
+        if (wait <= 0) return true;
+        try {
+            Thread.sleep(wait);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+    
+    // Fetch the content of a web page through the shared connection pool
     private String fetchPage(String urlString) {
-        HttpURLConnection connection = null;
         try {
             URL url = new URL(urlString);
-            connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestMethod("GET");
-            connection.setRequestProperty("User-Agent", USER_AGENT);
-            connection.setConnectTimeout(5000);
-            connection.setReadTimeout(5000);
             
-            int responseCode = connection.getResponseCode();
-            if (responseCode != HttpURLConnection.HTTP_OK) {
-                System.err.println("HTTP " + responseCode + " for URL: " + urlString);
+            // Skip hosts that recently failed to resolve
+            if (!resources.isResolvable(url.getHost())) {
+                System.err.println("Unknown host for URL: " + urlString);
                 return null;
             }
             
-            // Read the response
-            BufferedReader reader = new BufferedReader(
-                new InputStreamReader(connection.getInputStream())
-            );
+            HttpRequest request = HttpRequest.newBuilder(url.toURI())
+                .header("User-Agent", USER_AGENT)
+                .timeout(Duration.ofMillis(5000))
+                .GET()
+                .build();
             
-            StringBuilder content = new StringBuilder();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                content.append(line).append("\n");
+            HttpResponse<String> response = resources.httpClient.send(
+                request, HttpResponse.BodyHandlers.ofString());
+            
+            int responseCode = response.statusCode();
+            if (responseCode != HttpURLConnection.HTTP_OK) {
+                System.err.println("HTTP " + responseCode + " for URL: " + urlString);
+                return null;
             }
-            reader.close();
             
-            return content.toString();
+            return response.body();
             
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
         } catch (Exception e) {
             System.err.println("Error fetching URL " + urlString + ": " + e.getMessage());
             return null;
-        } finally {
-            if (connection != null) {
-                connection.disconnect();
-            }
         }
     }
     
@@ -312,14 +631,23 @@ public class WebCrawler {
             if (robotsContent == null) {
                 // If we can't fetch robots.txt, assume everything is allowed
                 visitedRobotsDomains.add(domain);
+                scheduleSitemaps(domain, Collections.singletonList(
+                    url.getProtocol() + "://" + url.getHost() + "/sitemap.xml"));
                 return true;
             }
             
             // Parse robots.txt rules
-            List<RobotsRule> rules = parseRobotsTxt(robotsContent);
+            List<String> sitemaps = new ArrayList<>();
+            List<RobotsRule> rules = parseRobotsTxt(robotsContent, sitemaps);
             robotsRules.put(domain, rules);
             visitedRobotsDomains.add(domain);
             
+            // Sites that don't list sitemaps often still have one at the default location
+            if (sitemaps.isEmpty()) {
+                sitemaps.add(url.getProtocol() + "://" + url.getHost() + "/sitemap.xml");
+            }
+            scheduleSitemaps(domain, sitemaps);
+            
             // Check if URL is allowed by all rules
             return rules.stream().allMatch(rule -> isUrlAllowedByRule(urlString, rule));
             
@@ -328,8 +656,8 @@ public class WebCrawler {
         }
     }
     
-    // Parse robots.txt content
-    private List<RobotsRule> parseRobotsTxt(String robotsContent) {
+    // Parse robots.txt content; Sitemap: locations are collected into sitemaps
+    private List<RobotsRule> parseRobotsTxt(String robotsContent, List<String> sitemaps) {
         List<RobotsRule> rules = new ArrayList<>();
         BufferedReader reader = new BufferedReader(new StringReader(robotsContent));
         String line;
@@ -367,6 +695,14 @@ public class WebCrawler {
                     inUserAgentSection = false;
                     ourUserAgent = false;
                 }
+                
+                // Sitemap applies to every user agent, wherever it appears
+                if (line.toLowerCase().startsWith("sitemap:")) {
+                    String sitemapUrl = line.substring(8).trim();
+                    if (sitemapUrl.startsWith("http://") || sitemapUrl.startsWith("https://")) {
+                        sitemaps.add(sitemapUrl);
+                    }
+                }
             }
         } catch (IOException e) {
             // Shouldn't happen with StringReader
@@ -375,6 +711,71 @@ public class WebCrawler {
         return rules;
     }
     
+    // Ingest a domain's sitemaps in the background, once per domain
+    private void scheduleSitemaps(String domain, List<String> sitemaps) {
+        ExecutorService ingestExecutor = sitemapExecutor;
+        if (!sitemapIngestion || ingestExecutor == null || !sitemapDomains.add(domain)) return;
+        
+        try {
+            ingestExecutor.execute(() -> {
+                SitemapIngestor ingestor = new SitemapIngestor(USER_AGENT);
+                for (String sitemap : sitemaps) {
+                    long count = ingestor.ingest(sitemap, this::offerSitemapUrl);
+                    if (count > 0) {
+                        System.out.println("Sitemap " + sitemap + ": " + count + " URLs");
+                    }
+                    if (pageCount.get() >= crawlPageLimit) break;
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Crawl already finished
+        }
+    }
+    
+    // Push a sitemap URL straight into the queue, remembering its lastmod. Blocks while the
+    // sitemap URLs already waiting cover the rest of the page budget, so a site's sitemap cannot
+    // fill memory; links found by crawling don't count against it. False once the budget is
+    // crawled or the crawl is over.
+    private boolean offerSitemapUrl(String url, long lastModified) {
+        while (sitemapQueued.size() + pageCount.get() >= crawlPageLimit) {
+            if (pageCount.get() >= crawlPageLimit) return false;
+            try {
+                Thread.sleep(SITEMAP_WAIT);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        
+        String normalizedUrl = normalizeUrl(url);
+        if (visitedUrls.contains(normalizedUrl) || queuedUrls.contains(normalizedUrl)) return true;
+        
+        // Hint first, so a worker that takes the URL at once still sees it
+        if (lastModified > 0) {
+            lastModHints.put(normalizedUrl, lastModified);
+        }
+        // Counted before it is queued, so a worker that takes it at once uncounts it
+        sitemapQueued.add(normalizedUrl);
+        if (!enqueue(normalizedUrl)) sitemapQueued.remove(normalizedUrl);
+        return true;
+    }
+    
+    // Queue a URL unless it was crawled or is already waiting; true if queued
+    private boolean enqueue(String url) {
+        if (visitedUrls.contains(url) || !queuedUrls.add(url)) return false;
+        urlQueue.offer(url);
+        return true;
+    }
+    
+    // A URL taken off the queue (or null) may be queued again
+    private String dequeued(String url) {
+        if (url != null) {
+            queuedUrls.remove(url);
+            sitemapQueued.remove(url);
+        }
+        return url;
+    }
+    
     // Check if a URL is allowed by a robots.txt rule
     private boolean isUrlAllowedByRule(String urlString, RobotsRule rule) {
         try {
@@ -393,10 +794,10 @@ public class WebCrawler {
         return true;
     }
     // Data structures for robots.txt processing
-    private final Set<String> visitedRobotsDomains = ConcurrentHashMap.newKeySet();
-    private final Map<String, List<RobotsRule>> robotsRules = new ConcurrentHashMap<>();
+    private final Set<String> visitedRobotsDomains;
+    private final Map<String, List<RobotsRule>> robotsRules;
     // Helper class for robots.txt rules
-    private static class RobotsRule {
+    static class RobotsRule {
         final boolean allow;
         final String path;
         